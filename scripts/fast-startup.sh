@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Builds the fast-startup variant of the REST application, records its AppCDS archive in a training run
+# and compares time-to-first-successful GET /projects against a plain start.
+#
+#   scripts/fast-startup.sh [runs]
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+JAR_NAME=TaskList-0.0.1-SNAPSHOT.jar
+OUT=target/fast-startup
+FAST_OPTS=(-Dspring.aot.enabled=true -Dspring.profiles.active=fast)
+
+mvn -B -q -Pfast-startup package -DskipTests
+
+# CDS needs a plain class path, so unpack the executable jar into jar + lib/
+rm -rf "$OUT"
+java -Djarmode=tools -jar "target/$JAR_NAME" extract --destination "$OUT"
+
+# Training run: start the context, exit right after refresh and dump every loaded class
+java -XX:ArchiveClassesAtExit="$OUT/tasklist.jsa" -Xlog:cds=error -Dspring.context.exit=onRefresh "${FAST_OPTS[@]}" \
+    -jar "$OUT/$JAR_NAME" web
+
+mvn -B -q test-compile
+java -cp target/test-classes com.ortecfinance.tasklist.bench.StartupBenchmark \
+    "$OUT/$JAR_NAME" "$OUT/tasklist.jsa" "${1:-5}"
@@ -4,14 +4,24 @@ import com.ortecfinance.tasklist.cli.TaskListCli;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
 @SpringBootApplication
 public class TaskListApplication {
 
-    public static void main(String[] args) {
+    private static final int DEFAULT_CLI_PORT = 7171;
+
+    public static void main(String[] args) throws Exception {
         if (args.length == 0) {
             System.out.println("Starting console Application");
             TaskListCli.startConsole();
         }
+        else if (args[0].equals("cli-server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CLI_PORT;
+            InetAddress bindAddress = args.length > 2 ? InetAddress.getByName(args[2]) : InetAddress.getLoopbackAddress();
+            TaskListCli.startServer(new InetSocketAddress(bindAddress, port));
+        }
         else {
             SpringApplication.run(TaskListApplication.class, args);
             System.out.println("localhost:8080/projects");
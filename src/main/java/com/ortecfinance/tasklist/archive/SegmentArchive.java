@@ -0,0 +1,178 @@
+package com.ortecfinance.tasklist.archive;
+
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only store of archived tasks. Every {@link #append(List)} writes one new gzip-compressed segment
+ * file, which is never modified afterwards. Only a map from task id to segment number is kept on heap;
+ * the tasks themselves are decoded from disk when asked for.
+ */
+public final class SegmentArchive {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    // version 1 wrote strings with writeUTF, which is limited to 64 KB; version 2 length-prefixes UTF-8 bytes
+    private static final int FORMAT_VERSION = 2;
+    private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final Map<Long, Integer> segmentByTaskId = new HashMap<>();
+    private int lastSegment;
+    private long maxTaskId;
+
+    private SegmentArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the archive in the directory, indexing the segments already written there.
+     */
+    public static SegmentArchive open(Path directory) throws IOException {
+        SegmentArchive archive = new SegmentArchive(directory);
+        if (Files.isDirectory(directory)) {
+            for (int segment : archive.segments()) {
+                for (TaskMatch match : archive.read(segment)) {
+                    archive.segmentByTaskId.put(match.task().getId(), segment);
+                    archive.maxTaskId = Math.max(archive.maxTaskId, match.task().getId());
+                }
+                archive.lastSegment = Math.max(archive.lastSegment, segment);
+            }
+        }
+        return archive;
+    }
+
+    /**
+     * Writes the tasks as a new segment. The segment only becomes visible once it is completely written.
+     */
+    public synchronized void append(List<TaskMatch> tasks) throws IOException {
+        if (tasks.isEmpty()) return;
+        Files.createDirectories(directory);
+
+        int segment = lastSegment + 1;
+        Path temp = directory.resolve(fileName(segment) + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(tasks.size());
+            for (TaskMatch match : tasks) {
+                Task task = match.task();
+                writeString(out, match.project());
+                out.writeLong(task.getId());
+                writeString(out, task.getDescription());
+                out.writeBoolean(task.isDone());
+                out.writeLong(task.getDeadline().map(LocalDate::toEpochDay).orElse(NO_DEADLINE));
+            }
+        }
+        Files.move(temp, directory.resolve(fileName(segment)), StandardCopyOption.ATOMIC_MOVE);
+
+        lastSegment = segment;
+        for (TaskMatch match : tasks) {
+            segmentByTaskId.put(match.task().getId(), segment);
+            maxTaskId = Math.max(maxTaskId, match.task().getId());
+        }
+    }
+
+    public synchronized Optional<TaskMatch> find(long taskId) {
+        Integer segment = segmentByTaskId.get(taskId);
+        if (segment == null) return Optional.empty();
+        return read(segment).stream()
+                .filter(match -> match.task().getId() == taskId)
+                .findFirst();
+    }
+
+    public synchronized boolean contains(long taskId) {
+        return segmentByTaskId.containsKey(taskId);
+    }
+
+    /**
+     * @return the highest archived task id, or 0 if the archive is empty
+     */
+    public synchronized long maxTaskId() {
+        return maxTaskId;
+    }
+
+    public synchronized int size() {
+        return segmentByTaskId.size();
+    }
+
+    /**
+     * Reads every segment, grouping the archived tasks by project in the order they were archived.
+     */
+    public synchronized Map<String, List<Task>> allProjects() {
+        Map<String, List<Task>> projects = new LinkedHashMap<>();
+        for (int segment : segments()) {
+            for (TaskMatch match : read(segment)) {
+                projects.computeIfAbsent(match.project(), p -> new ArrayList<>()).add(match.task());
+            }
+        }
+        return projects;
+    }
+
+    private List<Integer> segments() {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name, SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length(), 10))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<TaskMatch> read(int segment) {
+        Path file = directory.resolve(fileName(segment));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            int version = in.readInt();
+            if (version != 1 && version != FORMAT_VERSION) {
+                throw new IOException("Unsupported archive segment version " + version + " in " + file);
+            }
+            int count = in.readInt();
+            List<TaskMatch> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String project = readString(in, version);
+                long id = in.readLong();
+                Task task = new Task(id, readString(in, version), in.readBoolean());
+                long deadline = in.readLong();
+                if (deadline != NO_DEADLINE) {
+                    task.setDeadline(LocalDate.ofEpochDay(deadline));
+                }
+                tasks.add(new TaskMatch(project, task));
+            }
+            return tasks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, int version) throws IOException {
+        if (version == 1) {
+            return in.readUTF();
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String fileName(int segment) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+    }
+}
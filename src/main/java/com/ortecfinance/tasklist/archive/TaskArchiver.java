@@ -0,0 +1,128 @@
+package com.ortecfinance.tasklist.archive;
+
+import com.ortecfinance.tasklist.core.TaskChangeListener;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves tasks that have been done for longer than {@code maxDoneAge} from the live repository into a
+ * {@link SegmentArchive}. Completion dates are tracked from {@link #doneChanged(Task)}; tasks that were
+ * already done when first seen count as completed on that day.
+ */
+public final class TaskArchiver implements TaskChangeListener {
+    private static final System.Logger LOG = System.getLogger(TaskArchiver.class.getName());
+
+    private final TaskListService service;
+    private final SegmentArchive archive;
+    private final Clock clock;
+    private final Period maxDoneAge;
+    private final Map<Long, LocalDate> doneSince = new ConcurrentHashMap<>();
+
+    public TaskArchiver(TaskListService service, SegmentArchive archive, Clock clock, Period maxDoneAge) {
+        this.service = service;
+        this.archive = archive;
+        this.clock = clock;
+        this.maxDoneAge = maxDoneAge;
+        service.reserveIds(archive.maxTaskId());
+    }
+
+    /**
+     * Selection, archiving and removal happen as one change of the service, so a task reopened meanwhile is
+     * never archived.
+     *
+     * @return the number of tasks moved to the archive
+     */
+    public synchronized int archiveCompleted() throws IOException {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate cutoff = today.minus(maxDoneAge);
+        try {
+            // written to disk before leaving the live set, so a failed write loses nothing
+            return service.removeTasksIf(match -> isExpired(match.task(), today, cutoff), expired -> {
+                try {
+                    archive.append(expired);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).size();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isExpired(Task task, LocalDate today, LocalDate cutoff) {
+        if (!task.isDone()) return false;
+        return doneSince.computeIfAbsent(task.getId(), id -> today).isBefore(cutoff);
+    }
+
+    /**
+     * Runs {@link #archiveCompleted()} on the executor with the given delay between runs.
+     */
+    public void start(ScheduledExecutorService executor, Duration interval) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                int archived = archiveCompleted();
+                if (archived > 0) {
+                    LOG.log(System.Logger.Level.INFO, "Archived {0} completed tasks", archived);
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.log(System.Logger.Level.WARNING, "Archiving completed tasks failed", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Looks the task up in the live set first and falls back to the archive.
+     */
+    public Optional<TaskMatch> findTask(long taskId) {
+        return service.findTask(taskId).or(() -> archive.find(taskId));
+    }
+
+    /**
+     * Live projects with their archived tasks merged in by id, followed by archived-only projects.
+     */
+    public Map<String, List<Task>> allProjectsIncludingArchived() {
+        Map<String, List<Task>> archived = archive.allProjects();
+        Map<String, List<Task>> result = new LinkedHashMap<>();
+
+        for (Map.Entry<String, List<Task>> project : service.allProjects().entrySet()) {
+            List<Task> old = archived.remove(project.getKey());
+            if (old == null) {
+                result.put(project.getKey(), project.getValue());
+            } else {
+                List<Task> merged = new ArrayList<>(old.size() + project.getValue().size());
+                merged.addAll(old);
+                merged.addAll(project.getValue());
+                merged.sort(Comparator.comparingLong(Task::getId));
+                result.put(project.getKey(), merged);
+            }
+        }
+        result.putAll(archived);
+        return result;
+    }
+
+    @Override
+    public void doneChanged(Task task) {
+        if (task.isDone()) {
+            doneSince.put(task.getId(), LocalDate.now(clock));
+        } else {
+            doneSince.remove(task.getId());
+        }
+    }
+
+    @Override
+    public void taskRemoved(String projectName, Task task) {
+        doneSince.remove(task.getId());
+    }
+}
@@ -0,0 +1,92 @@
+package com.ortecfinance.tasklist.binary;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire format shared by {@link BinaryTaskServer} and {@link BinaryTaskClient}. Every frame is
+ * {@code int length} (bytes that follow), {@code int requestId}, {@code byte code} and a payload; requests
+ * carry an operation code, responses echo the request id and carry a status. All numbers are big-endian,
+ * strings are an {@code int} byte length followed by UTF-8, deadlines are {@code int} epoch days.
+ *
+ * <pre>
+ * task     = long id, byte done, int deadline (NO_DEADLINE if none), string description
+ * projects = int count, count * (string name, int taskCount, taskCount * task)
+ *
+ * CREATE_PROJECT   string name                          -> OK | BAD_REQUEST
+ * GET_PROJECTS                                          -> OK projects | RESPONSE_TOO_LARGE
+ * CREATE_TASK      string project, string description   -> OK task | NOT_FOUND | BAD_REQUEST
+ * SET_DEADLINE     string project, long id, int deadline -> OK | NOT_FOUND
+ * VIEW_BY_DEADLINE                                      -> OK int count, count * (int deadline, projects),
+ *                                                          projects without deadline | RESPONSE_TOO_LARGE
+ * </pre>
+ *
+ * No frame may exceed {@link #MAX_FRAME_BYTES}; a response that would is replaced by {@code RESPONSE_TOO_LARGE}.
+ */
+final class BinaryProtocol {
+    static final byte CREATE_PROJECT = 1;
+    static final byte GET_PROJECTS = 2;
+    static final byte CREATE_TASK = 3;
+    static final byte SET_DEADLINE = 4;
+    static final byte VIEW_BY_DEADLINE = 5;
+
+    static final byte OK = 0;
+    static final byte NOT_FOUND = 1;
+    static final byte BAD_REQUEST = 2;
+    static final byte UNKNOWN_OPERATION = 3;
+    static final byte SERVER_ERROR = 4;
+    static final byte RESPONSE_TOO_LARGE = 5;
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+    static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+    static final int NO_DEADLINE = Integer.MIN_VALUE;
+
+    private BinaryProtocol() {}
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    static Task getTask(ByteBuffer in) {
+        long id = in.getLong();
+        boolean done = in.get() != 0;
+        int deadline = in.getInt();
+        Task task = new Task(id, getString(in), done);
+        if (deadline != NO_DEADLINE) {
+            task.setDeadline(LocalDate.ofEpochDay(deadline));
+        }
+        return task;
+    }
+
+    static Map<String, List<Task>> getProjects(ByteBuffer in) {
+        int count = in.getInt();
+        Map<String, List<Task>> projects = new LinkedHashMap<>();
+        for (int p = 0; p < count; p++) {
+            String name = getString(in);
+            int taskCount = in.getInt();
+            List<Task> tasks = new ArrayList<>(taskCount);
+            for (int t = 0; t < taskCount; t++) {
+                tasks.add(getTask(in));
+            }
+            projects.put(name, tasks);
+        }
+        return projects;
+    }
+
+    static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DEADLINE : Math.toIntExact(date.toEpochDay());
+    }
+}
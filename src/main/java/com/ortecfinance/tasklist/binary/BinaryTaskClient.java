@@ -0,0 +1,198 @@
+package com.ortecfinance.tasklist.binary;
+
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Blocking reference client for {@link BinaryTaskServer}. Not thread-safe; use one client per thread.
+ * {@link #createTasks(String, List)} pipelines its requests, every other call waits for its own response.
+ */
+public final class BinaryTaskClient implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int PIPELINE_DEPTH = 256;
+
+    private final SocketChannel channel;
+    private final FrameBuffer out = new FrameBuffer(BUFFER_BYTES);
+    private ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES).flip();   // kept in read mode
+    private int nextRequestId;
+
+    private BinaryTaskClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public static BinaryTaskClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return new BinaryTaskClient(channel);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the name is blank
+     */
+    public void createProject(String name) throws IOException {
+        int requestId = send(BinaryProtocol.CREATE_PROJECT, f -> f.putString(name));
+        expectOk(receive(requestId));
+    }
+
+    public Map<String, List<Task>> getProjects() throws IOException {
+        int requestId = send(BinaryProtocol.GET_PROJECTS, f -> {});
+        ByteBuffer response = receive(requestId);
+        expectOk(response);
+        return BinaryProtocol.getProjects(response);
+    }
+
+    /**
+     * @return the new task, or empty if the project does not exist
+     */
+    public Optional<Task> createTask(String project, String description) throws IOException {
+        int requestId = send(BinaryProtocol.CREATE_TASK, f -> f.putString(project).putString(description));
+        return readCreatedTask(receive(requestId));
+    }
+
+    /**
+     * Sends the tasks in pipelined batches instead of waiting for every response in turn.
+     *
+     * @return one result per description, in the same order
+     */
+    public List<Optional<Task>> createTasks(String project, List<String> descriptions) throws IOException {
+        List<Optional<Task>> created = new ArrayList<>(descriptions.size());
+        for (int from = 0; from < descriptions.size(); from += PIPELINE_DEPTH) {
+            List<String> batch = descriptions.subList(from, Math.min(descriptions.size(), from + PIPELINE_DEPTH));
+            int firstId = nextRequestId;
+            for (String description : batch) {
+                encode(BinaryProtocol.CREATE_TASK, f -> f.putString(project).putString(description));
+            }
+            flush();
+            for (int i = 0; i < batch.size(); i++) {
+                created.add(readCreatedTask(receive(firstId + i)));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * @return false if the task does not exist in the project
+     */
+    public boolean setDeadline(String project, long taskId, LocalDate deadline) throws IOException {
+        int requestId = send(BinaryProtocol.SET_DEADLINE,
+                f -> f.putString(project).putLong(taskId).putInt(BinaryProtocol.toEpochDay(deadline)));
+        ByteBuffer response = receive(requestId);
+        if (response.get(response.position()) == BinaryProtocol.NOT_FOUND) {
+            return false;
+        }
+        expectOk(response);
+        return true;
+    }
+
+    public DeadlineGroups viewByDeadline() throws IOException {
+        int requestId = send(BinaryProtocol.VIEW_BY_DEADLINE, f -> {});
+        ByteBuffer response = receive(requestId);
+        expectOk(response);
+        int groups = response.getInt();
+        Map<LocalDate, Map<String, List<Task>>> byDeadline = new TreeMap<>();
+        for (int i = 0; i < groups; i++) {
+            LocalDate deadline = LocalDate.ofEpochDay(response.getInt());
+            byDeadline.put(deadline, BinaryProtocol.getProjects(response));
+        }
+        return new DeadlineGroups(byDeadline, BinaryProtocol.getProjects(response));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    private interface Payload {
+        void encode(FrameBuffer frame);
+    }
+
+    private int send(byte operation, Payload payload) throws IOException {
+        int requestId = encode(operation, payload);
+        flush();
+        return requestId;
+    }
+
+    private int encode(byte operation, Payload payload) {
+        int requestId = nextRequestId++;
+        out.begin(requestId, operation);
+        payload.encode(out);
+        out.end();
+        return requestId;
+    }
+
+    private void flush() throws IOException {
+        while (out.pending() > 0) {
+            out.writeTo(channel);
+        }
+    }
+
+    /**
+     * @return the response positioned at its status byte; valid until the next call
+     */
+    private ByteBuffer receive(int requestId) throws IOException {
+        fill(Integer.BYTES);
+        int length = in.getInt(in.position());
+        if (length < BinaryProtocol.HEADER_BYTES - Integer.BYTES || length > BinaryProtocol.MAX_FRAME_BYTES) {
+            throw new IOException("Bad frame length " + length);
+        }
+        fill(Integer.BYTES + length);
+        ByteBuffer frame = in.slice(in.position() + Integer.BYTES, length);
+        in.position(in.position() + Integer.BYTES + length);
+
+        int responseId = frame.getInt();
+        if (responseId != requestId) {
+            throw new IOException("Expected response " + requestId + " but got " + responseId);
+        }
+        return frame;
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) return;
+        if (in.capacity() < bytes) {
+            in = ByteBuffer.allocate(bytes).put(in);
+        } else {
+            in.compact();
+        }
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+        in.flip();
+    }
+
+    private static Optional<Task> readCreatedTask(ByteBuffer response) {
+        if (response.get(response.position()) == BinaryProtocol.NOT_FOUND) {
+            return Optional.empty();
+        }
+        expectOk(response);
+        return Optional.of(BinaryProtocol.getTask(response));
+    }
+
+    private static void expectOk(ByteBuffer response) {
+        byte status = response.get();
+        switch (status) {
+            case BinaryProtocol.OK -> {}
+            case BinaryProtocol.BAD_REQUEST -> throw new IllegalArgumentException("Rejected by server");
+            case BinaryProtocol.RESPONSE_TOO_LARGE -> throw new IllegalStateException(
+                    "Response exceeds " + BinaryProtocol.MAX_FRAME_BYTES + " bytes, use the REST API");
+            case BinaryProtocol.SERVER_ERROR ->
+                    throw new IllegalStateException("Server error: " + BinaryProtocol.getString(response));
+            default -> throw new IllegalStateException("Unexpected status " + status);
+        }
+    }
+}
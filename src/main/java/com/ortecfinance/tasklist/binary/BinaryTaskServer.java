@@ -0,0 +1,355 @@
+package com.ortecfinance.tasklist.binary;
+
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the {@link BinaryProtocol}. One selector thread does all socket I/O and hands complete frames to worker
+ * virtual threads, which call the service; a slow request therefore never holds up the other connections. Clients may
+ * pipeline: the frames of one connection are handled one at a time in arrival order, and the responses of a batch
+ * are written back in one go. A connection stops being read while too many request and response bytes are
+ * waiting for it, so a client that never reads cannot make the server buffer without bound.
+ */
+public final class BinaryTaskServer implements Closeable {
+    private static final System.Logger LOG = System.getLogger(BinaryTaskServer.class.getName());
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_BACKLOG = 1024 * 1024;
+
+    private final TaskListService service;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService workers;
+    // connections whose workers produced responses or drained requests since the last select
+    private final Queue<Connection> ready = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private Thread thread;
+
+    private BinaryTaskServer(TaskListService service, Selector selector, ServerSocketChannel serverChannel) {
+        this.service = service;
+        this.selector = selector;
+        this.serverChannel = serverChannel;
+        this.workers = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("tasklist-binary-worker-", 0).factory());
+    }
+
+    /**
+     * Binds the listening socket; requests are not served until {@link #start()}.
+     */
+    public static BinaryTaskServer open(TaskListService service, InetSocketAddress address) throws IOException {
+        Selector selector = Selector.open();
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        return new BinaryTaskServer(service, selector, serverChannel);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::run, "tasklist-binary-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        workers.shutdownNow();
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.ERROR, "Binary protocol selector failed", e);
+                return;
+            }
+            if (!selector.isOpen()) return;
+            for (Connection connection; (connection = ready.poll()) != null; ) {
+                try {
+                    connection.onWorkerProgress();
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(System.Logger.Level.DEBUG, "Closing binary protocol connection", e);
+                    closeQuietly(connection.key);
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.onWritable();
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    LOG.log(System.Logger.Level.DEBUG, "Closing binary protocol connection", e);
+                    closeQuietly(key);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        key.attach(new Connection(channel, key));
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // already closing
+        }
+    }
+
+    // The socket and read buffer are only touched by the selector thread, the output buffer only by the
+    // connection's current worker.
+    private final class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);   // kept in write mode between reads
+        private final Queue<ByteBuffer> requests = new ConcurrentLinkedQueue<>();
+        private final Queue<ByteBuffer> responses = new ConcurrentLinkedQueue<>();
+        // bytes of queued requests and unwritten responses
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final FrameBuffer out = new FrameBuffer(BUFFER_BYTES);
+
+        private Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        private void onReadable() throws IOException {
+            if (channel.read(in) < 0) {
+                closeQuietly(key);
+                return;
+            }
+            readFrames();
+            updateInterest();
+        }
+
+        private void onWritable() throws IOException {
+            flush();
+            updateInterest();
+        }
+
+        private void onWorkerProgress() throws IOException {
+            if (!key.isValid()) return;
+            flush();
+            // frames left unread while the backlog was full
+            readFrames();
+            updateInterest();
+        }
+
+        private void readFrames() throws IOException {
+            in.flip();
+            try {
+                while (in.remaining() >= Integer.BYTES && backlog.get() < MAX_BACKLOG) {
+                    int length = in.getInt(in.position());
+                    if (length < BinaryProtocol.HEADER_BYTES - Integer.BYTES || length > BinaryProtocol.MAX_FRAME_BYTES) {
+                        throw new IOException("Bad frame length " + length);
+                    }
+                    int frameBytes = Integer.BYTES + length;
+                    if (in.remaining() < frameBytes) {
+                        ensureCapacity(frameBytes);
+                        return;
+                    }
+                    // copied, since the read buffer is reused while the worker still needs the frame
+                    ByteBuffer frame = ByteBuffer.allocate(length).put(in.slice(in.position() + Integer.BYTES, length));
+                    in.position(in.position() + frameBytes);
+                    backlog.addAndGet(length);
+                    requests.add(frame.flip());
+                }
+            } finally {
+                in.compact();
+                if (!requests.isEmpty() && draining.compareAndSet(false, true)) {
+                    workers.execute(this::drain);
+                }
+            }
+        }
+
+        private void ensureCapacity(int frameBytes) {
+            if (in.capacity() < frameBytes) {
+                ByteBuffer grown = ByteBuffer.allocate(frameBytes);
+                grown.put(in);
+                grown.flip();
+                in = grown;
+            }
+        }
+
+        // on a worker: handles the queued frames in order, at most one worker per connection at a time
+        private void drain() {
+            do {
+                for (ByteBuffer frame; (frame = requests.poll()) != null; ) {
+                    int length = frame.remaining();
+                    handle(frame);
+                    backlog.addAndGet(-length);
+                    if (out.pending() >= BUFFER_BYTES) {
+                        publish();
+                    }
+                }
+                publish();
+                draining.set(false);
+            } while (!requests.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void publish() {
+            if (out.pending() > 0) {
+                ByteBuffer response = out.take();
+                backlog.addAndGet(response.remaining());
+                responses.add(response);
+            }
+            ready.add(this);
+            selector.wakeup();
+        }
+
+        private void flush() throws IOException {
+            for (ByteBuffer response; (response = responses.peek()) != null; ) {
+                int written = channel.write(response);
+                backlog.addAndGet(-written);
+                if (response.hasRemaining()) return;
+                responses.poll();
+            }
+        }
+
+        private void updateInterest() {
+            if (!key.isValid()) return;
+            int interest = responses.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+            if (backlog.get() < MAX_BACKLOG) {
+                interest |= SelectionKey.OP_READ;
+            }
+            key.interestOps(interest);
+        }
+
+        private void handle(ByteBuffer frame) {
+            int requestId = frame.getInt();
+            byte operation = frame.get();
+            try {
+                switch (operation) {
+                    case BinaryProtocol.CREATE_PROJECT -> createProject(requestId, frame);
+                    case BinaryProtocol.GET_PROJECTS ->
+                            out.begin(requestId, BinaryProtocol.OK).putProjects(service.allProjects()).end();
+                    case BinaryProtocol.CREATE_TASK -> createTask(requestId, frame);
+                    case BinaryProtocol.SET_DEADLINE -> setDeadline(requestId, frame);
+                    case BinaryProtocol.VIEW_BY_DEADLINE -> viewByDeadline(requestId);
+                    default -> out.begin(requestId, BinaryProtocol.UNKNOWN_OPERATION).end();
+                }
+            } catch (FrameBuffer.FrameTooLargeException e) {
+                out.begin(requestId, BinaryProtocol.RESPONSE_TOO_LARGE).end();
+            } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+                out.abort();
+                out.begin(requestId, BinaryProtocol.BAD_REQUEST).end();
+            } catch (RuntimeException e) {
+                LOG.log(System.Logger.Level.WARNING, "Binary protocol request failed", e);
+                out.abort();
+                out.begin(requestId, BinaryProtocol.SERVER_ERROR).putString(String.valueOf(e.getMessage())).end();
+            }
+        }
+
+        private void createProject(int requestId, ByteBuffer frame) {
+            String name = BinaryProtocol.getString(frame);
+            if (name.isBlank()) {
+                out.begin(requestId, BinaryProtocol.BAD_REQUEST).end();
+                return;
+            }
+            service.addProject(name.trim());
+            out.begin(requestId, BinaryProtocol.OK).end();
+        }
+
+        private void createTask(int requestId, ByteBuffer frame) {
+            String project = BinaryProtocol.getString(frame);
+            String description = BinaryProtocol.getString(frame);
+            if (description.isBlank()) {
+                out.begin(requestId, BinaryProtocol.BAD_REQUEST).end();
+                return;
+            }
+            Optional<Task> task = service.createTask(project, description.trim());
+            if (task.isPresent()) {
+                out.begin(requestId, BinaryProtocol.OK).putTask(task.get()).end();
+            } else {
+                out.begin(requestId, BinaryProtocol.NOT_FOUND).end();
+            }
+        }
+
+        private void setDeadline(int requestId, ByteBuffer frame) {
+            String project = BinaryProtocol.getString(frame);
+            long taskId = frame.getLong();
+            int epochDay = frame.getInt();
+            if (epochDay == BinaryProtocol.NO_DEADLINE) {
+                out.begin(requestId, BinaryProtocol.BAD_REQUEST).end();
+                return;
+            }
+            boolean updated = service.setDeadline(project, taskId, LocalDate.ofEpochDay(epochDay));
+            out.begin(requestId, updated ? BinaryProtocol.OK : BinaryProtocol.NOT_FOUND).end();
+        }
+
+        private void viewByDeadline(int requestId) {
+            TaskListService.DeadlineGroups groups = service.viewByDeadlineGroups();
+            out.begin(requestId, BinaryProtocol.OK).putInt(groups.byDeadline().size());
+            for (Map.Entry<LocalDate, Map<String, List<Task>>> group : groups.byDeadline().entrySet()) {
+                out.putInt(BinaryProtocol.toEpochDay(group.getKey())).putProjects(group.getValue());
+            }
+            out.putProjects(groups.noDeadline()).end();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ortecfinance.tasklist.binary;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Growable output buffer that frames are encoded into and later written to a channel. The length prefix of a
+ * frame is patched in by {@link #end()}, so nothing has to be measured up front.
+ */
+final class FrameBuffer {
+    private ByteBuffer buffer;
+    private int frameStart = -1;
+
+    FrameBuffer(int initialCapacity) {
+        buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    FrameBuffer begin(int requestId, byte code) {
+        ensure(BinaryProtocol.HEADER_BYTES);
+        frameStart = buffer.position();
+        buffer.putInt(0).putInt(requestId).put(code);
+        return this;
+    }
+
+    /**
+     * Completes the frame started by the last {@link #begin(int, byte)}.
+     *
+     * @throws FrameTooLargeException if the frame exceeds {@link BinaryProtocol#MAX_FRAME_BYTES}; the frame is
+     *         dropped
+     */
+    void end() {
+        int length = buffer.position() - frameStart - Integer.BYTES;
+        if (length > BinaryProtocol.MAX_FRAME_BYTES) {
+            abort();
+            throw new FrameTooLargeException(length);
+        }
+        buffer.putInt(frameStart, length);
+        frameStart = -1;
+    }
+
+    /**
+     * Drops the frame started by the last {@link #begin(int, byte)}.
+     */
+    void abort() {
+        if (frameStart >= 0) {
+            buffer.position(frameStart);
+            frameStart = -1;
+        }
+    }
+
+    FrameBuffer putByte(byte value) {
+        ensure(Byte.BYTES);
+        buffer.put(value);
+        return this;
+    }
+
+    FrameBuffer putInt(int value) {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+        return this;
+    }
+
+    FrameBuffer putLong(long value) {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+        return this;
+    }
+
+    FrameBuffer putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length);
+        buffer.putInt(bytes.length).put(bytes);
+        return this;
+    }
+
+    FrameBuffer putTask(Task task) {
+        putLong(task.getId());
+        putByte(task.isDone() ? (byte) 1 : 0);
+        putInt(BinaryProtocol.toEpochDay(task.getDeadline().orElse(null)));
+        return putString(task.getDescription());
+    }
+
+    FrameBuffer putProjects(Map<String, List<Task>> projects) {
+        putInt(projects.size());
+        for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
+            putString(project.getKey());
+            putInt(project.getValue().size());
+            for (Task task : project.getValue()) {
+                putTask(task);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return bytes waiting to be written
+     */
+    int pending() {
+        return buffer.position();
+    }
+
+    /**
+     * @return the bytes written so far, in read mode; the buffer is empty afterwards
+     */
+    ByteBuffer take() {
+        ByteBuffer taken = ByteBuffer.allocate(buffer.position());
+        taken.put(buffer.flip()).flip();
+        buffer.clear();
+        return taken;
+    }
+
+    /**
+     * Writes as much as the channel accepts and keeps the rest for the next call.
+     */
+    void writeTo(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        try {
+            channel.write(buffer);
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+
+    static final class FrameTooLargeException extends RuntimeException {
+        FrameTooLargeException(int length) {
+            super("Frame of " + length + " bytes exceeds the limit of " + BinaryProtocol.MAX_FRAME_BYTES);
+        }
+    }
+}
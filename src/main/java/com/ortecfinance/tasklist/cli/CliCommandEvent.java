@@ -0,0 +1,27 @@
+package com.ortecfinance.tasklist.cli;
+
+import jdk.jfr.*;
+
+@Name("tasklist.CliCommand")
+@Label("CLI Command")
+@Category({"TaskList", "CLI"})
+@Description("A command executed by TaskListCli")
+@Threshold("10 ms")
+@StackTrace(false)
+final class CliCommandEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Arguments")
+    String arguments;
+
+    static CliCommandEvent start(String command, String arguments) {
+        CliCommandEvent event = new CliCommandEvent();
+        if (event.isEnabled()) {
+            event.command = command;
+            event.arguments = arguments;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,225 @@
+package com.ortecfinance.tasklist.cli;
+
+import com.ortecfinance.tasklist.domain.DateFormats;
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Writes task views one page at a time. Groups are pulled lazily from an iterator and every page is
+ * formatted into the same reusable buffer before it is written out; the task lists themselves are never
+ * modified. What is left of the view is kept for {@link #next()}.
+ */
+final class PagedRenderer {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    private static final String NEWLINE = System.lineSeparator();
+
+    /**
+     * Tasks printed under one header line.
+     *
+     * @param startsSection whether a section (a blank-line separated block) begins with this group
+     * @param sectionHeader printed when the section begins, or null for none
+     * @param header printed before the group's tasks
+     */
+    record TaskGroup(boolean startsSection, String sectionHeader, String header, List<Task> tasks) {}
+
+    enum TaskFormat {
+        CHECKBOX("    [", "] "),         // "    [x] 1: Eat more donuts."
+        INDENTED("          ", "");      // "          1: Eat more donuts."
+
+        private final String prefix;
+        private final String checkboxEnd;
+
+        TaskFormat(String prefix, String checkboxEnd) {
+            this.prefix = prefix;
+            this.checkboxEnd = checkboxEnd;
+        }
+
+        void append(StringBuilder line, Task task) {
+            line.append(prefix);
+            if (this == CHECKBOX) {
+                line.append(task.isDone() ? 'x' : ' ').append(checkboxEnd);
+            }
+            appendId(line, task);
+            line.append(": ").append(task.getDescription()).append(NEWLINE);
+        }
+    }
+
+    /**
+     * Appends the task id, or for an occurrence of a recurring task its recurring id and day as {@code check}
+     * takes them: {@code "5 11-11-2021"}.
+     */
+    static StringBuilder appendId(StringBuilder line, Task task) {
+        if (task instanceof Occurrence occurrence) {
+            return line.append(occurrence.getRecurringId()).append(' ')
+                    .append(occurrence.getDay().format(DateFormats.DEADLINE_FORMAT));
+        }
+        return line.append(task.getId());
+    }
+
+    private final PrintWriter out;
+    private final int pageSize;
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private char[] chars = new char[4096];
+    private Cursor pending;
+
+    PagedRenderer(PrintWriter out, int pageSize) {
+        this.out = out;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Starts rendering a new view, replacing whatever was left of the previous one.
+     *
+     * @param offset number of tasks to skip
+     * @param limit maximum number of tasks to render, or a negative value for all
+     */
+    void render(Iterator<TaskGroup> groups, TaskFormat format, int offset, int limit) {
+        pending = new Cursor(groups, format, offset, limit < 0 ? Integer.MAX_VALUE : limit);
+        next();
+    }
+
+    void next() {
+        if (pending == null) {
+            out.println("Nothing more to show.");
+            return;
+        }
+        boolean more = pending.writePage(buffer, pageSize);
+        flush();
+        if (more) {
+            out.println("-- more, type 'next' to continue --");
+        } else {
+            pending = null;
+        }
+    }
+
+    private void flush() {
+        int length = buffer.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        out.flush();
+        buffer.setLength(0);
+    }
+
+    private static final class Cursor {
+        private final Iterator<TaskGroup> groups;
+        private final TaskFormat format;
+        private int toSkip;
+        private int remaining;
+
+        private TaskGroup group;
+        private Iterator<Task> tasks;
+        private boolean headerWritten;
+        private boolean sectionOpen;
+        private TaskGroup skippedSectionStart;
+        private TaskGroup lookahead;
+
+        private Cursor(Iterator<TaskGroup> groups, TaskFormat format, int offset, int limit) {
+            this.groups = groups;
+            this.format = format;
+            this.toSkip = offset;
+            this.remaining = limit;
+        }
+
+        /**
+         * @return true if tasks are left after writing {@code pageSize} of them
+         */
+        private boolean writePage(StringBuilder buffer, int pageSize) {
+            int written = 0;
+            while (true) {
+                if (group == null && !nextGroup()) {
+                    closeSection(buffer);
+                    return false;
+                }
+                if (remaining > 0 && tasks.hasNext()) {
+                    if (written == pageSize) {
+                        return true;
+                    }
+                    writeHeader(buffer);
+                    format.append(buffer, tasks.next());
+                    written++;
+                    remaining--;
+                } else {
+                    if (group.tasks().isEmpty()) {
+                        writeHeader(buffer);
+                    }
+                    group = null;
+                    // close the section right away so a page never ends before its blank line
+                    if (remaining == 0 || peek() == null || peek().startsSection()) {
+                        closeSection(buffer);
+                    }
+                }
+            }
+        }
+
+        private boolean nextGroup() {
+            while (remaining > 0 && peek() != null) {
+                TaskGroup candidate = lookahead;
+                lookahead = null;
+                int size = candidate.tasks().size();
+                if (toSkip > 0 && size <= toSkip) {
+                    toSkip -= size;
+                    if (candidate.startsSection()) {
+                        skippedSectionStart = candidate;
+                    }
+                    continue;
+                }
+                group = candidate;
+                tasks = sortedById(candidate.tasks()).listIterator(toSkip);
+                toSkip = 0;
+                headerWritten = false;
+                return true;
+            }
+            return false;
+        }
+
+        private TaskGroup peek() {
+            if (lookahead == null && groups.hasNext()) {
+                lookahead = groups.next();
+            }
+            return lookahead;
+        }
+
+        private void writeHeader(StringBuilder buffer) {
+            if (headerWritten) return;
+            TaskGroup sectionStart = group.startsSection() ? group : skippedSectionStart;
+            if (sectionStart != null) {
+                closeSection(buffer);
+                if (sectionStart.sectionHeader() != null) {
+                    buffer.append(sectionStart.sectionHeader()).append(NEWLINE);
+                }
+                sectionOpen = true;
+                skippedSectionStart = null;
+            }
+            buffer.append(group.header()).append(NEWLINE);
+            headerWritten = true;
+        }
+
+        private void closeSection(StringBuilder buffer) {
+            if (sectionOpen) {
+                buffer.append(NEWLINE);
+                sectionOpen = false;
+            }
+        }
+
+        // Tasks are normally already in id order, only copy when they are not
+        private static List<Task> sortedById(List<Task> tasks) {
+            for (int i = 1; i < tasks.size(); i++) {
+                if (tasks.get(i - 1).getId() > tasks.get(i).getId()) {
+                    List<Task> sorted = new ArrayList<>(tasks);
+                    sorted.sort(Comparator.comparingLong(Task::getId));
+                    return sorted;
+                }
+            }
+            return tasks;
+        }
+    }
+}
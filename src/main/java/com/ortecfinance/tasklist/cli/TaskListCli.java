@@ -1,24 +1,35 @@
 package com.ortecfinance.tasklist.cli;
 
+import com.ortecfinance.tasklist.core.Completions;
 import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.JfrTaskRepository;
 import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
 import com.ortecfinance.tasklist.domain.DateFormats;
+import com.ortecfinance.tasklist.domain.Recurrence;
 import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.cli.PagedRenderer.TaskFormat;
+import com.ortecfinance.tasklist.cli.PagedRenderer.TaskGroup;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.stream.Stream;
 
 public final class TaskListCli implements Runnable {
     private static final String QUIT = "quit";
+    private static final int DEFAULT_TOP = 20;
+    private static final int DEFAULT_COMPLETIONS = 10;
 
     private final BufferedReader in;
     private final PrintWriter out;
     private final TaskListService service;
+    private final PagedRenderer renderer;
 
     public static void startConsole() {
         BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
@@ -26,17 +37,34 @@ public final class TaskListCli implements Runnable {
         new TaskListCli(in, out).run();
     }
 
+    /**
+     * Serves console sessions over TCP until the process is stopped; all sessions share one task list. Sessions
+     * are not authenticated, so bind to the loopback address unless the network is trusted.
+     */
+    public static void startServer(InetSocketAddress address) throws IOException, InterruptedException {
+        TaskListService service = new TaskListService(new JfrTaskRepository(new InMemoryTaskRepository()));
+        try (TaskListCliServer server = TaskListCliServer.open(service, address)) {
+            server.start();
+            System.out.printf("TaskList console server listening on %s port %d%n",
+                    address.getAddress().getHostAddress(), server.getPort());
+            server.awaitClose();
+        }
+    }
+
     public TaskListCli(BufferedReader reader, PrintWriter writer) {
-        this.in = reader;
-        this.out = writer;
-        this.service = new TaskListService(new InMemoryTaskRepository());
+        this(reader, writer, new TaskListService(new JfrTaskRepository(new InMemoryTaskRepository())));
     }
 
     // For testing
     TaskListCli(BufferedReader reader, PrintWriter writer, TaskListService service) {
+        this(reader, writer, service, PagedRenderer.DEFAULT_PAGE_SIZE);
+    }
+
+    TaskListCli(BufferedReader reader, PrintWriter writer, TaskListService service, int pageSize) {
         this.in = reader;
         this.out = writer;
         this.service = service;
+        this.renderer = new PagedRenderer(writer, pageSize);
     }
 
     public void run() {
@@ -50,7 +78,8 @@ public final class TaskListCli implements Runnable {
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            if (command.equals(QUIT)) {
+            // end of input, e.g. a client that hung up, ends the session like quit
+            if (command == null || command.equals(QUIT)) {
                 break;
             }
             execute(command);
@@ -60,9 +89,21 @@ public final class TaskListCli implements Runnable {
     private void execute(String commandLine) {
         String[] commandRest = commandLine.split(" ", 2);
         String command = commandRest[0];
+        CliCommandEvent event = CliCommandEvent.start(command, commandRest.length > 1 ? commandRest[1] : null);
+        try {
+            dispatch(command, commandRest);
+        } finally {
+            event.commit();
+        }
+    }
+
+    private void dispatch(String command, String[] commandRest) {
         switch (command) {
             case "show":
-                show();
+                show(commandRest.length > 1 ? commandRest[1] : "");
+                break;
+            case "next":
+                renderer.next();
                 break;
             case "today":
                 today();
@@ -73,6 +114,12 @@ public final class TaskListCli implements Runnable {
             case "view-by-deadline":
                 viewByDeadline();
                 break;
+            case "top":
+                top(commandRest.length > 1 ? commandRest[1].trim() : "");
+                break;
+            case "complete":
+                complete(commandRest.length > 1 ? commandRest[1].trim() : "");
+                break;
             case "add":
                 add(commandRest[1]);
                 break;
@@ -91,22 +138,91 @@ public final class TaskListCli implements Runnable {
         }
     }
 
-    private void show() {
-        printShowView(service.allProjects());
+    private void show(String arguments) {
+        String project = null;
+        int limit = -1;
+        int offset = 0;
+
+        String[] tokens = arguments.trim().split(" +");
+        try {
+            for (int i = 0; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "" -> {}
+                    case "--limit" -> limit = Integer.parseInt(tokens[++i]);
+                    case "--offset" -> offset = Integer.parseInt(tokens[++i]);
+                    default -> project = project == null ? tokens[i] : project + " " + tokens[i];
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            out.println("Limit and offset must be numbers.");
+            return;
+        }
+
+        Map<String, List<Task>> projects = service.allProjects();
+        if (project != null) {
+            List<Task> tasks = projects.get(project);
+            if (tasks == null) {
+                out.printf("Could not find a project with the name \"%s\".%n", project);
+                return;
+            }
+            projects = Map.of(project, tasks);
+        }
+        renderer.render(showGroups(projects), TaskFormat.CHECKBOX, Math.max(offset, 0), limit);
     }
 
     private void today() {
-        printShowView(service.tasksDueToday());
+        renderer.render(showGroups(service.tasksDueToday()), TaskFormat.CHECKBOX, 0, -1);
     }
 
-    private void printShowView(Map<String, List<Task>> projects) {
-        for (Map.Entry<String, List<Task>> project : projects.entrySet()) {
-            out.println(project.getKey());
-            for (Task task : project.getValue()) {
-                out.printf("    [%c] %d: %s%n", (task.isDone() ? 'x' : ' '), task.getId(), task.getDescription());
+    private static Iterator<TaskGroup> showGroups(Map<String, List<Task>> projects) {
+        return projects.entrySet().stream()
+                .map(project -> new TaskGroup(true, null, project.getKey(), project.getValue()))
+                .iterator();
+    }
+
+    // top [<n>] [<project name>]
+    private void top(String arguments) {
+        String[] countProject = arguments.split(" +", 2);
+        int count = DEFAULT_TOP;
+        String project = arguments.isEmpty() ? null : arguments;
+        if (!countProject[0].isEmpty() && countProject[0].chars().allMatch(Character::isDigit)) {
+            try {
+                count = Integer.parseInt(countProject[0]);
+            } catch (NumberFormatException e) {
+                out.println("The number of tasks is too large.");
+                return;
             }
-            out.println();
+            project = countProject.length > 1 ? countProject[1] : null;
+        }
+        if (project != null && !service.hasProject(project)) {
+            out.printf("Could not find a project with the name \"%s\".%n", project);
+            return;
         }
+
+        StringBuilder lines = new StringBuilder();
+        for (TaskMatch match : service.nextTasks(Math.max(count, 0), project)) {
+            Task task = match.task();
+            String deadline = task.getDeadline().map(d -> d.format(DateFormats.DEADLINE_FORMAT)).orElse("no deadline");
+            lines.append(String.format("    %-11s ", deadline));
+            PagedRenderer.appendId(lines, task)
+                    .append(String.format(": %s (%s)%n", task.getDescription(), match.project()));
+        }
+        out.print(lines);
+        out.flush();
+    }
+
+    // complete <prefix>: matching project names first, then description words
+    private void complete(String prefix) {
+        Completions completions = service.complete(prefix, DEFAULT_COMPLETIONS);
+        StringBuilder lines = new StringBuilder();
+        for (String project : completions.projects()) {
+            lines.append(String.format("    project  %s%n", project));
+        }
+        for (String word : completions.words()) {
+            lines.append(String.format("    word     %s%n", word));
+        }
+        out.print(lines);
+        out.flush();
     }
 
     private void add(String commandLine) {
@@ -117,7 +233,41 @@ public final class TaskListCli implements Runnable {
         } else if (subcommand.equals("task")) {
             String[] projectTask = subcommandRest[1].split(" ", 2);
             addTask(projectTask[0], projectTask[1]);
+        } else if (subcommand.equals("recurring")) {
+            addRecurring(subcommandRest[1]);
+        }
+    }
+
+    // add recurring <project name> <start date> <every day | every <n> days | weekly <day>,...> <task description>
+    private void addRecurring(String arguments) {
+        String[] words = arguments.split(" ");
+        if (words.length < 5) {
+            out.println("Usage: add recurring <project name> <start date> <rule> <task description>");
+            return;
+        }
+        LocalDate start;
+        try {
+            start = LocalDate.parse(words[1], DateFormats.DEADLINE_FORMAT);
+        } catch (DateTimeParseException e) {
+            out.println("Invalid date format. Please use dd-MM-yyyy.");
+            return;
+        }
+        // "every <n> days" is one word longer than the other rules
+        for (int ruleWords = 3; ruleWords >= 2; ruleWords--) {
+            if (words.length <= 2 + ruleWords) continue;
+            Recurrence recurrence;
+            try {
+                recurrence = Recurrence.parse(String.join(" ", Arrays.copyOfRange(words, 2, 2 + ruleWords)), start);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            String description = String.join(" ", Arrays.copyOfRange(words, 2 + ruleWords, words.length));
+            if (service.addRecurringTask(words[0], description, recurrence).isEmpty()) {
+                out.printf("Could not find a project with the name \"%s\".%n", words[0]);
+            }
+            return;
         }
+        out.println("Unknown rule. Use \"every day\", \"every <n> days\" or \"weekly mon,thu\".");
     }
 
     private void addProject(String name) {
@@ -127,13 +277,34 @@ public final class TaskListCli implements Runnable {
     private void addTask(String project, String description) {
         boolean ok = service.addTask(project, description);
         if (!ok) {
-            out.printf("Could not find a project with the name \"%s\".", project);
-            out.println();
+            out.printf("Could not find a project with the name \"%s\".%n", project);
         }
     }
 
-    private void check(String idString) {
-        setDone(idString, true);
+    // check <task ID> [<date>], the date picks an occurrence of a recurring task
+    private void check(String arguments) {
+        String[] idDate = arguments.trim().split(" +", 2);
+        if (idDate.length == 1) {
+            setDone(idDate[0], true);
+            return;
+        }
+        long id;
+        try {
+            id = Long.parseLong(idDate[0]);
+        } catch (NumberFormatException e) {
+            out.println("Task ID must be a number.");
+            return;
+        }
+        LocalDate day;
+        try {
+            day = LocalDate.parse(idDate[1], DateFormats.DEADLINE_FORMAT);
+        } catch (DateTimeParseException e) {
+            out.println("Invalid date format. Please use dd-MM-yyyy.");
+            return;
+        }
+        if (service.checkOccurrence(id, day).isEmpty()) {
+            out.printf("Recurring task %d has no open occurrence on %s.%n", id, idDate[1]);
+        }
     }
 
     private void uncheck(String idString) {
@@ -145,48 +316,32 @@ public final class TaskListCli implements Runnable {
 
         boolean ok = service.setDone(id, done);
         if (!ok) {
-            out.printf("Could not find a task with an ID of %d.", id);
-            out.println();
+            out.printf("Could not find a task with an ID of %d.%n", id);
         }
     }
 
     private static final String INDENT_PROJECT = "     ";       // 5 spaces
-    private static final String INDENT_TASK = "          ";     // 10 spaces
 
     private void viewByDeadline(){
         TaskListService.DeadlineGroups groups = service.viewByDeadlineGroups();
-        printDeadlineGroups(groups.byDeadline());
-        printNoDeadlineGroups(groups.noDeadline());
-    }
 
-    private void printDeadlineGroups(Map<LocalDate,Map<String, List<Task>>> byDeadline) {
-        for (Map.Entry<LocalDate, Map<String, List<Task>>> dateGroup : byDeadline.entrySet()) {
-            out.println(dateGroup.getKey().format(DateFormats.DEADLINE_FORMAT) + ":");
-            printProjects(dateGroup.getValue());
-            out.println();
-        }
-    }
+        Stream<TaskGroup> dated = groups.byDeadline().entrySet().stream()
+                .flatMap(dateGroup -> section(dateGroup.getKey().format(DateFormats.DEADLINE_FORMAT) + ":",
+                        dateGroup.getValue()));
+        Stream<TaskGroup> undated = groups.noDeadline().isEmpty()
+                ? Stream.empty()
+                : section("No deadline:", groups.noDeadline());
 
-    private void printNoDeadlineGroups(Map<String, List<Task>> noDeadline) {
-        if (noDeadline.isEmpty()) return;
-
-        out.println("No deadline:");
-        printProjects(noDeadline);
-        out.println();
+        renderer.render(Stream.concat(dated, undated).iterator(), TaskFormat.INDENTED, 0, -1);
     }
 
-    private void printProjects(Map<String, List<Task>> byProject) {
+    private static Stream<TaskGroup> section(String sectionHeader, Map<String, List<Task>> byProject) {
+        List<TaskGroup> section = new ArrayList<>(byProject.size());
         for (Map.Entry<String, List<Task>> projectGroup : byProject.entrySet()) {
-            out.println(INDENT_PROJECT + projectGroup.getKey() + ":");
-            printTasks(projectGroup.getValue());
-        }
-    }
-
-    private void printTasks(List<Task> tasks) {
-        tasks.sort(Comparator.comparingLong(Task::getId));
-        for (Task task : tasks) {
-            out.printf(INDENT_TASK + "%d: %s%n", task.getId(), task.getDescription());
+            section.add(new TaskGroup(section.isEmpty(), sectionHeader,
+                    INDENT_PROJECT + projectGroup.getKey() + ":", projectGroup.getValue()));
         }
+        return section.stream();
     }
 
     private void deadline(String commandLine) {
@@ -214,25 +369,28 @@ public final class TaskListCli implements Runnable {
     private void setDeadline(Long taskId, LocalDate deadline) {
         boolean ok = service.setDeadline(taskId, deadline);
         if (!ok) {
-            out.printf("Could not find a task with an ID of %d.", taskId);
-            out.println();
+            out.printf("Could not find a task with an ID of %d.%n", taskId);
         }
     }
 
     private void help() {
         out.println("Commands:");
-        out.println("  show");
+        out.println("  show [<project name>] [--limit <n>] [--offset <n>]");
+        out.println("  next");
         out.println("  add project <project name>");
         out.println("  add task <project name> <task description>");
-        out.println("  check <task ID>");
+        out.println("  add recurring <project name> <start date> <every day | every <n> days | weekly <day>,...> <task description>");
+        out.println("  check <task ID> [<date>]");
         out.println("  uncheck <task ID>");
         out.println("  deadline <task ID> <date>");
         out.println("  today");
+        out.println("  view-by-deadline");
+        out.println("  top [<n>] [<project name>]");
+        out.println("  complete <prefix>");
         out.println();
     }
 
     private void error(String command) {
-        out.printf("I don't know what the command \"%s\" is.", command);
-        out.println();
+        out.printf("I don't know what the command \"%s\" is.%n", command);
     }
 }
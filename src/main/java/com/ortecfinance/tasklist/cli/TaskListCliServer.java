@@ -0,0 +1,124 @@
+package com.ortecfinance.tasklist.cli;
+
+import com.ortecfinance.tasklist.core.TaskListService;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Serves the console over TCP: every connection gets its own {@link TaskListCli} session on a virtual thread,
+ * and all sessions share one {@link TaskListService}. Blocking reads and writes only park the virtual thread,
+ * so thousands of mostly idle sessions cost little more than their buffers.
+ */
+public final class TaskListCliServer implements Closeable {
+    private static final System.Logger LOG = System.getLogger(TaskListCliServer.class.getName());
+
+    private final TaskListService service;
+    private final ServerSocket serverSocket;
+    private final ThreadFactory sessionThreads = Thread.ofVirtual().name("tasklist-cli-", 1).factory();
+    private final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Thread acceptor;
+
+    private TaskListCliServer(TaskListService service, ServerSocket serverSocket) {
+        this.service = service;
+        this.serverSocket = serverSocket;
+    }
+
+    /**
+     * Binds the listening socket; connections are not accepted until {@link #start()}.
+     */
+    public static TaskListCliServer open(TaskListService service, InetSocketAddress address) throws IOException {
+        ServerSocket serverSocket = new ServerSocket();
+        try {
+            serverSocket.bind(address, 1024);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        return new TaskListCliServer(service, serverSocket);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public synchronized void start() {
+        if (acceptor != null) return;
+        running = true;
+        acceptor = Thread.ofVirtual().name("tasklist-cli-acceptor").start(this::acceptLoop);
+    }
+
+    /**
+     * Waits until the server is closed, for running it as the main program.
+     */
+    public void awaitClose() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            thread = acceptor;
+        }
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket session : sessions) {
+            closeQuietly(session);
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    LOG.log(System.Logger.Level.ERROR, "Accepting CLI connections failed", e);
+                }
+                return;
+            }
+            sessions.add(socket);
+            sessionThreads.newThread(() -> serve(socket)).start();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            new TaskListCli(in, out, service).run();
+            out.flush();
+        } catch (SocketException e) {
+            LOG.log(System.Logger.Level.DEBUG, "CLI session closed by the client", e);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(System.Logger.Level.WARNING, "CLI session failed", e);
+        } finally {
+            sessions.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.DEBUG, "Closing CLI session failed", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ortecfinance.tasklist.core;
+
+import jdk.jfr.*;
+
+@Name("tasklist.RepositoryCache")
+@Label("Task Repository Cache")
+@Category({"TaskList", "Repository"})
+@Description("Hits, misses and evictions of the repository cache since it was created")
+@Period("10 s")
+@StackTrace(false)
+final class CacheStatsEvent extends Event {
+    @Label("Hits")
+    long hits;
+
+    @Label("Misses")
+    long misses;
+
+    @Label("Evictions")
+    long evictions;
+
+    @Label("Weight")
+    long weight;
+
+    /**
+     * Emits the event at its period, as long as a recording enables it, until the returned handle is closed.
+     */
+    static AutoCloseable register(CachingTaskRepository cache) {
+        Runnable hook = () -> {
+            CacheStatsEvent event = new CacheStatsEvent();
+            if (event.isEnabled()) {
+                CachingTaskRepository.Stats stats = cache.stats();
+                event.hits = stats.hits();
+                event.misses = stats.misses();
+                event.evictions = stats.evictions();
+                event.weight = stats.weight();
+                event.commit();
+            }
+        };
+        FlightRecorder.addPeriodicEvent(CacheStatsEvent.class, hook);
+        return () -> FlightRecorder.removePeriodicEvent(hook);
+    }
+}
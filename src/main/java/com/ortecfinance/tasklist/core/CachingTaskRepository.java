@@ -0,0 +1,260 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through LRU cache for {@link #findTaskById(long)} and {@link #findProjectTasks(String)} in front of a
+ * repository where those cost I/O. The cache is bounded by weight: a task counts as one, a project as one plus
+ * its number of tasks. Writes go to the wrapped repository first and then drop or replace what they affect,
+ * so a read never sees less than the last completed write. Whole-store reads are passed straight through.
+ */
+public final class CachingTaskRepository implements TaskRepository {
+    public record Stats(long hits, long misses, long evictions, long weight) {}
+
+    private final TaskRepository delegate;
+    private final long maxWeight;
+    private final LinkedHashMap<Object, Object> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // project of every task inside a cached project list, to drop that list when the task changes
+    private final Map<Long, String> cachedProjectOfTask = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight;
+    // bumped by every invalidation, so a load that raced with a write is not cached
+    private long generation;
+
+    public CachingTaskRepository(TaskRepository delegate, long maxWeight) {
+        this.delegate = delegate;
+        this.maxWeight = maxWeight;
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), weight);
+        }
+    }
+
+    /**
+     * Records {@link #stats()} as the periodic JFR event {@code tasklist.RepositoryCache} until the returned handle
+     * is closed.
+     */
+    public AutoCloseable recordStats() {
+        return CacheStatsEvent.register(this);
+    }
+
+    @Override
+    public void addProject(String name) {
+        try {
+            delegate.addProject(name);
+        } finally {
+            invalidateProject(name);
+        }
+    }
+
+    @Override
+    public void addTask(String projectName, Task task) {
+        try {
+            delegate.addTask(projectName, task);
+        } finally {
+            invalidateProject(projectName);
+        }
+    }
+
+    @Override
+    public void addTasks(String projectName, List<Task> tasks) {
+        try {
+            delegate.addTasks(projectName, tasks);
+        } finally {
+            invalidateProject(projectName);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        try {
+            delegate.updateTask(task);
+        } catch (RuntimeException e) {
+            invalidateTask(task.getId());
+            throw e;
+        }
+        synchronized (entries) {
+            invalidateTask(task.getId());
+            put(task.getId(), task, 1);
+        }
+    }
+
+    @Override
+    public Optional<List<Task>> findProjectTasks(String projectName) {
+        long loadGeneration;
+        synchronized (entries) {
+            @SuppressWarnings("unchecked")
+            List<Task> cached = (List<Task>) entries.get(projectName);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        Optional<List<Task>> loaded = delegate.findProjectTasks(projectName);
+        loaded.ifPresent(tasks -> {
+            synchronized (entries) {
+                if (generation == loadGeneration && put(projectName, tasks, 1L + tasks.size())) {
+                    for (Task task : tasks) {
+                        cachedProjectOfTask.put(task.getId(), projectName);
+                    }
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    public Optional<Task> findTaskById(long id) {
+        long loadGeneration;
+        synchronized (entries) {
+            Task cached = (Task) entries.get(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        Optional<Task> loaded = delegate.findTaskById(id);
+        loaded.ifPresent(task -> {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    put(id, task, 1);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    @Override
+    public Map<String, List<Task>> allProjects() {
+        return delegate.allProjects();
+    }
+
+    @Override
+    public List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        return delegate.findTasksByDeadline(from, to);
+    }
+
+    @Override
+    public Optional<TaskMatch> findTaskMatch(long id) {
+        return delegate.findTaskMatch(id);
+    }
+
+    @Override
+    public int countTasksByDeadline(LocalDate from, LocalDate to, Boolean done) {
+        return delegate.countTasksByDeadline(from, to, done);
+    }
+
+    @Override
+    public int removeTasks(String projectName, Set<Long> taskIds) {
+        try {
+            return delegate.removeTasks(projectName, taskIds);
+        } finally {
+            synchronized (entries) {
+                invalidateProject(projectName);
+                for (long id : taskIds) {
+                    invalidateTask(id);
+                }
+            }
+        }
+    }
+
+    private void invalidateProject(String projectName) {
+        synchronized (entries) {
+            generation++;
+            remove(projectName);
+        }
+    }
+
+    private void invalidateTask(long id) {
+        synchronized (entries) {
+            generation++;
+            remove(id);
+            String projectName = cachedProjectOfTask.get(id);
+            if (projectName != null) {
+                remove(projectName);
+            }
+        }
+    }
+
+    /**
+     * @return false if the value alone is heavier than the whole cache and was not stored
+     */
+    private boolean put(Object key, Object value, long valueWeight) {
+        if (valueWeight > maxWeight) {
+            return false;
+        }
+        remove(key);
+        entries.put(key, value);
+        weight += valueWeight;
+        Iterator<Map.Entry<Object, Object>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            Map.Entry<Object, Object> entry = eldest.next();
+            eldest.remove();
+            forget(entry.getKey(), entry.getValue());
+            evictions.increment();
+        }
+        return true;
+    }
+
+    private void remove(Object key) {
+        Object value = entries.remove(key);
+        if (value != null) {
+            forget(key, value);
+        }
+    }
+
+    private void forget(Object key, Object value) {
+        if (value instanceof List<?> tasks) {
+            weight -= 1 + tasks.size();
+            for (Object task : tasks) {
+                cachedProjectOfTask.remove(((Task) task).getId(), key);
+            }
+        } else {
+            weight -= 1;
+        }
+    }
+
+    @Override
+    public void addRecurringTask(RecurringTask definition) {
+        delegate.addRecurringTask(definition);
+    }
+
+    @Override
+    public void addMaterializedOccurrence(long recurringId, LocalDate day) {
+        delegate.addMaterializedOccurrence(recurringId, day);
+    }
+
+    @Override
+    public List<RecurringTask> allRecurringTasks() {
+        return delegate.allRecurringTasks();
+    }
+
+    @Override
+    public Map<Long, Set<LocalDate>> materializedOccurrences() {
+        return delegate.materializedOccurrences();
+    }
+
+    @Override
+    public void forEachTask(TaskChangeListener visitor) {
+        delegate.forEachTask(visitor);
+    }
+
+    @Override
+    public boolean keepsTasksOffHeap() {
+        return delegate.keepsTasksOffHeap();
+    }
+}
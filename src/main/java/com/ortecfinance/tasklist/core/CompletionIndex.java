@@ -0,0 +1,53 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Project names and the words of task descriptions, for completing what a user has started typing; kept current
+ * through {@link TaskChangeListener} callbacks. Words are lower case and ranked by the number of tasks using them.
+ */
+final class CompletionIndex implements TaskChangeListener {
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}'-]*");
+
+    private final CompletionTrie projects = new CompletionTrie();
+    private final CompletionTrie words = new CompletionTrie();
+
+    synchronized Completions complete(String prefix, int limit) {
+        return new Completions(projects.complete(prefix, limit), words.complete(prefix, limit));
+    }
+
+    @Override
+    public synchronized void projectAdded(String projectName) {
+        if (!projects.contains(projectName)) {
+            projects.add(projectName);
+        }
+    }
+
+    @Override
+    public synchronized void taskAdded(String projectName, Task task) {
+        for (String word : words(task.getDescription())) {
+            words.add(word);
+        }
+    }
+
+    @Override
+    public synchronized void taskRemoved(String projectName, Task task) {
+        for (String word : words(task.getDescription())) {
+            words.remove(word);
+        }
+    }
+
+    // distinct, so a task counts once per word
+    private static Set<String> words(String description) {
+        Set<String> result = new HashSet<>();
+        Matcher matcher = WORD.matcher(description.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            result.add(matcher.group());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,212 @@
+package com.ortecfinance.tasklist.core;
+
+import java.util.*;
+
+/**
+ * Prefix trie over counted terms, matched case-insensitively. Every node keeps the best {@link #TOP} terms of its
+ * subtree, most frequent first and then alphabetically, so completing a prefix walks the prefix and copies that
+ * list: O(prefix length + limit), however many terms share the prefix. Adding or removing a term updates the
+ * lists along its path; a node only merges its children's lists when one of its best terms drops in rank.
+ */
+final class CompletionTrie {
+    static final int TOP = 16;
+
+    private static final Comparator<Term> RANK = Comparator.comparingInt((Term term) -> -term.count)
+            .thenComparing(term -> term.text, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(term -> term.text);
+
+    private static final class Term {
+        private final String text;
+        private int count;
+
+        private Term(String text) {
+            this.text = text;
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private List<Term> terms;            // terms ending here, usually one
+        private final List<Term> top = new ArrayList<>(2);
+
+        private Node child(char key) {
+            int i = Arrays.binarySearch(keys, key);
+            return i < 0 ? null : children[i];
+        }
+
+        private Node addChild(char key) {
+            int i = -Arrays.binarySearch(keys, key) - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = key;
+            newChildren[i] = child;
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, keys.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int i = Arrays.binarySearch(keys, key);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, keys.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    private final Node root = new Node();
+
+    boolean contains(String text) {
+        Node node = find(key(text));
+        return node != null && termAt(node, text) != null;
+    }
+
+    /**
+     * Counts one more occurrence of the term.
+     */
+    void add(String text) {
+        String key = key(text);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = path[i].child(key.charAt(i));
+            path[i + 1] = child != null ? child : path[i].addChild(key.charAt(i));
+        }
+        Node end = path[key.length()];
+        Term term = termAt(end, text);
+        if (term == null) {
+            if (end.terms == null) {
+                end.terms = new ArrayList<>(1);
+            }
+            term = new Term(text);
+            end.terms.add(term);
+        }
+        term.count++;
+        for (Node node : path) {
+            promote(node, term);
+        }
+    }
+
+    /**
+     * Counts one occurrence of the term less; at zero it is dropped.
+     */
+    void remove(String text) {
+        String key = key(text);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].child(key.charAt(i));
+            if (path[i + 1] == null) return;
+        }
+        Node end = path[key.length()];
+        Term term = termAt(end, text);
+        if (term == null) return;
+        if (--term.count == 0) {
+            end.terms.remove(term);
+            if (end.terms.isEmpty()) {
+                end.terms = null;
+            }
+        }
+        // bottom-up, so a node that has to merge sees its children's lists already updated
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            demote(node, term);
+            if (i > 0 && node.top.isEmpty()) {
+                path[i - 1].removeChild(key.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * @return up to {@code limit} (at most {@link #TOP}) terms starting with the prefix, best first
+     */
+    List<String> complete(String prefix, int limit) {
+        Node node = find(key(prefix));
+        if (node == null) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>(Math.min(limit, node.top.size()));
+        for (Term term : node.top) {
+            if (result.size() == limit) break;
+            result.add(term.text);
+        }
+        return result;
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    // the term's count went up: it can only move forward or enter the list
+    private static void promote(Node node, Term term) {
+        List<Term> top = node.top;
+        int at = top.indexOf(term);
+        if (at < 0) {
+            if (top.size() == TOP) {
+                if (RANK.compare(term, top.get(TOP - 1)) >= 0) return;
+                top.remove(TOP - 1);
+            }
+            top.add(term);
+            at = top.size() - 1;
+        }
+        while (at > 0 && RANK.compare(term, top.get(at - 1)) < 0) {
+            Collections.swap(top, at, at - 1);
+            at--;
+        }
+    }
+
+    // the term's count went down: a term outside the list may outrank it now, so a full list is rebuilt
+    private static void demote(Node node, Term term) {
+        List<Term> top = node.top;
+        int at = top.indexOf(term);
+        if (at < 0) return;
+        if (top.size() < TOP) {
+            if (term.count == 0) {
+                top.remove(at);
+                return;
+            }
+            while (at < top.size() - 1 && RANK.compare(term, top.get(at + 1)) > 0) {
+                Collections.swap(top, at, at + 1);
+                at++;
+            }
+            return;
+        }
+        List<Term> candidates = new ArrayList<>();
+        if (node.terms != null) {
+            candidates.addAll(node.terms);
+        }
+        for (Node child : node.children) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(RANK);
+        top.clear();
+        top.addAll(candidates.subList(0, Math.min(TOP, candidates.size())));
+    }
+
+    private static Term termAt(Node node, String text) {
+        if (node.terms != null) {
+            for (Term term : node.terms) {
+                if (term.text.equals(text)) return term;
+            }
+        }
+        return null;
+    }
+
+    private static String key(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
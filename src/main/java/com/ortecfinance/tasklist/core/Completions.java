@@ -0,0 +1,9 @@
+package com.ortecfinance.tasklist.core;
+
+import java.util.List;
+
+/**
+ * @param projects project names starting with the prefix, alphabetically
+ * @param words description words starting with the prefix, the most used first
+ */
+public record Completions(List<String> projects, List<String> words) {}
@@ -0,0 +1,23 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.util.stream.Collectors;
+
+/**
+ * Logs every {@link DeadlineScheduler.DeadlineEvent} to {@code tasklist.reminders}: the tasks that fall due
+ * today, and the open tasks whose deadline passed yesterday.
+ */
+public final class DeadlineReminderLog implements DeadlineScheduler.Listener {
+    private static final System.Logger REMINDERS = System.getLogger("tasklist.reminders");
+
+    @Override
+    public void onDeadlineEvent(DeadlineScheduler.DeadlineEvent event) {
+        String tasks = event.tasks().stream()
+                .map(task -> task.getId() + ": " + task.getDescription())
+                .collect(Collectors.joining(", "));
+        REMINDERS.log(System.Logger.Level.INFO, "{0} deadline={1} tasks=[{2}]",
+                event.type() == DeadlineScheduler.EventType.DUE_TODAY ? "due today" : "overdue",
+                event.deadline(), tasks);
+    }
+}
@@ -0,0 +1,50 @@
+package com.ortecfinance.tasklist.core;
+
+/**
+ * Range filter over packed deadline columns: {@code days[i]} is the epoch day of slot {@code i}'s deadline
+ * ({@link #NO_DEADLINE} if it has none) and bit {@code i} of {@code done} is its done flag.
+ */
+interface DeadlineScan {
+    int NO_DEADLINE = Integer.MIN_VALUE;
+
+    enum DoneFilter { ANY, DONE, OPEN }
+
+    /**
+     * Writes the slots in {@code [0, size)} whose deadline lies in {@code [from, to]} and that pass the filter
+     * to {@code out}, in ascending order. Slots without a deadline never match.
+     *
+     * @return the number of slots written
+     */
+    int select(int[] days, long[] done, int size, int from, int to, DoneFilter filter, int[] out);
+
+    /**
+     * @return the number of slots {@link #select} would write
+     */
+    int count(int[] days, long[] done, int size, int from, int to, DoneFilter filter);
+
+    /**
+     * @return the vectorized scan when the JVM was started with {@code --add-modules jdk.incubator.vector},
+     * otherwise the scalar one; {@code -Dtasklist.scan.scalar=true} forces the scalar scan
+     */
+    static DeadlineScan best() {
+        if (!Boolean.getBoolean("tasklist.scan.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // only loaded here, so the class is never linked when the module is missing
+                return (DeadlineScan) Class.forName("com.ortecfinance.tasklist.core.VectorDeadlineScan")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // fall back to the scalar scan below
+            }
+        }
+        return new ScalarDeadlineScan();
+    }
+
+    static long doneMask(long[] done, int slot, DoneFilter filter) {
+        return switch (filter) {
+            case ANY -> -1L;
+            case DONE -> done[slot >>> 6] >>> (slot & 63);
+            case OPEN -> ~(done[slot >>> 6] >>> (slot & 63));
+        };
+    }
+}
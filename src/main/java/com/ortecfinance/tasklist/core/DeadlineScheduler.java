@@ -0,0 +1,302 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires "due today" and "overdue" events at day boundaries using a hierarchical timing wheel keyed by epoch day.
+ * Level 0 has one slot per day, every higher level covers 64 times the span of the one below it, and deadlines
+ * beyond the last level wait in an overflow list. Scheduling, cancelling and rescheduling a task are O(1);
+ * advancing one day only touches the tasks in the slots that come due.
+ */
+public final class DeadlineScheduler implements TaskChangeListener {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 3;    // 64^3 days (~700 years) before falling back to the overflow list
+
+    public enum EventType { DUE_TODAY, OVERDUE }
+
+    /**
+     * @param deadline the deadline shared by all tasks in the event
+     */
+    public record DeadlineEvent(EventType type, LocalDate deadline, List<Task> tasks) {}
+
+    @FunctionalInterface
+    public interface Listener {
+        void onDeadlineEvent(DeadlineEvent event);
+    }
+
+    private final Clock clock;
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final Slot overflow = new Slot();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private long currentDay;
+
+    public DeadlineScheduler(Clock clock) {
+        this.clock = clock;
+        this.currentDay = today();
+        for (Slot[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Creates a scheduler with the deadlines of the existing tasks scheduled, for
+     * {@link TaskListService#addChangeListener(java.util.function.Function)}.
+     */
+    public static DeadlineScheduler of(Map<String, List<Task>> existing, Clock clock) {
+        DeadlineScheduler scheduler = new DeadlineScheduler(clock);
+        existing.values().forEach(tasks -> tasks.forEach(scheduler::schedule));
+        return scheduler;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers the task's current deadline, replacing any earlier registration. Tasks without a deadline or
+     * whose deadline has already passed are not scheduled.
+     */
+    public synchronized void schedule(Task task) {
+        cancel(task.getId());
+        task.getDeadline().ifPresent(deadline -> {
+            long deadlineDay = deadline.toEpochDay();
+            if (deadlineDay > currentDay) {
+                insert(new Entry(task, deadlineDay, EventType.DUE_TODAY));
+            } else if (deadlineDay == currentDay) {
+                // the "due today" boundary has already passed, only the overdue event is still ahead
+                insert(new Entry(task, deadlineDay, EventType.OVERDUE));
+            }
+        });
+    }
+
+    public synchronized void cancel(long taskId) {
+        Entry entry = entries.remove(taskId);
+        if (entry != null) {
+            entry.unlink();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Moves the wheel forward to the clock's current day and notifies listeners of every day boundary crossed.
+     */
+    public void advance() {
+        List<DeadlineEvent> events;
+        synchronized (this) {
+            events = advanceTo(today());
+        }
+        for (DeadlineEvent event : events) {
+            for (Listener listener : listeners) {
+                listener.onDeadlineEvent(event);
+            }
+        }
+    }
+
+    /**
+     * Calls {@link #advance()} on the executor at every following midnight of the clock's zone.
+     */
+    public void start(ScheduledExecutorService executor) {
+        executor.schedule(() -> {
+            try {
+                advance();
+            } finally {
+                start(executor);
+            }
+        }, untilNextDay().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void taskAdded(String projectName, Task task) {
+        schedule(task);
+    }
+
+    @Override
+    public synchronized void doneChanged(Task task) {
+        // the overdue check reads the done flag, so keep the instance that was last changed
+        Entry entry = entries.get(task.getId());
+        if (entry != null) {
+            entry.task = task;
+        }
+    }
+
+    @Override
+    public void deadlineChanged(Task task, LocalDate previous) {
+        schedule(task);
+    }
+
+    @Override
+    public void taskRemoved(String projectName, Task task) {
+        cancel(task.getId());
+    }
+
+    private List<DeadlineEvent> advanceTo(long targetDay) {
+        List<DeadlineEvent> events = new ArrayList<>();
+        while (currentDay < targetDay) {
+            if (entries.isEmpty()) {
+                currentDay = targetDay;
+                break;
+            }
+            tick(++currentDay, events);
+        }
+        return events;
+    }
+
+    private void tick(long day, List<DeadlineEvent> events) {
+        if ((day & (span(LEVELS) - 1)) == 0) {
+            cascade(overflow);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((day & (span(level) - 1)) == 0) {
+                cascade(wheels[level][slotIndex(day, level)]);
+            }
+        }
+
+        List<Task> dueToday = new ArrayList<>();
+        List<Task> overdue = new ArrayList<>();
+        for (Entry entry = wheels[0][slotIndex(day, 0)].detach(); entry != null; ) {
+            Entry next = entry.next;
+            entry.next = null;
+            if (entry.type == EventType.DUE_TODAY) {
+                dueToday.add(entry.task);
+                entry.type = EventType.OVERDUE;
+                entry.fireDay = day + 1;
+                place(entry);
+            } else {
+                entries.remove(entry.task.getId());
+                if (!entry.task.isDone()) {
+                    overdue.add(entry.task);
+                }
+            }
+            entry = next;
+        }
+
+        if (!dueToday.isEmpty()) {
+            events.add(new DeadlineEvent(EventType.DUE_TODAY, LocalDate.ofEpochDay(day), dueToday));
+        }
+        if (!overdue.isEmpty()) {
+            events.add(new DeadlineEvent(EventType.OVERDUE, LocalDate.ofEpochDay(day - 1), overdue));
+        }
+    }
+
+    private void cascade(Slot slot) {
+        for (Entry entry = slot.detach(); entry != null; ) {
+            Entry next = entry.next;
+            entry.next = null;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void insert(Entry entry) {
+        entries.put(entry.task.getId(), entry);
+        place(entry);
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.fireDay - currentDay;
+        int level = 0;
+        while (level < LEVELS && delta >= span(level + 1)) {
+            level++;
+        }
+        Slot slot = level == LEVELS ? overflow : wheels[level][slotIndex(entry.fireDay, level)];
+        slot.add(entry);
+    }
+
+    private static long span(int level) {
+        return 1L << (SLOT_BITS * level);
+    }
+
+    private static int slotIndex(long day, int level) {
+        return (int) ((day >> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private long today() {
+        return LocalDate.now(clock).toEpochDay();
+    }
+
+    private Duration untilNextDay() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime nextDay = now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone());
+        return Duration.between(now, nextDay);
+    }
+
+    private static final class Entry {
+        private Task task;
+        private EventType type;
+        private long fireDay;
+        private Slot slot;
+        private Entry prev;
+        private Entry next;
+
+        private Entry(Task task, long deadlineDay, EventType type) {
+            this.task = task;
+            this.type = type;
+            this.fireDay = type == EventType.DUE_TODAY ? deadlineDay : deadlineDay + 1;
+        }
+
+        private void unlink() {
+            if (slot != null) {
+                slot.remove(this);
+            }
+        }
+    }
+
+    // Intrusive doubly linked list so an entry can leave its slot in O(1)
+    private static final class Slot {
+        private Entry head;
+
+        private void add(Entry entry) {
+            entry.slot = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        private void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.slot = null;
+        }
+
+        /**
+         * Empties the slot and returns its former entries as a chain linked through {@code next}.
+         */
+        private Entry detach() {
+            Entry first = head;
+            head = null;
+            for (Entry entry = first; entry != null; entry = entry.next) {
+                entry.slot = null;
+                entry.prev = null;
+            }
+            return first;
+        }
+    }
+}
@@ -2,35 +2,57 @@ package com.ortecfinance.tasklist.core;
 
 import com.ortecfinance.tasklist.domain.Task;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Predicate;
 
+/**
+ * Keeps every project's tasks in an append-only array. The lists handed out are snapshots of the array's
+ * filled part: appends only write past it and removals build a new array, so a reader can go on iterating
+ * while other threads change the project, without copying anything up front.
+ * <p>
+ * Deadlines are shared: tasks due on the same day point to one date instance. The repository keeps an estimate of
+ * the heap it retains, updated as tasks come and go, see {@link #memoryFootprint()}.
+ */
 public class InMemoryTaskRepository implements TaskRepository {
-    private final Map<String, List<Task>> tasks = new LinkedHashMap<>();
+    private final Map<String, TaskArray> tasks = new LinkedHashMap<>();
+    private final Map<LocalDate, LocalDate> deadlines = new HashMap<>();
+    private long projectNameBytes;
 
     @Override
-    public void addProject(String name) {
-        tasks.put(name, new ArrayList<>());
+    public synchronized void addProject(String name) {
+        if (tasks.put(name, new TaskArray()) == null) {
+            projectNameBytes += ObjectSizes.string(name);
+        }
     }
 
     @Override
-    public void addTask(String projectName, Task task) {
-        List<Task> projectTasks = tasks.get(projectName);
+    public synchronized void addTask(String projectName, Task task) {
+        TaskArray projectTasks = tasks.get(projectName);
         if (projectTasks == null) {
             throw new IllegalArgumentException("Project does not exist: " + projectName);
         }
+        shareDeadline(task);
         projectTasks.add(task);
     }
 
     @Override
-    public Optional<List<Task>> findProjectTasks(String projectName) {
-        return Optional.ofNullable(tasks.get(projectName))
-                .map(Collections::unmodifiableList);
+    public synchronized void updateTask(Task task) {
+        // tasks are shared with the caller, the change is already stored
+        shareDeadline(task);
     }
 
     @Override
-    public Optional<Task> findTaskById(long id) {
-        for (List<Task> projectTasks : tasks.values()) {
-            for (Task task : projectTasks) {
+    public synchronized Optional<List<Task>> findProjectTasks(String projectName) {
+        TaskArray projectTasks = tasks.get(projectName);
+        return projectTasks == null ? Optional.empty() : Optional.of(projectTasks.snapshot());
+    }
+
+    @Override
+    public synchronized Optional<Task> findTaskById(long id) {
+        for (TaskArray projectTasks : tasks.values()) {
+            for (int i = 0; i < projectTasks.size; i++) {
+                Task task = projectTasks.elements[i];
                 if (task.getId() == id)
                     return Optional.of(task);
             }
@@ -39,11 +61,121 @@ public class InMemoryTaskRepository implements TaskRepository {
     }
 
     @Override
-    public Map<String, List<Task>> allProjects() {
+    public synchronized Map<String, List<Task>> allProjects() {
         Map<String, List<Task>> readView = new LinkedHashMap<>();
-        for (Map.Entry<String, List<Task>> entry : tasks.entrySet()) {
-            readView.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        for (Map.Entry<String, TaskArray> entry : tasks.entrySet()) {
+            readView.put(entry.getKey(), entry.getValue().snapshot());
         }
         return Collections.unmodifiableMap(readView);
     }
+
+    @Override
+    public synchronized int removeTasks(String projectName, Set<Long> taskIds) {
+        TaskArray projectTasks = tasks.get(projectName);
+        if (projectTasks == null) return 0;
+        return projectTasks.removeIf(task -> taskIds.contains(task.getId()));
+    }
+
+    /**
+     * Estimates the heap retained by the repository from the object layout of the running JVM. The sums are kept
+     * up to date on every change, so this costs O(projects), not O(tasks).
+     */
+    public synchronized MemoryFootprint memoryFootprint() {
+        List<MemoryFootprint.Project> projects = new ArrayList<>(tasks.size());
+        for (Map.Entry<String, TaskArray> entry : tasks.entrySet()) {
+            TaskArray projectTasks = entry.getValue();
+            projects.add(new MemoryFootprint.Project(entry.getKey(), projectTasks.size,
+                    projectTasks.size * ObjectSizes.TASK, projectTasks.descriptionBytes, projectTasks.bytes()));
+        }
+        long mapBytes = ObjectSizes.LINKED_MAP + ObjectSizes.mapTable(tasks.size())
+                + tasks.size() * ObjectSizes.LINKED_MAP_ENTRY + projectNameBytes;
+        long deadlineBytes = ObjectSizes.MAP + ObjectSizes.mapTable(deadlines.size())
+                + deadlines.size() * (ObjectSizes.MAP_ENTRY + ObjectSizes.LOCAL_DATE);
+        return new MemoryFootprint(mapBytes, deadlineBytes, projects);
+    }
+
+    /**
+     * Emits the estimate as the periodic {@code tasklist.MemoryFootprint} flight recorder event until the returned
+     * handle is closed.
+     */
+    public AutoCloseable recordMemoryFootprint() {
+        return MemoryFootprintEvent.register(this);
+    }
+
+    // Dates are never dropped from the pool; it grows with the number of distinct deadline days
+    private void shareDeadline(Task task) {
+        LocalDate deadline = task.getDeadline().orElse(null);
+        if (deadline != null) {
+            LocalDate shared = deadlines.putIfAbsent(deadline, deadline);
+            if (shared != null && shared != deadline) {
+                task.setDeadline(shared);
+            }
+        }
+    }
+
+    // Guarded by the repository; snapshots read only the slots that were filled when they were taken
+    private static final class TaskArray {
+        // elements, int size, long descriptionBytes
+        private static final long SHALLOW = ObjectSizes.align(ObjectSizes.HEADER + ObjectSizes.REFERENCE
+                + Integer.BYTES + Long.BYTES);
+
+        private Task[] elements = new Task[8];
+        private int size;
+        private long descriptionBytes;
+
+        private void add(Task task) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = task;
+            descriptionBytes += ObjectSizes.string(task.getDescription());
+        }
+
+        private int removeIf(Predicate<Task> filter) {
+            Task[] kept = new Task[Math.max(8, elements.length)];
+            int keptSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (!filter.test(elements[i])) {
+                    kept[keptSize++] = elements[i];
+                } else {
+                    descriptionBytes -= ObjectSizes.string(elements[i].getDescription());
+                }
+            }
+            int removed = size - keptSize;
+            if (removed > 0) {
+                elements = kept;
+                size = keptSize;
+            }
+            return removed;
+        }
+
+        private List<Task> snapshot() {
+            return new Snapshot(elements, size);
+        }
+
+        private long bytes() {
+            return SHALLOW + ObjectSizes.referenceArray(elements.length);
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final Task[] elements;
+        private final int size;
+
+        private Snapshot(Task[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        public Task get(int index) {
+            Objects.checkIndex(index, size);
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
 }
@@ -0,0 +1,217 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Emits a {@code tasklist.RepositoryOperation} flight recorder event around every call to the wrapped repository.
+ */
+public final class JfrTaskRepository implements TaskRepository {
+    private final TaskRepository delegate;
+
+    public JfrTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addProject(String name) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("addProject");
+        delegate.addProject(name);
+        if (event.shouldCommit()) {
+            event.project = name;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void addTask(String projectName, Task task) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("addTask");
+        delegate.addTask(projectName, task);
+        if (event.shouldCommit()) {
+            event.project = projectName;
+            event.taskId = task.getId();
+            event.resultCount = 1;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void addTasks(String projectName, List<Task> tasks) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("addTasks");
+        delegate.addTasks(projectName, tasks);
+        if (event.shouldCommit()) {
+            event.project = projectName;
+            event.resultCount = tasks.size();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("updateTask");
+        delegate.updateTask(task);
+        if (event.shouldCommit()) {
+            event.taskId = task.getId();
+            event.resultCount = 1;
+            event.commit();
+        }
+    }
+
+    @Override
+    public Optional<List<Task>> findProjectTasks(String projectName) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("findProjectTasks");
+        Optional<List<Task>> result = delegate.findProjectTasks(projectName);
+        if (event.shouldCommit()) {
+            event.project = projectName;
+            event.resultCount = result.map(List::size).orElse(0);
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Task> findTaskById(long id) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("findTaskById");
+        Optional<Task> result = delegate.findTaskById(id);
+        if (event.shouldCommit()) {
+            event.taskId = id;
+            event.resultCount = result.isPresent() ? 1 : 0;
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<TaskMatch> findTaskMatch(long id) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("findTaskMatch");
+        Optional<TaskMatch> result = delegate.findTaskMatch(id);
+        if (event.shouldCommit()) {
+            event.taskId = id;
+            event.resultCount = result.isPresent() ? 1 : 0;
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, List<Task>> allProjects() {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("allProjects");
+        Map<String, List<Task>> result = delegate.allProjects();
+        if (event.shouldCommit()) {
+            event.resultCount = TaskListService.countTasks(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("findTasksByDeadline");
+        List<TaskMatch> result = delegate.findTasksByDeadline(from, to);
+        if (event.shouldCommit()) {
+            event.resultCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public int countTasksByDeadline(LocalDate from, LocalDate to, Boolean done) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("countTasksByDeadline");
+        int count = delegate.countTasksByDeadline(from, to, done);
+        if (event.shouldCommit()) {
+            event.resultCount = count;
+            event.commit();
+        }
+        return count;
+    }
+
+    @Override
+    public int removeTasks(String projectName, Set<Long> taskIds) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("removeTasks");
+        int removed = delegate.removeTasks(projectName, taskIds);
+        if (event.shouldCommit()) {
+            event.project = projectName;
+            event.resultCount = removed;
+            event.commit();
+        }
+        return removed;
+    }
+
+    @Override
+    public void addRecurringTask(RecurringTask definition) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("addRecurringTask");
+        delegate.addRecurringTask(definition);
+        if (event.shouldCommit()) {
+            event.project = definition.project();
+            event.taskId = definition.id();
+            event.resultCount = 1;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void addMaterializedOccurrence(long recurringId, LocalDate day) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("addMaterializedOccurrence");
+        delegate.addMaterializedOccurrence(recurringId, day);
+        if (event.shouldCommit()) {
+            event.taskId = recurringId;
+            event.resultCount = 1;
+            event.commit();
+        }
+    }
+
+    @Override
+    public List<RecurringTask> allRecurringTasks() {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("allRecurringTasks");
+        List<RecurringTask> result = delegate.allRecurringTasks();
+        if (event.shouldCommit()) {
+            event.resultCount = result.size();
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, Set<LocalDate>> materializedOccurrences() {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("materializedOccurrences");
+        Map<Long, Set<LocalDate>> result = delegate.materializedOccurrences();
+        if (event.shouldCommit()) {
+            event.resultCount = result.values().stream().mapToInt(Set::size).sum();
+            event.commit();
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachTask(TaskChangeListener visitor) {
+        TaskRepositoryEvent event = TaskRepositoryEvent.start("forEachTask");
+        int[] count = new int[1];
+        delegate.forEachTask(new TaskChangeListener() {
+            @Override
+            public void projectAdded(String projectName) {
+                visitor.projectAdded(projectName);
+            }
+
+            @Override
+            public void taskAdded(String projectName, Task task) {
+                count[0]++;
+                visitor.taskAdded(projectName, task);
+            }
+        });
+        if (event.shouldCommit()) {
+            event.resultCount = count[0];
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean keepsTasksOffHeap() {
+        return delegate.keepsTasksOffHeap();
+    }
+}
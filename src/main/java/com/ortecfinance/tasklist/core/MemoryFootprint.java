@@ -0,0 +1,39 @@
+package com.ortecfinance.tasklist.core;
+
+import java.util.List;
+
+/**
+ * Estimated heap retained by the in-memory repository.
+ *
+ * @param mapBytes the project map, its entries and the project names
+ * @param deadlineBytes the shared deadline dates
+ */
+public record MemoryFootprint(long mapBytes, long deadlineBytes, List<Project> projects) {
+
+    /**
+     * @param taskBytes the task objects
+     * @param descriptionBytes their description strings
+     * @param listBytes the project's task array, including unused capacity
+     */
+    public record Project(String name, int tasks, long taskBytes, long descriptionBytes, long listBytes) {
+        public long totalBytes() {
+            return taskBytes + descriptionBytes + listBytes;
+        }
+    }
+
+    public long totalBytes() {
+        long total = mapBytes + deadlineBytes;
+        for (Project project : projects) {
+            total += project.totalBytes();
+        }
+        return total;
+    }
+
+    public int tasks() {
+        int tasks = 0;
+        for (Project project : projects) {
+            tasks += project.tasks();
+        }
+        return tasks;
+    }
+}
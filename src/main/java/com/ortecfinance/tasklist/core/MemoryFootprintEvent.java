@@ -0,0 +1,39 @@
+package com.ortecfinance.tasklist.core;
+
+import jdk.jfr.*;
+
+@Name("tasklist.MemoryFootprint")
+@Label("Task Repository Memory Footprint")
+@Category({"TaskList", "Repository"})
+@Description("Estimated heap retained by the in-memory repository")
+@Period("10 s")
+@StackTrace(false)
+final class MemoryFootprintEvent extends Event {
+    @Label("Retained")
+    @DataAmount
+    long retainedBytes;
+
+    @Label("Projects")
+    int projects;
+
+    @Label("Tasks")
+    int tasks;
+
+    /**
+     * Emits the event at its period, as long as a recording enables it, until the returned handle is closed.
+     */
+    static AutoCloseable register(InMemoryTaskRepository repository) {
+        Runnable hook = () -> {
+            MemoryFootprintEvent event = new MemoryFootprintEvent();
+            if (event.isEnabled()) {
+                MemoryFootprint footprint = repository.memoryFootprint();
+                event.retainedBytes = footprint.totalBytes();
+                event.projects = footprint.projects().size();
+                event.tasks = footprint.tasks();
+                event.commit();
+            }
+        };
+        FlightRecorder.addPeriodicEvent(MemoryFootprintEvent.class, hook);
+        return () -> FlightRecorder.removePeriodicEvent(hook);
+    }
+}
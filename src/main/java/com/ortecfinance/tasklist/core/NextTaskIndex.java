@@ -0,0 +1,107 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Open tasks ordered by deadline, then id, with tasks without a deadline last; kept current through
+ * {@link TaskChangeListener} callbacks. The same order is kept per project, so the first K tasks of either
+ * are found in O(log N + K). Only ids are kept, the tasks themselves come from the {@link TaskIndex}.
+ */
+final class NextTaskIndex implements TaskChangeListener {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private record Entry(long day, long id, String project) implements Comparable<Entry> {
+        static Entry of(String project, Task task) {
+            long day = task.getDeadline().map(LocalDate::toEpochDay).orElse(NO_DEADLINE);
+            return new Entry(day, task.getId(), project);
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byDay = Long.compare(day, other.day);
+            return byDay != 0 ? byDay : Long.compare(id, other.id);
+        }
+    }
+
+    private final TaskIndex index;
+    private final NavigableSet<Entry> open = new TreeSet<>();
+    private final Map<String, NavigableSet<Entry>> openByProject = new HashMap<>();
+    private final Map<Long, Entry> openById = new HashMap<>();
+    // every task, open or done, so a task that is unchecked again can be put back under its project
+    private final Map<Long, String> projectOfTask = new HashMap<>();
+
+    NextTaskIndex(TaskIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * @param project only tasks of this project, or null for all
+     */
+    synchronized List<TaskMatch> first(int count, String project) {
+        NavigableSet<Entry> entries = project == null
+                ? open
+                : openByProject.getOrDefault(project, Collections.emptyNavigableSet());
+        List<TaskMatch> first = new ArrayList<>(Math.min(count, entries.size()));
+        for (Entry entry : entries) {
+            if (first.size() == count) break;
+            Task task = index.task(entry.id());
+            if (task != null) {
+                first.add(new TaskMatch(entry.project(), task));
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public synchronized void taskAdded(String projectName, Task task) {
+        projectOfTask.put(task.getId(), projectName);
+        if (!task.isDone()) {
+            add(Entry.of(projectName, task));
+        }
+    }
+
+    @Override
+    public synchronized void doneChanged(Task task) {
+        reindex(task);
+    }
+
+    @Override
+    public synchronized void deadlineChanged(Task task, LocalDate previous) {
+        reindex(task);
+    }
+
+    @Override
+    public synchronized void taskRemoved(String projectName, Task task) {
+        projectOfTask.remove(task.getId());
+        remove(task.getId());
+    }
+
+    private void reindex(Task task) {
+        String project = projectOfTask.get(task.getId());
+        if (project == null) return;
+        remove(task.getId());
+        if (!task.isDone()) {
+            add(Entry.of(project, task));
+        }
+    }
+
+    private void add(Entry entry) {
+        openById.put(entry.id(), entry);
+        open.add(entry);
+        openByProject.computeIfAbsent(entry.project(), p -> new TreeSet<>()).add(entry);
+    }
+
+    private void remove(long taskId) {
+        Entry entry = openById.remove(taskId);
+        if (entry == null) return;
+        open.remove(entry);
+        NavigableSet<Entry> projectEntries = openByProject.get(entry.project());
+        projectEntries.remove(entry);
+        if (projectEntries.isEmpty()) {
+            openByProject.remove(entry.project());
+        }
+    }
+}
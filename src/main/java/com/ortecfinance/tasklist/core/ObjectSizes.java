@@ -0,0 +1,73 @@
+package com.ortecfinance.tasklist.core;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Shallow sizes of the objects the in-memory repository retains, following the HotSpot layout of the running
+ * JVM: object header, reference width and object alignment are read from its VM options.
+ */
+final class ObjectSizes {
+    static final int REFERENCE;
+    static final int HEADER;
+    static final int ARRAY_HEADER;
+    private static final int ALIGNMENT;
+
+    static {
+        HotSpotDiagnosticMXBean vm = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        REFERENCE = flag(vm, "UseCompressedOops", true) ? 4 : 8;
+        HEADER = flag(vm, "UseCompressedClassPointers", true) ? 12 : 16;
+        ARRAY_HEADER = HEADER + Integer.BYTES;
+        ALIGNMENT = vm == null ? 8 : Integer.parseInt(vm.getVMOption("ObjectAlignmentInBytes").getValue());
+    }
+
+    // Task: id, description, done, deadline
+    static final long TASK = align(HEADER + Long.BYTES + REFERENCE + 1 + REFERENCE);
+    // LocalDate: int year, short month, short day
+    static final long LOCAL_DATE = align(HEADER + Integer.BYTES + 2 * Short.BYTES);
+    // String: value, int hash, byte coder, boolean hashIsZero
+    private static final long STRING = align(HEADER + REFERENCE + Integer.BYTES + 2);
+    // LinkedHashMap.Entry: int hash, key, value, next, before, after
+    static final long LINKED_MAP_ENTRY = align(HEADER + Integer.BYTES + 5L * REFERENCE);
+    // HashMap: keySet, values, table, entrySet, int size, modCount, threshold, float loadFactor
+    static final long MAP = align(HEADER + 4L * REFERENCE + 4 * Integer.BYTES);
+    // LinkedHashMap adds head, tail and boolean accessOrder
+    static final long LINKED_MAP = align(HEADER + 6L * REFERENCE + 4 * Integer.BYTES + 1);
+    // HashMap.Node: int hash, key, value, next
+    static final long MAP_ENTRY = align(HEADER + Integer.BYTES + 3L * REFERENCE);
+
+    private ObjectSizes() {
+    }
+
+    /**
+     * @return the string and its backing array, assuming compact strings
+     */
+    static long string(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        return STRING + align(ARRAY_HEADER + (long) value.length() * (latin1 ? 1 : 2));
+    }
+
+    static long referenceArray(int length) {
+        return align(ARRAY_HEADER + (long) length * REFERENCE);
+    }
+
+    /**
+     * @return the bucket table of a hash map that grew to hold {@code size} entries with the default load factor
+     */
+    static long mapTable(int size) {
+        int buckets = 16;
+        while (size > buckets * 3 / 4) {
+            buckets *= 2;
+        }
+        return size == 0 ? 0 : referenceArray(buckets);
+    }
+
+    static long align(long bytes) {
+        return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static boolean flag(HotSpotDiagnosticMXBean vm, String name, boolean fallback) {
+        return vm == null ? fallback : Boolean.parseBoolean(vm.getVMOption(name).getValue());
+    }
+}
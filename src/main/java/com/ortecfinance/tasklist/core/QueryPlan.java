@@ -0,0 +1,37 @@
+package com.ortecfinance.tasklist.core;
+
+import java.util.List;
+
+/**
+ * The access path chosen for a {@link TaskQuery}, the alternatives it was picked from and the filters
+ * that are evaluated on every candidate row.
+ */
+public record QueryPlan(
+        AccessPath accessPath,
+        String indexCondition,
+        long estimatedRows,
+        List<Candidate> considered,
+        List<String> residualFilters,
+        TaskQuery.Sort sort,
+        Integer limit
+) {
+    public enum AccessPath { ID_LOOKUP, DEADLINE_RANGE, PROJECT_SCAN, FULL_SCAN }
+
+    public record Candidate(AccessPath accessPath, long estimatedRows) {}
+
+    public String describe() {
+        StringBuilder text = new StringBuilder(accessPath.name());
+        if (indexCondition != null) {
+            text.append(" (").append(indexCondition).append(')');
+        }
+        text.append(", ~").append(estimatedRows).append(" rows");
+        if (!residualFilters.isEmpty()) {
+            text.append(", filter ").append(String.join(" and ", residualFilters));
+        }
+        text.append(", sort ").append(sort);
+        if (limit != null) {
+            text.append(", limit ").append(limit);
+        }
+        return text.toString();
+    }
+}
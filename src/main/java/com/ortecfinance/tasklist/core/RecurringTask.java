@@ -0,0 +1,19 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Recurrence;
+
+import java.time.LocalDate;
+
+/**
+ * A task that falls due again and again, stored once. Its id comes from the same sequence as task ids.
+ */
+public record RecurringTask(long id, String project, String description, Recurrence recurrence) {
+
+    /**
+     * @return the open occurrence on the day; it is not stored anywhere
+     */
+    public Occurrence occurrence(LocalDate day) {
+        return new Occurrence(id, description, day);
+    }
+}
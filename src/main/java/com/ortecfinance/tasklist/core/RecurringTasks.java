@@ -0,0 +1,139 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * The recurring task definitions and which of their occurrences have been turned into stored tasks. Open
+ * occurrences only exist while a query looks at them: a day, a window or each definition's next occurrence,
+ * so neither memory nor the cost of a view depends on how far the rules reach.
+ */
+final class RecurringTasks {
+    private final Map<Long, RecurringTask> definitions = new LinkedHashMap<>();
+    // days of each definition that became stored tasks; they are never generated again
+    private final Map<Long, Set<LocalDate>> materialized = new HashMap<>();
+
+    synchronized void add(RecurringTask definition) {
+        definitions.put(definition.id(), definition);
+    }
+
+    synchronized Optional<RecurringTask> find(long id) {
+        return Optional.ofNullable(definitions.get(id));
+    }
+
+    synchronized List<RecurringTask> all() {
+        return List.copyOf(definitions.values());
+    }
+
+    synchronized boolean isEmpty() {
+        return definitions.isEmpty();
+    }
+
+    /**
+     * @return false if the occurrence was already materialized
+     */
+    synchronized boolean materialize(long id, LocalDate day) {
+        return materialized.computeIfAbsent(id, k -> new HashSet<>()).add(day);
+    }
+
+    /**
+     * @return the open occurrences on the day, in definition order
+     */
+    synchronized List<TaskMatch> on(LocalDate day) {
+        List<TaskMatch> result = new ArrayList<>();
+        for (RecurringTask definition : definitions.values()) {
+            if (definition.recurrence().occursOn(day) && isOpen(definition, day)) {
+                result.add(new TaskMatch(definition.project(), definition.occurrence(day)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return every definition's first open occurrence on or after the day
+     */
+    synchronized List<TaskMatch> next(LocalDate day) {
+        List<TaskMatch> result = new ArrayList<>(definitions.size());
+        for (RecurringTask definition : definitions.values()) {
+            LocalDate occurrence = definition.recurrence().firstOnOrAfter(day);
+            while (!isOpen(definition, occurrence)) {
+                occurrence = definition.recurrence().firstOnOrAfter(occurrence.plusDays(1));
+            }
+            result.add(new TaskMatch(definition.project(), definition.occurrence(occurrence)));
+        }
+        return result;
+    }
+
+    /**
+     * A definition whose last occurrence before the day was not checked off is overdue with that occurrence only;
+     * earlier ones it missed are not listed, or an old rule would bring years of them.
+     *
+     * @return every definition's last occurrence before the day, if it is open
+     */
+    synchronized List<TaskMatch> previous(LocalDate day) {
+        List<TaskMatch> result = new ArrayList<>();
+        for (RecurringTask definition : definitions.values()) {
+            definition.recurrence().lastOnOrBefore(day.minusDays(1))
+                    .filter(occurrence -> isOpen(definition, occurrence))
+                    .ifPresent(occurrence -> result.add(
+                            new TaskMatch(definition.project(), definition.occurrence(occurrence))));
+        }
+        return result;
+    }
+
+    /**
+     * Counts the open occurrences in the window without generating them.
+     *
+     * @param from inclusive, or null to count from the start of each rule
+     * @param to inclusive
+     */
+    synchronized long count(LocalDate from, LocalDate to) {
+        long count = 0;
+        for (RecurringTask definition : definitions.values()) {
+            Recurrence recurrence = definition.recurrence();
+            LocalDate start = from == null ? recurrence.start() : from;
+            count += recurrence.count(start, to);
+            for (LocalDate day : materialized.getOrDefault(definition.id(), Set.of())) {
+                if (!day.isBefore(start) && !day.isAfter(to)) {
+                    count--;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param from inclusive
+     * @param to inclusive
+     * @return the open occurrences in the window, by day and then definition
+     */
+    synchronized List<TaskMatch> between(LocalDate from, LocalDate to) {
+        List<TaskMatch> result = new ArrayList<>();
+        for (RecurringTask definition : definitions.values()) {
+            for (LocalDate day = definition.recurrence().firstOnOrAfter(from); !day.isAfter(to);
+                 day = definition.recurrence().firstOnOrAfter(day.plusDays(1))) {
+                if (isOpen(definition, day)) {
+                    result.add(new TaskMatch(definition.project(), definition.occurrence(day)));
+                }
+            }
+        }
+        result.sort(Comparator.comparing((TaskMatch match) -> match.task().getDeadline().orElseThrow()));
+        return result;
+    }
+
+    private boolean isOpen(RecurringTask definition, LocalDate day) {
+        Set<LocalDate> days = materialized.get(definition.id());
+        return days == null || !days.contains(day);
+    }
+
+    static Map<String, List<Task>> byProject(List<TaskMatch> matches) {
+        Map<String, List<Task>> result = new LinkedHashMap<>();
+        for (TaskMatch match : matches) {
+            result.computeIfAbsent(match.project(), p -> new ArrayList<>()).add(match.task());
+        }
+        return result;
+    }
+}
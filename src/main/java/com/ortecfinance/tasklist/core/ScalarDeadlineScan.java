@@ -0,0 +1,42 @@
+package com.ortecfinance.tasklist.core;
+
+final class ScalarDeadlineScan implements DeadlineScan {
+    @Override
+    public int select(int[] days, long[] done, int size, int from, int to, DoneFilter filter, int[] out) {
+        return select(days, done, 0, size, from, to, filter, out, 0);
+    }
+
+    @Override
+    public int count(int[] days, long[] done, int size, int from, int to, DoneFilter filter) {
+        return count(days, done, 0, size, from, to, filter);
+    }
+
+    /**
+     * Scans slots {@code [start, end)} and appends matches to {@code out} from index {@code n}.
+     *
+     * @return the new number of slots in {@code out}
+     */
+    static int select(int[] days, long[] done, int start, int end, int from, int to, DoneFilter filter,
+                      int[] out, int n) {
+        int lower = Math.max(from, NO_DEADLINE + 1);
+        for (int i = start; i < end; i++) {
+            int day = days[i];
+            if (day >= lower && day <= to && (DeadlineScan.doneMask(done, i, filter) & 1) != 0) {
+                out[n++] = i;
+            }
+        }
+        return n;
+    }
+
+    static int count(int[] days, long[] done, int start, int end, int from, int to, DoneFilter filter) {
+        int lower = Math.max(from, NO_DEADLINE + 1);
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int day = days[i];
+            if (day >= lower && day <= to && (DeadlineScan.doneMask(done, i, filter) & 1) != 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+}
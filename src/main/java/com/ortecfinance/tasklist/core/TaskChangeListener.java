@@ -0,0 +1,24 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+
+/**
+ * Notified by {@link TaskListService} after every mutation it performs.
+ * Listeners are called on the mutating thread and should return quickly.
+ */
+public interface TaskChangeListener {
+    default void projectAdded(String projectName) {}
+
+    default void taskAdded(String projectName, Task task) {}
+
+    default void doneChanged(Task task) {}
+
+    /**
+     * @param previous the deadline before the change, or null if there was none
+     */
+    default void deadlineChanged(Task task, LocalDate previous) {}
+
+    default void taskRemoved(String projectName, Task task) {}
+}
@@ -0,0 +1,171 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.DeadlineScan.DoneFilter;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Column copy of every task's deadline and done flag, kept current through {@link TaskChangeListener}
+ * callbacks: deadlines as epoch days in one {@code int[]}, done flags as bits in a {@code long[]}, one slot per
+ * task in creation order. Range filters then run over the packed arrays with a {@link DeadlineScan} and only
+ * the matching slots are turned back into tasks, through their ids and the {@link TaskIndex}. Removed tasks leave
+ * a hole until half the slots are holes.
+ */
+final class TaskColumns implements TaskChangeListener {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long HOLE = -1;
+
+    private final DeadlineScan scan;
+    private final TaskIndex index;
+    private int[] days = new int[INITIAL_CAPACITY];
+    private long[] done = new long[INITIAL_CAPACITY / 64];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] projects = new int[INITIAL_CAPACITY];
+    private int[] selected = new int[INITIAL_CAPACITY];
+    private int size;
+    private int holes;
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<String, Integer> projectOrdinals = new HashMap<>();
+    private final List<String> projectNames = new ArrayList<>();
+
+    TaskColumns(DeadlineScan scan, TaskIndex index) {
+        this.scan = scan;
+        this.index = index;
+    }
+
+    /**
+     * @param from inclusive, or null for no lower bound
+     * @param to inclusive, or null for no upper bound
+     * @return matching tasks grouped by project, projects in the order they were added and tasks by id
+     */
+    synchronized Map<String, List<Task>> select(LocalDate from, LocalDate to, DoneFilter filter) {
+        int count = scan.select(days, done, size, lower(from), upper(to), filter, selected);
+        List<List<Task>> byProject = new ArrayList<>(Collections.nCopies(projectNames.size(), null));
+        for (int i = 0; i < count; i++) {
+            int slot = selected[i];
+            Task task = index.task(ids[slot]);
+            if (task == null) continue;
+            List<Task> projectTasks = byProject.get(projects[slot]);
+            if (projectTasks == null) {
+                projectTasks = new ArrayList<>();
+                byProject.set(projects[slot], projectTasks);
+            }
+            projectTasks.add(task);
+        }
+
+        Map<String, List<Task>> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < byProject.size(); ordinal++) {
+            List<Task> projectTasks = byProject.get(ordinal);
+            if (projectTasks != null) {
+                projectTasks.sort(Comparator.comparingLong(Task::getId));
+                result.put(projectNames.get(ordinal), projectTasks);
+            }
+        }
+        return result;
+    }
+
+    synchronized int count(LocalDate from, LocalDate to, DoneFilter filter) {
+        return scan.count(days, done, size, lower(from), upper(to), filter);
+    }
+
+    @Override
+    public synchronized void projectAdded(String projectName) {
+        if (!projectOrdinals.containsKey(projectName)) {
+            projectOrdinals.put(projectName, projectNames.size());
+            projectNames.add(projectName);
+        }
+    }
+
+    @Override
+    public synchronized void taskAdded(String projectName, Task task) {
+        projectAdded(projectName);
+        if (size == days.length) {
+            grow();
+        }
+        int slot = size++;
+        ids[slot] = task.getId();
+        projects[slot] = projectOrdinals.get(projectName);
+        days[slot] = epochDay(task);
+        setDone(slot, task.isDone());
+        slotById.put(task.getId(), slot);
+    }
+
+    @Override
+    public synchronized void doneChanged(Task task) {
+        Integer slot = slotById.get(task.getId());
+        if (slot != null) {
+            setDone(slot, task.isDone());
+        }
+    }
+
+    @Override
+    public synchronized void deadlineChanged(Task task, LocalDate previous) {
+        Integer slot = slotById.get(task.getId());
+        if (slot != null) {
+            days[slot] = epochDay(task);
+        }
+    }
+
+    @Override
+    public synchronized void taskRemoved(String projectName, Task task) {
+        Integer slot = slotById.remove(task.getId());
+        if (slot == null) return;
+        ids[slot] = HOLE;
+        days[slot] = DeadlineScan.NO_DEADLINE;
+        setDone(slot, false);
+        if (++holes * 2 > size) {
+            compact();
+        }
+    }
+
+    private void setDone(int slot, boolean value) {
+        if (value) {
+            done[slot >>> 6] |= 1L << slot;
+        } else {
+            done[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private void grow() {
+        int capacity = days.length * 2;
+        days = Arrays.copyOf(days, capacity);
+        done = Arrays.copyOf(done, capacity / 64);
+        ids = Arrays.copyOf(ids, capacity);
+        projects = Arrays.copyOf(projects, capacity);
+        selected = new int[capacity];
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int slot = 0; slot < size; slot++) {
+            long id = ids[slot];
+            if (id == HOLE) continue;
+            boolean isDone = (done[slot >>> 6] & 1L << slot) != 0;
+            ids[target] = id;
+            projects[target] = projects[slot];
+            days[target] = days[slot];
+            setDone(target, isDone);
+            slotById.put(id, target);
+            target++;
+        }
+        for (int slot = target; slot < size; slot++) {
+            setDone(slot, false);
+        }
+        size = target;
+        holes = 0;
+    }
+
+    private static int epochDay(Task task) {
+        return task.getDeadline().map(d -> Math.toIntExact(d.toEpochDay())).orElse(DeadlineScan.NO_DEADLINE);
+    }
+
+    private static int lower(LocalDate from) {
+        return from == null ? DeadlineScan.NO_DEADLINE + 1 : (int) Math.max(from.toEpochDay(), DeadlineScan.NO_DEADLINE + 1L);
+    }
+
+    private static int upper(LocalDate to) {
+        return to == null ? Integer.MAX_VALUE : (int) Math.min(to.toEpochDay(), Integer.MAX_VALUE);
+    }
+}
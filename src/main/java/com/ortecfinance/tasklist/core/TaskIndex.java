@@ -0,0 +1,162 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Secondary indexes over the repository, kept current through {@link TaskChangeListener} callbacks:
+ * task id to project, and deadline to task ids in order. The other indexes of the service hold ids too and turn
+ * them into tasks through {@link #task(long)}.
+ * <p>
+ * For a repository that {@linkplain TaskRepository#keepsTasksOffHeap() keeps tasks off heap} nothing but the
+ * number of tasks is kept: lookups by id and deadline go to the repository, which has its own indexes for them.
+ */
+final class TaskIndex implements TaskChangeListener {
+    private final TaskRepository repository;
+    // all three null when tasks are read from the repository
+    private final Map<Long, Task> tasks;
+    private final Map<Long, String> projectOfTask;
+    private final NavigableMap<LocalDate, NavigableSet<Long>> byDeadline;
+    private int offHeapSize;
+
+    TaskIndex(TaskRepository repository) {
+        this.repository = repository;
+        boolean onHeap = !repository.keepsTasksOffHeap();
+        this.tasks = onHeap ? new HashMap<>() : null;
+        this.projectOfTask = onHeap ? new HashMap<>() : null;
+        this.byDeadline = onHeap ? new TreeMap<>() : null;
+    }
+
+    synchronized Optional<TaskMatch> find(long id) {
+        if (tasks == null) {
+            return repository.findTaskMatch(id);
+        }
+        String project = projectOfTask.get(id);
+        return project == null ? Optional.empty() : Optional.ofNullable(task(id)).map(task -> new TaskMatch(project, task));
+    }
+
+    /**
+     * @return the indexed task with the id, or null if there is none
+     */
+    synchronized Task task(long id) {
+        return tasks == null ? repository.findTaskById(id).orElse(null) : tasks.get(id);
+    }
+
+    synchronized int size() {
+        return tasks == null ? offHeapSize : projectOfTask.size();
+    }
+
+    /**
+     * @param from inclusive, or null for no lower bound
+     * @param to inclusive, or null for no upper bound
+     */
+    synchronized long countDeadlines(LocalDate from, LocalDate to) {
+        if (tasks == null) {
+            return repository.countTasksByDeadline(from, to, null);
+        }
+        long count = 0;
+        for (NavigableSet<Long> ids : range(from, to).values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    /**
+     * Visits the tasks with a deadline in the range ordered by deadline, then id, until the visitor returns false.
+     */
+    synchronized void scanDeadlines(LocalDate from, LocalDate to, Predicate<TaskMatch> visitor) {
+        if (tasks == null) {
+            List<TaskMatch> matches = new ArrayList<>(repository.findTasksByDeadline(from, to));
+            matches.sort(Comparator.comparing((TaskMatch match) -> match.task().getDeadline().orElseThrow())
+                    .thenComparingLong(match -> match.task().getId()));
+            for (TaskMatch match : matches) {
+                if (!visitor.test(match)) {
+                    return;
+                }
+            }
+            return;
+        }
+        for (NavigableSet<Long> ids : range(from, to).values()) {
+            for (long id : ids) {
+                Optional<TaskMatch> match = find(id);
+                if (match.isPresent() && !visitor.test(match.get())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void taskAdded(String projectName, Task task) {
+        if (tasks == null) {
+            offHeapSize++;
+            return;
+        }
+        projectOfTask.put(task.getId(), projectName);
+        tasks.put(task.getId(), task);
+        task.getDeadline().ifPresent(deadline -> addDeadline(deadline, task.getId()));
+    }
+
+    @Override
+    public synchronized void doneChanged(Task task) {
+        refresh(task);
+    }
+
+    @Override
+    public synchronized void deadlineChanged(Task task, LocalDate previous) {
+        if (tasks == null) return;
+        refresh(task);
+        if (previous != null) {
+            removeDeadline(previous, task.getId());
+        }
+        task.getDeadline().ifPresent(deadline -> addDeadline(deadline, task.getId()));
+    }
+
+    @Override
+    public synchronized void taskRemoved(String projectName, Task task) {
+        if (tasks == null) {
+            offHeapSize--;
+            return;
+        }
+        projectOfTask.remove(task.getId());
+        tasks.remove(task.getId());
+        task.getDeadline().ifPresent(deadline -> removeDeadline(deadline, task.getId()));
+    }
+
+    // repositories that read tasks from storage hand out a new instance on every lookup, keep the latest one
+    private void refresh(Task task) {
+        if (tasks != null && tasks.containsKey(task.getId())) {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    private void addDeadline(LocalDate deadline, long taskId) {
+        byDeadline.computeIfAbsent(deadline, d -> new TreeSet<>()).add(taskId);
+    }
+
+    private void removeDeadline(LocalDate deadline, long taskId) {
+        NavigableSet<Long> ids = byDeadline.get(deadline);
+        if (ids != null) {
+            ids.remove(taskId);
+            if (ids.isEmpty()) {
+                byDeadline.remove(deadline);
+            }
+        }
+    }
+
+    private NavigableMap<LocalDate, NavigableSet<Long>> range(LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return from.isAfter(to) ? Collections.emptyNavigableMap() : byDeadline.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return byDeadline.tailMap(from, true);
+        }
+        if (to != null) {
+            return byDeadline.headMap(to, true);
+        }
+        return byDeadline;
+    }
+}
@@ -1,15 +1,45 @@
 package com.ortecfinance.tasklist.core;
 
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Recurrence;
 import com.ortecfinance.tasklist.domain.Task;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Safe for concurrent use. Changes are applied one at a time, so listeners see them in a single order; reads do
+ * not wait for changes and work on snapshots the repository hands out.
+ */
 public final class TaskListService {
+    // the order of nextTasks: by deadline, none last, then stored tasks before occurrences, then by id
+    private static final Comparator<TaskMatch> NEXT_ORDER = Comparator
+            .comparing((TaskMatch match) -> match.task().getDeadline().orElse(LocalDate.MAX))
+            .thenComparing(match -> match.task() instanceof Occurrence)
+            .thenComparingLong(match -> match.task() instanceof Occurrence occurrence
+                    ? occurrence.getRecurringId()
+                    : match.task().getId());
+
     private final TaskRepository repository;
     private final Clock clock;
-    private long lastId = 0;
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final TaskIndex index;
+    // both null for a repository that keeps tasks off heap, the queries they answer then go to the repository
+    private final TaskColumns columns;
+    private final NextTaskIndex nextTasks;
+    private final CompletionIndex completions = new CompletionIndex();
+    private final RecurringTasks recurring = new RecurringTasks();
+    private final TaskQueryPlanner planner;
+    // counts changes, so concurrent reads of the same version can share one computation
+    private final AtomicLong version = new AtomicLong();
+    private final SingleFlight<DayVersion, DeadlineGroups> deadlineFlights = new SingleFlight<>();
+    private final SingleFlight<DayVersion, Map<String, List<Task>>> dueTodayFlights = new SingleFlight<>();
+    private final AtomicLong lastId = new AtomicLong();
+
+    private record DayVersion(LocalDate day, long version) {}
 
     public TaskListService(TaskRepository repository) {
         this(repository, Clock.systemDefaultZone());
@@ -19,14 +49,93 @@ public final class TaskListService {
 
         this.repository = repository;
         this.clock = clock;
+        this.index = new TaskIndex(repository);
+        boolean onHeap = !repository.keepsTasksOffHeap();
+        this.columns = onHeap ? new TaskColumns(DeadlineScan.best(), index) : null;
+        this.nextTasks = onHeap ? new NextTaskIndex(index) : null;
+        this.planner = new TaskQueryPlanner(repository, index);
+        List<TaskChangeListener> indexes = onHeap
+                ? List.of(index, columns, nextTasks, completions)
+                : List.of(index, completions);
+        // one pass over the stored tasks as the repository hands them out, never all of them at once
+        repository.forEachTask(new TaskChangeListener() {
+            @Override
+            public void projectAdded(String projectName) {
+                indexes.forEach(l -> l.projectAdded(projectName));
+            }
+
+            @Override
+            public void taskAdded(String projectName, Task task) {
+                indexes.forEach(l -> l.taskAdded(projectName, task));
+                reserveIds(task.getId());
+            }
+        });
+        listeners.addAll(indexes);
+        listeners.add(new VersionCounter(version));
+        for (RecurringTask definition : repository.allRecurringTasks()) {
+            recurring.add(definition);
+            reserveIds(definition.id());
+        }
+        repository.materializedOccurrences().forEach((id, days) -> days.forEach(day -> recurring.materialize(id, day)));
+    }
+
+    public void addChangeListener(TaskChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Creates a listener from the current projects and registers it as one step, so it misses no change made
+     * after the projects it was built from.
+     *
+     * @return the listener
+     */
+    public synchronized <L extends TaskChangeListener> L addChangeListener(
+            java.util.function.Function<Map<String, List<Task>>, L> fromProjects) {
+        L listener = fromProjects.apply(repository.allProjects());
+        listeners.add(listener);
+        return listener;
+    }
+
+    /**
+     * Makes sure new tasks get ids above {@code usedId}, e.g. one taken by a task stored outside the repository.
+     */
+    public void reserveIds(long usedId) {
+        lastId.accumulateAndGet(usedId, Math::max);
     }
 
     public Map<String, List<Task>> allProjects() {
-        return repository.allProjects();
+        TaskServiceEvent event = TaskServiceEvent.start("allProjects");
+        Map<String, List<Task>> projects = repository.allProjects();
+        if (event.shouldCommit()) {
+            event.resultCount = countTasks(projects);
+            event.commit();
+        }
+        return projects;
     }
 
-    public void addProject(String name) {
+    public boolean hasProject(String name) {
+        return repository.findProjectTasks(name).isPresent();
+    }
+
+    /**
+     * Adding a project that exists already keeps or drops its tasks as the repository does; the in-memory
+     * repository starts the project over, so its tasks are reported as removed.
+     */
+    public synchronized void addProject(String name) {
+        TaskServiceEvent event = TaskServiceEvent.start("addProject");
+        List<Task> before = repository.findProjectTasks(name).orElse(List.of());
         repository.addProject(name);
+        listeners.forEach(l -> l.projectAdded(name));
+        if (!before.isEmpty()) {
+            Set<Long> kept = new HashSet<>();
+            repository.findProjectTasks(name).ifPresent(tasks -> tasks.forEach(task -> kept.add(task.getId())));
+            for (Task task : before) {
+                if (!kept.contains(task.getId())) {
+                    listeners.forEach(l -> l.taskRemoved(name, task));
+                }
+            }
+        }
+        commit(event, name, 0, 0);
     }
 
     /**
@@ -36,82 +145,460 @@ public final class TaskListService {
         return createTask(projectName, description).isPresent();
     }
 
-    public Optional<Task> createTask(String projectName, String description) {
-        if (repository.findProjectTasks(projectName).isEmpty()) return Optional.empty();
+    public synchronized Optional<Task> createTask(String projectName, String description) {
+        TaskServiceEvent event = TaskServiceEvent.start("createTask");
+        if (repository.findProjectTasks(projectName).isEmpty()) {
+            commit(event, projectName, 0, 0);
+            return Optional.empty();
+        }
         Task task = new Task(nextId(),description,false);
         repository.addTask(projectName, task);
+        listeners.forEach(l -> l.taskAdded(projectName, task));
+        commit(event, projectName, task.getId(), 1);
         return Optional.of(task);
     }
 
+    /**
+     * Creates several tasks in one repository call.
+     *
+     * @return the new tasks in the order of the descriptions, or empty if the project does not exist
+     */
+    public synchronized Optional<List<Task>> createTasks(String projectName, List<String> descriptions) {
+        TaskServiceEvent event = TaskServiceEvent.start("createTasks");
+        if (repository.findProjectTasks(projectName).isEmpty()) {
+            commit(event, projectName, 0, 0);
+            return Optional.empty();
+        }
+        List<Task> tasks = new ArrayList<>(descriptions.size());
+        for (String description : descriptions) {
+            tasks.add(new Task(nextId(), description, false));
+        }
+        repository.addTasks(projectName, tasks);
+        for (Task task : tasks) {
+            listeners.forEach(l -> l.taskAdded(projectName, task));
+        }
+        commit(event, projectName, 0, tasks.size());
+        return Optional.of(tasks);
+    }
+
     public Optional<Task> findTaskInProject(String projectName, long taskId) {
-        return repository.findProjectTasks(projectName)
+        TaskServiceEvent event = TaskServiceEvent.start("findTaskInProject");
+        Optional<Task> task = repository.findProjectTasks(projectName)
                 .flatMap(tasks -> tasks.stream()
                         .filter(t -> t.getId() == taskId)
                         .findFirst());
+        commit(event, projectName, taskId, task.isPresent() ? 1 : 0);
+        return task;
     }
 
     /**
      * @return true if the task exists, else false
      */
-    public boolean setDone(long taskId, boolean done) {
-        return updateTask(taskId, task -> task.setDone(done));
+    public synchronized boolean setDone(long taskId, boolean done) {
+        TaskServiceEvent event = TaskServiceEvent.start("setDone");
+        boolean updated = updateTask(taskId, task -> changeDone(task, done));
+        commit(event, null, taskId, updated ? 1 : 0);
+        return updated;
     }
 
     /**
      * @return true if the task exists, else false
      */
-    public boolean setDeadline(long taskId, LocalDate deadline) {
-        return updateTask(taskId, task -> task.setDeadline(deadline));
+    public synchronized boolean setDeadline(long taskId, LocalDate deadline) {
+        TaskServiceEvent event = TaskServiceEvent.start("setDeadline");
+        boolean updated = updateTask(taskId, task -> changeDeadline(task, deadline));
+        commit(event, null, taskId, updated ? 1 : 0);
+        return updated;
     }
 
     // Project aware deadline set
-    public boolean setDeadline(String projectName, long taskId, LocalDate deadline) {
-        return updateTask(projectName, taskId, task -> task.setDeadline(deadline));
+    public synchronized boolean setDeadline(String projectName, long taskId, LocalDate deadline) {
+        TaskServiceEvent event = TaskServiceEvent.start("setDeadline");
+        boolean updated = updateTask(projectName, taskId, task -> changeDeadline(task, deadline));
+        commit(event, projectName, taskId, updated ? 1 : 0);
+        return updated;
     }
 
     public record DeadlineGroups(
             Map<LocalDate, Map<String, List<Task>>> byDeadline,
             Map<String, List<Task>> noDeadline
-    ) {}
+    ) {
+        /**
+         * @return the groups with the occurrences added under their day; only the days they fall on are copied,
+         * these groups are left as they are
+         */
+        DeadlineGroups withOccurrences(List<TaskMatch> occurrences) {
+            if (occurrences.isEmpty()) {
+                return this;
+            }
+            Map<LocalDate, List<TaskMatch>> byDay = new TreeMap<>();
+            for (TaskMatch occurrence : occurrences) {
+                byDay.computeIfAbsent(occurrence.task().getDeadline().orElseThrow(), d -> new ArrayList<>())
+                        .add(occurrence);
+            }
+            Map<LocalDate, Map<String, List<Task>>> merged = new TreeMap<>(byDeadline);
+            byDay.forEach((day, dayOccurrences) ->
+                    merged.put(day, new TreeMap<>(TaskListService.withOccurrences(
+                            merged.getOrDefault(day, Map.of()), dayOccurrences))));
+            return new DeadlineGroups(merged, noDeadline);
+        }
+    }
 
+    /**
+     * Callers that ask while the view of the same version and day is being computed share that result, so it must
+     * not be modified.
+     */
     public DeadlineGroups viewByDeadlineGroups() {
+        LocalDate today = today();
+        return deadlineFlights.run(new DayVersion(today, version.get()), () -> computeDeadlineGroups(today));
+    }
+
+    private DeadlineGroups computeDeadlineGroups(LocalDate today) {
+        TaskServiceEvent event = TaskServiceEvent.start("viewByDeadlineGroups");
+        int taskCount = 0;
         Map<LocalDate, Map<String, List<Task>>> byDeadline = new TreeMap<>();
         Map<String,List<Task>> noDeadline = new TreeMap<>();
 
         for (Map.Entry<String, List<Task>> project : repository.allProjects().entrySet()) {
             String projectName = project.getKey();
+            taskCount += project.getValue().size();
             for (Task task : project.getValue()) {
-                task.getDeadline().ifPresentOrElse(
-                        deadline -> byDeadline
-                                .computeIfAbsent(deadline, t -> new TreeMap<>())
-                                .computeIfAbsent(projectName, l -> new ArrayList<>())
-                                .add(task),
-                        () -> noDeadline
-                                .computeIfAbsent(projectName, l -> new ArrayList<>())
-                                .add(task)
-                );
+                LocalDate deadline = task.getDeadline().orElse(null);
+                Map<String, List<Task>> byProject = deadline == null
+                        ? noDeadline
+                        : byDeadline.computeIfAbsent(deadline, t -> new TreeMap<>());
+                byProject.computeIfAbsent(projectName, l -> new ArrayList<>()).add(task);
             }
         }
 
+        // only the next occurrence of a recurring task, the view would be endless otherwise
+        for (TaskMatch occurrence : recurring.next(today)) {
+            byDeadline.computeIfAbsent(occurrence.task().getDeadline().orElseThrow(), t -> new TreeMap<>())
+                    .computeIfAbsent(occurrence.project(), l -> new ArrayList<>()).add(occurrence.task());
+            taskCount++;
+        }
+
+        commit(event, null, 0, taskCount);
         return new DeadlineGroups(byDeadline, noDeadline);
     }
 
+    /**
+     * Shared with concurrent callers like {@link #viewByDeadlineGroups()}, so the result must not be modified.
+     */
     public Map<String, List<Task>> tasksDueToday() {
         LocalDate today = today();
+        return dueTodayFlights.run(new DayVersion(today, version.get()), () -> computeTasksDueToday(today));
+    }
+
+    private Map<String, List<Task>> computeTasksDueToday(LocalDate today) {
+        TaskServiceEvent event = TaskServiceEvent.start("tasksDueToday");
+        Map<String, List<Task>> result = selectDeadlines(today, today, DeadlineScan.DoneFilter.ANY);
+        if (!recurring.isEmpty()) {
+            result = withOccurrences(result, recurring.on(today));
+        }
+        if (event.shouldCommit()) {
+            event.resultCount = countTasks(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    // projects in the order they were added and tasks by id, the order of both TaskColumns and findTasksByDeadline
+    private Map<String, List<Task>> selectDeadlines(LocalDate from, LocalDate to, DeadlineScan.DoneFilter filter) {
+        if (columns != null) {
+            return columns.select(from, to, filter);
+        }
         Map<String, List<Task>> result = new LinkedHashMap<>();
+        for (TaskMatch match : repository.findTasksByDeadline(from, to)) {
+            boolean done = match.task().isDone();
+            if (filter == DeadlineScan.DoneFilter.ANY || done == (filter == DeadlineScan.DoneFilter.DONE)) {
+                result.computeIfAbsent(match.project(), p -> new ArrayList<>()).add(match.task());
+            }
+        }
+        return result;
+    }
 
-        for (Map.Entry<String, List<Task>> project : repository.allProjects().entrySet()) {
-            List<Task> dueToday = project.getValue().stream()
-                    .filter(t -> t.getDeadline().isPresent() && t.getDeadline().get().equals(today))
-                    .toList();
+    /**
+     * For read models that only hold stored tasks: adds today's open occurrences of recurring tasks to the tasks
+     * due today, as {@link #tasksDueToday()} has them.
+     */
+    public Map<String, List<Task>> withOccurrencesDueToday(Map<String, List<Task>> tasks) {
+        return recurring.isEmpty() ? tasks : withOccurrences(tasks, recurring.on(today()));
+    }
+
+    /**
+     * For read models that only hold stored tasks: adds the next open occurrence of each recurring task to the
+     * groups, as {@link #viewByDeadlineGroups()} has them.
+     */
+    public DeadlineGroups withNextOccurrences(DeadlineGroups groups) {
+        return recurring.isEmpty() ? groups : groups.withOccurrences(recurring.next(today()));
+    }
+
+    private static Map<String, List<Task>> withOccurrences(Map<String, List<Task>> tasks, List<TaskMatch> occurrences) {
+        if (occurrences.isEmpty()) {
+            return tasks;
+        }
+        Map<String, List<Task>> merged = new LinkedHashMap<>();
+        tasks.forEach((project, projectTasks) -> merged.put(project, new ArrayList<>(projectTasks)));
+        RecurringTasks.byProject(occurrences).forEach((project, projectOccurrences) ->
+                merged.computeIfAbsent(project, p -> new ArrayList<>()).addAll(projectOccurrences));
+        return merged;
+    }
+
+    /**
+     * @return open tasks whose deadline has passed, grouped by project, with the last occurrence of each recurring
+     * task if it was missed
+     */
+    public Map<String, List<Task>> overdueTasks() {
+        TaskServiceEvent event = TaskServiceEvent.start("overdueTasks");
+        LocalDate today = today();
+        Map<String, List<Task>> result = selectDeadlines(null, today.minusDays(1), DeadlineScan.DoneFilter.OPEN);
+        if (!recurring.isEmpty()) {
+            result = withOccurrences(result, recurring.previous(today));
+        }
+        if (event.shouldCommit()) {
+            event.resultCount = countTasks(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    /**
+     * Counts tasks with a deadline in the range without materializing them. Open occurrences of recurring tasks
+     * are counted as well when the range has an upper bound; without one there would be no end to them.
+     *
+     * @param from inclusive, or null for no lower bound
+     * @param to inclusive, or null for no upper bound
+     * @param done only done (true) or open (false) tasks, or null for both
+     */
+    public int countDeadlines(LocalDate from, LocalDate to, Boolean done) {
+        DeadlineScan.DoneFilter filter = done == null ? DeadlineScan.DoneFilter.ANY
+                : done ? DeadlineScan.DoneFilter.DONE : DeadlineScan.DoneFilter.OPEN;
+        long count = columns != null ? columns.count(from, to, filter) : repository.countTasksByDeadline(from, to, done);
+        if (to != null && !Boolean.TRUE.equals(done) && !recurring.isEmpty()) {
+            count += recurring.count(from, to);
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The open tasks to work on next: nearest deadline first, then lowest id, tasks without a deadline last. A
+     * recurring task takes part with its missed last occurrence, as in {@link #overdueTasks()}, and its next one;
+     * on the same day stored tasks come first.
+     *
+     * @param project only tasks of this project, or null for all projects
+     */
+    public List<TaskMatch> nextTasks(int count, String project) {
+        TaskServiceEvent event = TaskServiceEvent.start("nextTasks");
+        List<TaskMatch> tasks = nextTasks != null ? nextTasks.first(count, project) : firstOpenTasks(count, project);
+        if (!recurring.isEmpty()) {
+            tasks = withNextOccurrences(tasks, count, project);
+        }
+        commit(event, project, 0, tasks.size());
+        return tasks;
+    }
 
-            if (!dueToday.isEmpty()) {
-                result.put(project.getKey(), new ArrayList<>(dueToday));
+    // without the NextTaskIndex: one pass over the stored tasks, keeping only the first count of them
+    private List<TaskMatch> firstOpenTasks(int count, String project) {
+        PriorityQueue<TaskMatch> first = new PriorityQueue<>(NEXT_ORDER.reversed());
+        TaskChangeListener collector = new TaskChangeListener() {
+            @Override
+            public void taskAdded(String projectName, Task task) {
+                if (task.isDone() || count <= 0) return;
+                first.add(new TaskMatch(projectName, task));
+                if (first.size() > count) {
+                    first.poll();
+                }
             }
+        };
+        if (project == null) {
+            repository.forEachTask(collector);
+        } else {
+            repository.findProjectTasks(project)
+                    .ifPresent(tasks -> tasks.forEach(task -> collector.taskAdded(project, task)));
         }
+        List<TaskMatch> result = new ArrayList<>(first);
+        result.sort(NEXT_ORDER);
         return result;
     }
 
+    private List<TaskMatch> withNextOccurrences(List<TaskMatch> tasks, int count, String project) {
+        LocalDate today = today();
+        List<TaskMatch> merged = new ArrayList<>(tasks);
+        for (List<TaskMatch> occurrences : List.of(recurring.previous(today), recurring.next(today))) {
+            for (TaskMatch occurrence : occurrences) {
+                if (project == null || project.equals(occurrence.project())) {
+                    merged.add(occurrence);
+                }
+            }
+        }
+        merged.sort(NEXT_ORDER);
+        return merged.size() > count ? List.copyOf(merged.subList(0, count)) : merged;
+    }
+
+    /**
+     * Project names and description words starting with the prefix, ignoring case.
+     *
+     * @param limit per kind, at most {@value CompletionTrie#TOP}
+     */
+    public Completions complete(String prefix, int limit) {
+        TaskServiceEvent event = TaskServiceEvent.start("complete");
+        Completions completions = this.completions.complete(prefix, Math.min(limit, CompletionTrie.TOP));
+        commit(event, null, 0, completions.projects().size() + completions.words().size());
+        return completions;
+    }
+
+    /**
+     * Stores a recurring task once; its occurrences show up in {@link #tasksDueToday()}, in
+     * {@link #viewByDeadlineGroups()} (the next one only) and in {@link #occurrences} without being stored.
+     *
+     * @return empty if the project does not exist
+     */
+    public synchronized Optional<RecurringTask> addRecurringTask(String projectName, String description,
+                                                                 Recurrence recurrence) {
+        TaskServiceEvent event = TaskServiceEvent.start("addRecurringTask");
+        if (repository.findProjectTasks(projectName).isEmpty()) {
+            commit(event, projectName, 0, 0);
+            return Optional.empty();
+        }
+        RecurringTask definition = new RecurringTask(nextId(), projectName, description, recurrence);
+        repository.addRecurringTask(definition);
+        recurring.add(definition);
+        version.incrementAndGet();
+        commit(event, projectName, definition.id(), 1);
+        return Optional.of(definition);
+    }
+
+    public List<RecurringTask> recurringTasks() {
+        return recurring.all();
+    }
+
+    public Optional<RecurringTask> findRecurringTask(long id) {
+        return recurring.find(id);
+    }
+
+    /**
+     * @param from inclusive
+     * @param to inclusive
+     * @return the open occurrences of recurring tasks in the window, by day
+     */
+    public List<TaskMatch> occurrences(LocalDate from, LocalDate to) {
+        TaskServiceEvent event = TaskServiceEvent.start("occurrences");
+        List<TaskMatch> occurrences = recurring.between(from, to);
+        commit(event, null, 0, occurrences.size());
+        return occurrences;
+    }
+
+    /**
+     * Checks off one occurrence of a recurring task: it becomes a stored task that is done, with the day as its
+     * deadline, and is no longer generated.
+     *
+     * @return the stored task, or empty if there is no such recurring task, it does not fall due on the day or
+     * that occurrence was stored before
+     */
+    public synchronized Optional<Task> checkOccurrence(long recurringId, LocalDate day) {
+        TaskServiceEvent event = TaskServiceEvent.start("checkOccurrence");
+        Optional<RecurringTask> definition = recurring.find(recurringId)
+                .filter(d -> d.recurrence().occursOn(day));
+        if (definition.isEmpty() || !recurring.materialize(recurringId, day)) {
+            commit(event, null, recurringId, 0);
+            return Optional.empty();
+        }
+        String projectName = definition.get().project();
+        Task task = new Task(nextId(), definition.get().description(), true);
+        task.setDeadline(day);
+        repository.addTask(projectName, task);
+        repository.addMaterializedOccurrence(recurringId, day);
+        listeners.forEach(l -> l.taskAdded(projectName, task));
+        commit(event, projectName, task.getId(), 1);
+        return Optional.of(task);
+    }
+
+    public Optional<TaskMatch> findTask(long taskId) {
+        return index.find(taskId);
+    }
+
+    /**
+     * Removes the given tasks from the project, e.g. after they were moved to an archive.
+     *
+     * @return the number of tasks removed
+     */
+    public synchronized int removeTasks(String projectName, List<Task> tasks) {
+        TaskServiceEvent event = TaskServiceEvent.start("removeTasks");
+        Set<Long> ids = new HashSet<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        int removed = repository.removeTasks(projectName, ids);
+        for (Task task : tasks) {
+            listeners.forEach(l -> l.taskRemoved(projectName, task));
+        }
+        commit(event, projectName, 0, removed);
+        return removed;
+    }
+
+    /**
+     * Selects and removes the matching tasks as one change, so no task can be updated between being picked and
+     * being removed. {@code beforeRemoval} sees the selected tasks first, e.g. to write them to an archive; if it
+     * throws, nothing is removed.
+     *
+     * @return the tasks removed
+     */
+    public synchronized List<TaskMatch> removeTasksIf(java.util.function.Predicate<TaskMatch> predicate,
+                                                      java.util.function.Consumer<List<TaskMatch>> beforeRemoval) {
+        List<TaskMatch> selected = new ArrayList<>();
+        repository.forEachTask(new TaskChangeListener() {
+            @Override
+            public void taskAdded(String projectName, Task task) {
+                TaskMatch match = new TaskMatch(projectName, task);
+                if (predicate.test(match)) {
+                    selected.add(match);
+                }
+            }
+        });
+        if (selected.isEmpty()) return selected;
+
+        beforeRemoval.accept(selected);
+        Map<String, List<Task>> byProject = new LinkedHashMap<>();
+        for (TaskMatch match : selected) {
+            byProject.computeIfAbsent(match.project(), p -> new ArrayList<>()).add(match.task());
+        }
+        byProject.forEach(this::removeTasks);
+        return selected;
+    }
+
+    /**
+     * Recurring occurrences are included when the query has a deadline window with both bounds.
+     */
+    public List<TaskMatch> query(TaskQuery query) {
+        TaskServiceEvent event = TaskServiceEvent.start("query");
+        LocalDate today = today();
+        List<TaskMatch> matches = planner.execute(planner.plan(query, today), query, today);
+        if (query.deadlineFrom() != null && query.deadlineTo() != null && !recurring.isEmpty()) {
+            matches = TaskQueryPlanner.merge(matches, recurring.between(query.deadlineFrom(), query.deadlineTo()),
+                    query, today);
+        }
+        commit(event, query.project(), query.taskId() == null ? 0 : query.taskId(), matches.size());
+        return matches;
+    }
+
+    public QueryPlan explain(TaskQuery query) {
+        return planner.plan(query, today());
+    }
+
+    private void changeDone(Task task, boolean done) {
+        task.setDone(done);
+        repository.updateTask(task);
+        listeners.forEach(l -> l.doneChanged(task));
+    }
+
+    private void changeDeadline(Task task, LocalDate deadline) {
+        LocalDate previous = task.getDeadline().orElse(null);
+        task.setDeadline(deadline);
+        repository.updateTask(task);
+        listeners.forEach(l -> l.deadlineChanged(task, previous));
+    }
+
     private boolean updateTask(Optional<Task> taskOpt, java.util.function.Consumer<Task> updater) {
         if (taskOpt.isEmpty()) return false;
         updater.accept(taskOpt.get());
@@ -129,10 +616,54 @@ public final class TaskListService {
     }
 
     private long nextId() {
-        return ++lastId;
+        return lastId.incrementAndGet();
     }
 
     private LocalDate today() {
         return LocalDate.now(clock);
     }
+
+    static int countTasks(Map<String, List<Task>> projects) {
+        int count = 0;
+        for (List<Task> tasks : projects.values()) {
+            count += tasks.size();
+        }
+        return count;
+    }
+
+    private static void commit(TaskServiceEvent event, String project, long taskId, int resultCount) {
+        if (event.shouldCommit()) {
+            event.project = project;
+            event.taskId = taskId;
+            event.resultCount = resultCount;
+            event.commit();
+        }
+    }
+
+    private record VersionCounter(AtomicLong version) implements TaskChangeListener {
+        @Override
+        public void projectAdded(String projectName) {
+            version.incrementAndGet();
+        }
+
+        @Override
+        public void taskAdded(String projectName, Task task) {
+            version.incrementAndGet();
+        }
+
+        @Override
+        public void doneChanged(Task task) {
+            version.incrementAndGet();
+        }
+
+        @Override
+        public void deadlineChanged(Task task, LocalDate previous) {
+            version.incrementAndGet();
+        }
+
+        @Override
+        public void taskRemoved(String projectName, Task task) {
+            version.incrementAndGet();
+        }
+    }
 }
@@ -0,0 +1,5 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+public record TaskMatch(String project, Task task) {}
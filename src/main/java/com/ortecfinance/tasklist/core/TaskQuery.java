@@ -0,0 +1,38 @@
+package com.ortecfinance.tasklist.core;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for {@link TaskListService#query(TaskQuery)}. Every null filter matches all tasks; a null or
+ * non-positive limit returns every match.
+ *
+ * @param deadlineFrom inclusive lower bound on the deadline, tasks without a deadline never match a range
+ * @param deadlineTo inclusive upper bound on the deadline
+ * @param overdue open tasks whose deadline is before today
+ * @param text case-insensitive substring of the description
+ */
+public record TaskQuery(
+        Long taskId,
+        String project,
+        Boolean done,
+        LocalDate deadlineFrom,
+        LocalDate deadlineTo,
+        Boolean overdue,
+        String text,
+        Sort sort,
+        Integer limit
+) {
+    public enum Sort { ID, DEADLINE, PROJECT }
+
+    public static TaskQuery all() {
+        return new TaskQuery(null, null, null, null, null, null, null, null, null);
+    }
+
+    public Sort sortOrDefault() {
+        return sort == null ? Sort.ID : sort;
+    }
+
+    public boolean hasLimit() {
+        return limit != null && limit > 0;
+    }
+}
@@ -0,0 +1,215 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.QueryPlan.AccessPath;
+import com.ortecfinance.tasklist.core.QueryPlan.Candidate;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Picks the access path with the fewest estimated rows for a {@link TaskQuery}: the id index, the deadline
+ * index, the repository's per-project lists or a full scan. Every candidate row is then checked against all
+ * filters, sorted and limited. When the access path already yields rows in the requested order, the scan
+ * stops as soon as the limit is reached.
+ */
+final class TaskQueryPlanner {
+    private final TaskRepository repository;
+    private final TaskIndex index;
+
+    TaskQueryPlanner(TaskRepository repository, TaskIndex index) {
+        this.repository = repository;
+        this.index = index;
+    }
+
+    QueryPlan plan(TaskQuery query, LocalDate today) {
+        DeadlineRange range = DeadlineRange.of(query, today);
+        List<Candidate> candidates = new ArrayList<>();
+
+        if (query.taskId() != null) {
+            candidates.add(new Candidate(AccessPath.ID_LOOKUP, index.find(query.taskId()).isPresent() ? 1 : 0));
+        }
+        if (range != null) {
+            candidates.add(new Candidate(AccessPath.DEADLINE_RANGE, index.countDeadlines(range.from, range.to)));
+        }
+        if (query.project() != null) {
+            candidates.add(new Candidate(AccessPath.PROJECT_SCAN,
+                    repository.findProjectTasks(query.project()).map(List::size).orElse(0)));
+        }
+        candidates.add(new Candidate(AccessPath.FULL_SCAN, index.size()));
+
+        // ties go to the path declared first, which is also the cheaper one to execute
+        Candidate best = candidates.stream()
+                .min(Comparator.comparingLong(Candidate::estimatedRows)
+                        .thenComparing(c -> c.accessPath().ordinal()))
+                .orElseThrow();
+
+        return new QueryPlan(
+                best.accessPath(),
+                indexCondition(best.accessPath(), query, range),
+                best.estimatedRows(),
+                List.copyOf(candidates),
+                residualFilters(best.accessPath(), query, range),
+                query.sortOrDefault(),
+                query.hasLimit() ? query.limit() : null
+        );
+    }
+
+    List<TaskMatch> execute(QueryPlan plan, TaskQuery query, LocalDate today) {
+        DeadlineRange range = DeadlineRange.of(query, today);
+        boolean presorted = isPresorted(plan.accessPath(), plan.sort());
+        int limit = plan.limit() == null ? Integer.MAX_VALUE : plan.limit();
+        List<TaskMatch> matches = new ArrayList<>();
+
+        // collects matching rows and reports whether the scan should go on
+        Predicate<TaskMatch> collector = match -> {
+            if (matches(match, query, today)) {
+                matches.add(match);
+            }
+            return !presorted || matches.size() < limit;
+        };
+
+        switch (plan.accessPath()) {
+            case ID_LOOKUP -> index.find(query.taskId()).ifPresent(collector::test);
+            case DEADLINE_RANGE -> index.scanDeadlines(range.from, range.to, collector);
+            case PROJECT_SCAN -> repository.findProjectTasks(query.project()).ifPresent(tasks -> {
+                for (Task task : tasks) {
+                    if (!collector.test(new TaskMatch(query.project(), task))) break;
+                }
+            });
+            case FULL_SCAN -> {
+                scan:
+                for (Map.Entry<String, List<Task>> project : repository.allProjects().entrySet()) {
+                    for (Task task : project.getValue()) {
+                        if (!collector.test(new TaskMatch(project.getKey(), task))) break scan;
+                    }
+                }
+            }
+        }
+
+        if (!presorted) {
+            matches.sort(comparator(plan.sort()));
+        }
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Adds rows that do not come from the repository, such as generated occurrences of recurring tasks, to the
+     * result of {@link #execute}, keeping the query's filters, order and limit.
+     */
+    static List<TaskMatch> merge(List<TaskMatch> matches, List<TaskMatch> extra, TaskQuery query, LocalDate today) {
+        List<TaskMatch> merged = new ArrayList<>(matches);
+        for (TaskMatch match : extra) {
+            if (matches(match, query, today)) {
+                merged.add(match);
+            }
+        }
+        if (merged.size() == matches.size()) {
+            return matches;
+        }
+        merged.sort(comparator(query.sortOrDefault()));
+        return query.hasLimit() && merged.size() > query.limit() ? new ArrayList<>(merged.subList(0, query.limit())) : merged;
+    }
+
+    private static boolean isPresorted(AccessPath path, TaskQuery.Sort sort) {
+        return switch (path) {
+            case ID_LOOKUP -> true;
+            case DEADLINE_RANGE -> sort == TaskQuery.Sort.DEADLINE;
+            // a project's tasks are kept in creation order, which is id order
+            case PROJECT_SCAN -> sort == TaskQuery.Sort.ID || sort == TaskQuery.Sort.PROJECT;
+            case FULL_SCAN -> false;
+        };
+    }
+
+    private static boolean matches(TaskMatch match, TaskQuery query, LocalDate today) {
+        Task task = match.task();
+        LocalDate deadline = task.getDeadline().orElse(null);
+
+        if (query.taskId() != null && task.getId() != query.taskId()) return false;
+        if (query.project() != null && !query.project().equals(match.project())) return false;
+        if (query.done() != null && task.isDone() != query.done()) return false;
+        if (query.deadlineFrom() != null && (deadline == null || deadline.isBefore(query.deadlineFrom()))) return false;
+        if (query.deadlineTo() != null && (deadline == null || deadline.isAfter(query.deadlineTo()))) return false;
+        if (query.overdue() != null && isOverdue(task, deadline, today) != query.overdue()) return false;
+        return query.text() == null || containsIgnoreCase(task.getDescription(), query.text());
+    }
+
+    private static boolean isOverdue(Task task, LocalDate deadline, LocalDate today) {
+        return !task.isDone() && deadline != null && deadline.isBefore(today);
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        int last = text.length() - part.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Comparator<TaskMatch> comparator(TaskQuery.Sort sort) {
+        Comparator<TaskMatch> byId = Comparator.comparingLong(m -> m.task().getId());
+        return switch (sort) {
+            case ID -> byId;
+            case DEADLINE -> Comparator.<TaskMatch, LocalDate>comparing(m -> m.task().getDeadline().orElse(null),
+                    Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(byId);
+            case PROJECT -> Comparator.comparing(TaskMatch::project).thenComparing(byId);
+        };
+    }
+
+    private static String indexCondition(AccessPath path, TaskQuery query, DeadlineRange range) {
+        return switch (path) {
+            case ID_LOOKUP -> "id = " + query.taskId();
+            case DEADLINE_RANGE -> range.toString();
+            case PROJECT_SCAN -> "project = '" + query.project() + "'";
+            case FULL_SCAN -> null;
+        };
+    }
+
+    private static List<String> residualFilters(AccessPath path, TaskQuery query, DeadlineRange range) {
+        List<String> filters = new ArrayList<>();
+        if (query.taskId() != null && path != AccessPath.ID_LOOKUP) {
+            filters.add("id = " + query.taskId());
+        }
+        if (query.project() != null && path != AccessPath.PROJECT_SCAN) {
+            filters.add("project = '" + query.project() + "'");
+        }
+        if (range != null && path != AccessPath.DEADLINE_RANGE) {
+            filters.add(range.toString());
+        }
+        if (query.done() != null) {
+            filters.add("done = " + query.done());
+        }
+        if (query.overdue() != null) {
+            filters.add(query.overdue() ? "overdue" : "not overdue");
+        }
+        if (query.text() != null) {
+            filters.add("description contains '" + query.text() + "'");
+        }
+        return filters;
+    }
+
+    /**
+     * Deadline bounds implied by the explicit range and by {@code overdue=true}, which caps it at yesterday.
+     */
+    private record DeadlineRange(LocalDate from, LocalDate to) {
+        static DeadlineRange of(TaskQuery query, LocalDate today) {
+            LocalDate to = query.deadlineTo();
+            if (Boolean.TRUE.equals(query.overdue())) {
+                LocalDate yesterday = today.minusDays(1);
+                to = to == null || to.isAfter(yesterday) ? yesterday : to;
+            }
+            if (query.deadlineFrom() == null && to == null) {
+                return null;
+            }
+            return new DeadlineRange(query.deadlineFrom(), to);
+        }
+
+        @Override
+        public String toString() {
+            return "deadline in [" + (from == null ? "" : from) + ".." + (to == null ? "" : to) + "]";
+        }
+    }
+}
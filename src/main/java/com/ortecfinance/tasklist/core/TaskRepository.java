@@ -2,18 +2,136 @@ package com.ortecfinance.tasklist.core;
 
 import com.ortecfinance.tasklist.domain.Task;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface TaskRepository {
     void addProject(String name);
 
     void addTask(String projectName, Task task);
 
+    /**
+     * Adds several tasks to one project; stores that pay per round trip should write them in one batch.
+     */
+    default void addTasks(String projectName, List<Task> tasks) {
+        for (Task task : tasks) {
+            addTask(projectName, task);
+        }
+    }
+
+    /**
+     * Persists the done flag and deadline of a task that was changed after it was read from this repository.
+     */
+    void updateTask(Task task);
+
     Optional<List<Task>> findProjectTasks(String projectName);
 
     Optional<Task> findTaskById(long id);
 
+    /**
+     * @return the task with the id together with the name of its project
+     */
+    default Optional<TaskMatch> findTaskMatch(long id) {
+        for (Map.Entry<String, List<Task>> project : allProjects().entrySet()) {
+            for (Task task : project.getValue()) {
+                if (task.getId() == id) {
+                    return Optional.of(new TaskMatch(project.getKey(), task));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     Map<String, List<Task>> allProjects();
+
+    /**
+     * @param from inclusive, or null for no lower bound
+     * @param to inclusive, or null for no upper bound
+     * @return tasks with a deadline in the range, in project order and then task order
+     */
+    default List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        List<TaskMatch> matches = new ArrayList<>();
+        for (Map.Entry<String, List<Task>> project : allProjects().entrySet()) {
+            for (Task task : project.getValue()) {
+                LocalDate deadline = task.getDeadline().orElse(null);
+                if (deadline != null && (from == null || !deadline.isBefore(from)) && (to == null || !deadline.isAfter(to))) {
+                    matches.add(new TaskMatch(project.getKey(), task));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Counts what {@link #findTasksByDeadline} returns; stores that can should do so without reading the tasks.
+     *
+     * @param done only done (true) or open (false) tasks, or null for both
+     */
+    default int countTasksByDeadline(LocalDate from, LocalDate to, Boolean done) {
+        int count = 0;
+        for (TaskMatch match : findTasksByDeadline(from, to)) {
+            if (done == null || match.task().isDone() == done) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of tasks that were found in the project and removed
+     */
+    int removeTasks(String projectName, Set<Long> taskIds);
+
+    /**
+     * Reports every project and then each of its tasks to the visitor as added, in the order of
+     * {@link #allProjects()}. Stores that keep tasks off heap read them one at a time instead of all at once.
+     */
+    default void forEachTask(TaskChangeListener visitor) {
+        for (Map.Entry<String, List<Task>> project : allProjects().entrySet()) {
+            visitor.projectAdded(project.getKey());
+            for (Task task : project.getValue()) {
+                visitor.taskAdded(project.getKey(), task);
+            }
+        }
+    }
+
+    /**
+     * @return true if the store keeps tasks off heap, so the service keeps no index of them on heap either and
+     * answers lookups by id, deadline and next task from the store; {@link #findTaskMatch},
+     * {@link #findTasksByDeadline} and {@link #countTasksByDeadline} must then be cheap
+     */
+    default boolean keepsTasksOffHeap() {
+        return false;
+    }
+
+    /**
+     * Stores a recurring task definition. The service keeps the definitions in memory, so stores that do not
+     * outlive the process need not implement this and the other recurring task methods.
+     */
+    default void addRecurringTask(RecurringTask definition) {
+    }
+
+    /**
+     * Records that an occurrence was checked off and became a stored task, so it is not generated again.
+     */
+    default void addMaterializedOccurrence(long recurringId, LocalDate day) {
+    }
+
+    /**
+     * @return the stored definitions, in the order they were added
+     */
+    default List<RecurringTask> allRecurringTasks() {
+        return List.of();
+    }
+
+    /**
+     * @return the checked-off days per recurring task id
+     */
+    default Map<Long, Set<LocalDate>> materializedOccurrences() {
+        return Map.of();
+    }
 }
@@ -0,0 +1,33 @@
+package com.ortecfinance.tasklist.core;
+
+import jdk.jfr.*;
+
+@Name("tasklist.RepositoryOperation")
+@Label("Task Repository Operation")
+@Category({"TaskList", "Repository"})
+@Description("A TaskRepository call")
+@Threshold("1 ms")
+@StackTrace(false)
+final class TaskRepositoryEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Project")
+    String project;
+
+    @Label("Task Id")
+    long taskId;
+
+    @Label("Result Count")
+    @Description("Tasks returned or affected by the call")
+    int resultCount;
+
+    static TaskRepositoryEvent start(String operation) {
+        TaskRepositoryEvent event = new TaskRepositoryEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ortecfinance.tasklist.core;
+
+import jdk.jfr.*;
+
+@Name("tasklist.ServiceCall")
+@Label("Task Service Call")
+@Category({"TaskList", "Service"})
+@Description("A TaskListService method invocation")
+@Threshold("10 ms")
+@StackTrace(false)
+final class TaskServiceEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Project")
+    String project;
+
+    @Label("Task Id")
+    long taskId;
+
+    @Label("Result Count")
+    @Description("Tasks returned or affected by the call")
+    int resultCount;
+
+    static TaskServiceEvent start(String operation) {
+        TaskServiceEvent event = new TaskServiceEvent();
+        if (event.isEnabled()) {
+            event.operation = operation;
+            event.begin();
+        }
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ortecfinance.tasklist.core;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Compares a whole vector of deadlines against both bounds at once and turns the result into a bit mask that
+ * lines up with the done bits: the lane count is a power of two no larger than 64 and every vector starts at
+ * a multiple of it, so a vector never straddles two words of the done mask. Only loaded through
+ * {@link DeadlineScan#best()}.
+ */
+final class VectorDeadlineScan implements DeadlineScan {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int select(int[] days, long[] done, int size, int from, int to, DoneFilter filter, int[] out) {
+        int lower = Math.max(from, NO_DEADLINE + 1);
+        if (lower > to) return 0;
+        IntVector lo = IntVector.broadcast(SPECIES, lower);
+        IntVector hi = IntVector.broadcast(SPECIES, to);
+        int bound = SPECIES.loopBound(size);
+        int n = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            long bits = matches(days, i, lo, hi);
+            if (bits == 0) continue;
+            bits &= DeadlineScan.doneMask(done, i, filter);
+            while (bits != 0) {
+                out[n++] = i + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return ScalarDeadlineScan.select(days, done, i, size, from, to, filter, out, n);
+    }
+
+    @Override
+    public int count(int[] days, long[] done, int size, int from, int to, DoneFilter filter) {
+        int lower = Math.max(from, NO_DEADLINE + 1);
+        if (lower > to) return 0;
+        IntVector lo = IntVector.broadcast(SPECIES, lower);
+        IntVector hi = IntVector.broadcast(SPECIES, to);
+        int bound = SPECIES.loopBound(size);
+        int n = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            long bits = matches(days, i, lo, hi);
+            if (bits != 0) {
+                n += Long.bitCount(bits & DeadlineScan.doneMask(done, i, filter));
+            }
+        }
+        return n + ScalarDeadlineScan.count(days, done, i, size, from, to, filter);
+    }
+
+    private static long matches(int[] days, int offset, IntVector lo, IntVector hi) {
+        IntVector v = IntVector.fromArray(SPECIES, days, offset);
+        return v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LE, hi)).toLong();
+    }
+}
@@ -0,0 +1,28 @@
+package com.ortecfinance.tasklist.domain;
+
+import java.time.LocalDate;
+
+/**
+ * An open occurrence of a recurring task on one day. Occurrences are generated, never stored, so they have no
+ * task id of their own: {@link #getId()} is {@link #NO_ID}, and an occurrence is identified by its recurring task
+ * and its day, which is also its deadline.
+ */
+public final class Occurrence extends Task {
+    public static final long NO_ID = 0;
+
+    private final long recurringId;
+
+    public Occurrence(long recurringId, String description, LocalDate day) {
+        super(NO_ID, description, false);
+        this.recurringId = recurringId;
+        setDeadline(day);
+    }
+
+    public long getRecurringId() {
+        return recurringId;
+    }
+
+    public LocalDate getDay() {
+        return getDeadline().orElseThrow();
+    }
+}
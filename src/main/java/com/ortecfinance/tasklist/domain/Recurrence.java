@@ -0,0 +1,146 @@
+package com.ortecfinance.tasklist.domain;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * When a recurring task falls due: every {@code everyDays} days counting from {@code start}, or, with
+ * {@code everyDays} 0, every week on the given weekdays from {@code start} on. Occurrences are computed, never
+ * enumerated up front, so a rule costs the same however far ahead it is asked about.
+ */
+public record Recurrence(LocalDate start, int everyDays, Set<DayOfWeek> weekdays) {
+
+    public Recurrence {
+        if (everyDays < 0 || (everyDays == 0) == weekdays.isEmpty()) {
+            throw new IllegalArgumentException("Either a number of days or weekdays is needed");
+        }
+        weekdays = Set.copyOf(weekdays);
+    }
+
+    public static Recurrence everyDays(int days, LocalDate start) {
+        if (days < 1) {
+            throw new IllegalArgumentException("The number of days must be positive");
+        }
+        return new Recurrence(start, days, Set.of());
+    }
+
+    public static Recurrence weekly(Set<DayOfWeek> weekdays, LocalDate start) {
+        return new Recurrence(start, 0, weekdays);
+    }
+
+    /**
+     * Parses {@code "every day"}, {@code "every <n> days"} or {@code "weekly <day>,<day>..."} with days
+     * abbreviated to three letters, e.g. {@code "weekly mon,thu"}.
+     *
+     * @throws IllegalArgumentException if the rule is not in one of these forms
+     */
+    public static Recurrence parse(String rule, LocalDate start) {
+        String[] words = rule.trim().toLowerCase(Locale.ROOT).split(" +");
+        if (words.length == 2 && words[0].equals("every") && words[1].equals("day")) {
+            return everyDays(1, start);
+        }
+        if (words.length == 3 && words[0].equals("every") && words[2].equals("days")) {
+            try {
+                return everyDays(Integer.parseInt(words[1]), start);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number of days: " + words[1]);
+            }
+        }
+        if (words.length == 2 && words[0].equals("weekly")) {
+            Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+            for (String day : words[1].split(",")) {
+                weekdays.add(weekday(day));
+            }
+            return weekly(weekdays, start);
+        }
+        throw new IllegalArgumentException("Unknown recurrence: " + rule);
+    }
+
+    /**
+     * @return the rule in the form {@link #parse} reads
+     */
+    public String rule() {
+        if (everyDays == 1) return "every day";
+        if (everyDays > 1) return "every " + everyDays + " days";
+        return weekdays.stream().sorted()
+                .map(day -> day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(",", "weekly ", ""));
+    }
+
+    public boolean occursOn(LocalDate day) {
+        return firstOnOrAfter(day).equals(day);
+    }
+
+    /**
+     * @return the first occurrence on or after the day
+     */
+    public LocalDate firstOnOrAfter(LocalDate day) {
+        LocalDate from = day.isBefore(start) ? start : day;
+        if (everyDays > 0) {
+            long behind = ChronoUnit.DAYS.between(start, from) % everyDays;
+            return behind == 0 ? from : from.plusDays(everyDays - behind);
+        }
+        LocalDate candidate = from;
+        while (!weekdays.contains(candidate.getDayOfWeek())) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate;
+    }
+
+    /**
+     * @return the last occurrence on or before the day, or empty if the rule starts after it
+     */
+    public Optional<LocalDate> lastOnOrBefore(LocalDate day) {
+        if (day.isBefore(start)) {
+            return Optional.empty();
+        }
+        if (everyDays > 0) {
+            return Optional.of(day.minusDays(ChronoUnit.DAYS.between(start, day) % everyDays));
+        }
+        LocalDate candidate = day;
+        while (!weekdays.contains(candidate.getDayOfWeek())) {
+            candidate = candidate.minusDays(1);
+        }
+        return candidate.isBefore(start) ? Optional.empty() : Optional.of(candidate);
+    }
+
+    /**
+     * Counts the occurrences in the window arithmetically, however long it is.
+     *
+     * @param from inclusive
+     * @param to inclusive
+     */
+    public long count(LocalDate from, LocalDate to) {
+        LocalDate first = firstOnOrAfter(from);
+        if (first.isAfter(to)) {
+            return 0;
+        }
+        if (everyDays > 0) {
+            return ChronoUnit.DAYS.between(first, to) / everyDays + 1;
+        }
+        long days = ChronoUnit.DAYS.between(first, to) + 1;
+        long count = days / 7 * weekdays.size();
+        for (int i = 0; i < days % 7; i++) {
+            if (weekdays.contains(first.getDayOfWeek().plus(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static DayOfWeek weekday(String abbreviation) {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.getDisplayName(TextStyle.SHORT, Locale.ENGLISH).equalsIgnoreCase(abbreviation)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Unknown weekday: " + abbreviation);
+    }
+}
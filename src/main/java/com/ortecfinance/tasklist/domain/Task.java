@@ -3,11 +3,14 @@ package com.ortecfinance.tasklist.domain;
 import java.time.LocalDate;
 import java.util.Optional;
 
-public final class Task {
+/**
+ * A stored task, or an {@link Occurrence} of a recurring task generated for a view.
+ */
+public sealed class Task permits Occurrence {
     private final long id;
     private final String description;
-    private boolean done;
-    private LocalDate deadline;
+    private volatile boolean done;
+    private volatile LocalDate deadline;
 
     public Task(long id, String description, boolean done) {
         this.id = id;
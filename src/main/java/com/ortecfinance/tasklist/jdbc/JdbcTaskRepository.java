@@ -0,0 +1,376 @@
+package com.ortecfinance.tasklist.jdbc;
+
+import com.ortecfinance.tasklist.core.RecurringTask;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.core.TaskRepository;
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Stores projects and tasks in two tables through plain JDBC, and recurring tasks and their checked-off days in
+ * two more. Every lookup the service does per request is answered by an index: tasks by primary key, by
+ * {@code (project_id, id)} and by {@code (deadline, id)}. {@link #allProjects()} is one streamed join rather
+ * than a query per project, and bulk inserts and removals are sent as JDBC batches in a single transaction.
+ *
+ * <p>Tasks are read into new instances on every call, so changes must be written back with
+ * {@link #updateTask(Task)}.
+ */
+public final class JdbcTaskRepository implements TaskRepository {
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+            """
+            CREATE TABLE IF NOT EXISTS project (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                name VARCHAR(1000) NOT NULL UNIQUE
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS task (
+                id BIGINT PRIMARY KEY,
+                project_id BIGINT NOT NULL REFERENCES project (id),
+                description VARCHAR(10000) NOT NULL,
+                done BOOLEAN NOT NULL,
+                deadline DATE
+            )""",
+            "CREATE INDEX IF NOT EXISTS task_project ON task (project_id, id)",
+            "CREATE INDEX IF NOT EXISTS task_deadline ON task (deadline, id)",
+            """
+            CREATE TABLE IF NOT EXISTS recurring_task (
+                id BIGINT PRIMARY KEY,
+                project_id BIGINT NOT NULL REFERENCES project (id),
+                description VARCHAR(10000) NOT NULL,
+                recurrence VARCHAR(100) NOT NULL,
+                starts_on DATE NOT NULL
+            )""",
+            """
+            CREATE TABLE IF NOT EXISTS recurring_occurrence (
+                recurring_id BIGINT NOT NULL REFERENCES recurring_task (id),
+                occurs_on DATE NOT NULL,
+                PRIMARY KEY (recurring_id, occurs_on)
+            )"""
+    };
+
+    private static final String TASK_COLUMNS = "t.id, t.description, t.done, t.deadline";
+    private static final String INSERT_PROJECT =
+            "INSERT INTO project (name) SELECT ? WHERE NOT EXISTS (SELECT 1 FROM project WHERE name = ?)";
+    private static final String INSERT_TASK =
+            "INSERT INTO task (id, project_id, description, done, deadline) SELECT ?, id, ?, ?, ? FROM project WHERE name = ?";
+    private static final String UPDATE_TASK = "UPDATE task SET done = ?, deadline = ? WHERE id = ?";
+    private static final String SELECT_PROJECT_TASKS = "SELECT p.id AS project_id, " + TASK_COLUMNS
+            + " FROM project p LEFT JOIN task t ON t.project_id = p.id WHERE p.name = ? ORDER BY t.id";
+    private static final String SELECT_TASK = "SELECT " + TASK_COLUMNS + " FROM task t WHERE t.id = ?";
+    private static final String SELECT_ALL = "SELECT p.name, " + TASK_COLUMNS
+            + " FROM project p LEFT JOIN task t ON t.project_id = p.id ORDER BY p.id, t.id";
+    private static final String SELECT_BY_DEADLINE = "SELECT p.name, " + TASK_COLUMNS
+            + " FROM task t JOIN project p ON p.id = t.project_id"
+            + " WHERE t.deadline IS NOT NULL AND t.deadline >= ? AND t.deadline <= ? ORDER BY p.id, t.id";
+    private static final String INSERT_RECURRING = "INSERT INTO recurring_task"
+            + " (id, project_id, description, recurrence, starts_on) SELECT ?, id, ?, ?, ? FROM project WHERE name = ?";
+    private static final String INSERT_OCCURRENCE = "INSERT INTO recurring_occurrence (recurring_id, occurs_on) VALUES (?, ?)";
+    private static final String SELECT_RECURRING = "SELECT r.id, p.name, r.description, r.recurrence, r.starts_on"
+            + " FROM recurring_task r JOIN project p ON p.id = r.project_id ORDER BY r.id";
+    private static final String SELECT_OCCURRENCES = "SELECT recurring_id, occurs_on FROM recurring_occurrence";
+    private static final String DELETE_TASK =
+            "DELETE FROM task WHERE id = ? AND project_id = (SELECT id FROM project WHERE name = ?)";
+
+    // bounds for open-ended deadline ranges, well within the range of SQL DATE
+    private static final LocalDate MIN_DEADLINE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DEADLINE = LocalDate.of(9999, 12, 31);
+
+    private final DataSource dataSource;
+
+    private JdbcTaskRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Creates the tables and indexes if they do not exist yet.
+     */
+    public static JdbcTaskRepository open(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create the task schema", e);
+        }
+        return new JdbcTaskRepository(dataSource);
+    }
+
+    @Override
+    public void addProject(String name) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT_PROJECT)) {
+            insert.setString(1, name);
+            insert.setString(2, name);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            throw failed("add project " + name, e);
+        }
+    }
+
+    @Override
+    public void addTask(String projectName, Task task) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT_TASK)) {
+            bindInsert(insert, projectName, task);
+            if (insert.executeUpdate() == 0) {
+                throw new IllegalArgumentException("Project does not exist: " + projectName);
+            }
+        } catch (SQLException e) {
+            throw failed("add task " + task.getId(), e);
+        }
+    }
+
+    @Override
+    public void addTasks(String projectName, List<Task> tasks) {
+        if (tasks.isEmpty()) return;
+        try (Connection connection = dataSource.getConnection()) {
+            inTransaction(connection, () -> {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_TASK)) {
+                    for (Task task : tasks) {
+                        bindInsert(insert, projectName, task);
+                        insert.addBatch();
+                    }
+                    for (int inserted : insert.executeBatch()) {
+                        if (inserted == 0) {
+                            throw new IllegalArgumentException("Project does not exist: " + projectName);
+                        }
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw failed("add " + tasks.size() + " tasks to " + projectName, e);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement update = connection.prepareStatement(UPDATE_TASK)) {
+            update.setBoolean(1, task.isDone());
+            update.setObject(2, task.getDeadline().orElse(null), Types.DATE);
+            update.setLong(3, task.getId());
+            update.executeUpdate();
+        } catch (SQLException e) {
+            throw failed("update task " + task.getId(), e);
+        }
+    }
+
+    @Override
+    public Optional<List<Task>> findProjectTasks(String projectName) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_PROJECT_TASKS)) {
+            select.setString(1, projectName);
+            try (ResultSet rows = select.executeQuery()) {
+                if (!rows.next()) {
+                    return Optional.empty();
+                }
+                List<Task> tasks = new ArrayList<>();
+                do {
+                    if (rows.getObject("id") != null) {
+                        tasks.add(readTask(rows));
+                    }
+                } while (rows.next());
+                return Optional.of(Collections.unmodifiableList(tasks));
+            }
+        } catch (SQLException e) {
+            throw failed("read project " + projectName, e);
+        }
+    }
+
+    @Override
+    public Optional<Task> findTaskById(long id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_TASK)) {
+            select.setLong(1, id);
+            try (ResultSet rows = select.executeQuery()) {
+                return rows.next() ? Optional.of(readTask(rows)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw failed("read task " + id, e);
+        }
+    }
+
+    @Override
+    public Map<String, List<Task>> allProjects() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_ALL)) {
+            select.setFetchSize(FETCH_SIZE);
+            Map<String, List<Task>> projects = new LinkedHashMap<>();
+            try (ResultSet rows = select.executeQuery()) {
+                String currentName = null;
+                List<Task> current = null;
+                while (rows.next()) {
+                    String name = rows.getString("name");
+                    if (!name.equals(currentName)) {
+                        currentName = name;
+                        current = new ArrayList<>();
+                        projects.put(name, Collections.unmodifiableList(current));
+                    }
+                    if (rows.getObject("id") != null) {
+                        current.add(readTask(rows));
+                    }
+                }
+            }
+            return Collections.unmodifiableMap(projects);
+        } catch (SQLException e) {
+            throw failed("read all projects", e);
+        }
+    }
+
+    @Override
+    public List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_BY_DEADLINE)) {
+            select.setFetchSize(FETCH_SIZE);
+            select.setObject(1, from == null ? MIN_DEADLINE : from);
+            select.setObject(2, to == null ? MAX_DEADLINE : to);
+            List<TaskMatch> matches = new ArrayList<>();
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    matches.add(new TaskMatch(rows.getString("name"), readTask(rows)));
+                }
+            }
+            return matches;
+        } catch (SQLException e) {
+            throw failed("read tasks by deadline", e);
+        }
+    }
+
+    @Override
+    public int removeTasks(String projectName, Set<Long> taskIds) {
+        if (taskIds.isEmpty()) return 0;
+        int[] removed = new int[1];
+        try (Connection connection = dataSource.getConnection()) {
+            inTransaction(connection, () -> {
+                try (PreparedStatement delete = connection.prepareStatement(DELETE_TASK)) {
+                    for (long id : taskIds) {
+                        delete.setLong(1, id);
+                        delete.setString(2, projectName);
+                        delete.addBatch();
+                    }
+                    for (int count : delete.executeBatch()) {
+                        removed[0] += Math.max(count, 0);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw failed("remove tasks from " + projectName, e);
+        }
+        return removed[0];
+    }
+
+    @Override
+    public void addRecurringTask(RecurringTask definition) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT_RECURRING)) {
+            insert.setLong(1, definition.id());
+            insert.setString(2, definition.description());
+            insert.setString(3, definition.recurrence().rule());
+            insert.setObject(4, definition.recurrence().start());
+            insert.setString(5, definition.project());
+            if (insert.executeUpdate() == 0) {
+                throw new IllegalArgumentException("Project does not exist: " + definition.project());
+            }
+        } catch (SQLException e) {
+            throw failed("add recurring task " + definition.id(), e);
+        }
+    }
+
+    @Override
+    public void addMaterializedOccurrence(long recurringId, LocalDate day) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement(INSERT_OCCURRENCE)) {
+            insert.setLong(1, recurringId);
+            insert.setObject(2, day);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            throw failed("record occurrence " + day + " of recurring task " + recurringId, e);
+        }
+    }
+
+    @Override
+    public List<RecurringTask> allRecurringTasks() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_RECURRING)) {
+            List<RecurringTask> definitions = new ArrayList<>();
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    Recurrence recurrence = Recurrence.parse(rows.getString("recurrence"),
+                            rows.getObject("starts_on", LocalDate.class));
+                    definitions.add(new RecurringTask(rows.getLong("id"), rows.getString("name"),
+                            rows.getString("description"), recurrence));
+                }
+            }
+            return definitions;
+        } catch (SQLException e) {
+            throw failed("read recurring tasks", e);
+        }
+    }
+
+    @Override
+    public Map<Long, Set<LocalDate>> materializedOccurrences() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(SELECT_OCCURRENCES)) {
+            select.setFetchSize(FETCH_SIZE);
+            Map<Long, Set<LocalDate>> occurrences = new HashMap<>();
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    occurrences.computeIfAbsent(rows.getLong("recurring_id"), id -> new HashSet<>())
+                            .add(rows.getObject("occurs_on", LocalDate.class));
+                }
+            }
+            return occurrences;
+        } catch (SQLException e) {
+            throw failed("read checked-off occurrences", e);
+        }
+    }
+
+    private static void bindInsert(PreparedStatement insert, String projectName, Task task) throws SQLException {
+        insert.setLong(1, task.getId());
+        insert.setString(2, task.getDescription());
+        insert.setBoolean(3, task.isDone());
+        insert.setObject(4, task.getDeadline().orElse(null), Types.DATE);
+        insert.setString(5, projectName);
+    }
+
+    private static Task readTask(ResultSet rows) throws SQLException {
+        Task task = new Task(rows.getLong("id"), rows.getString("description"), rows.getBoolean("done"));
+        task.setDeadline(rows.getObject("deadline", LocalDate.class));
+        return task;
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        void run() throws SQLException;
+    }
+
+    private static void inTransaction(Connection connection, Work work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static IllegalStateException failed(String action, SQLException e) {
+        return new IllegalStateException("Could not " + action, e);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ortecfinance.tasklist.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * On-disk hash table from task id to record slot, with linear probing. Entries are 16 bytes: the id and the slot
+ * plus one, so an all-zero entry is empty. The table is kept at most half full; growing writes a table of twice
+ * the capacity next to the current one and moves it over the old file in one step.
+ */
+final class IdIndex implements Closeable {
+    private static final int HEADER_BYTES = 64;
+    private static final int CAPACITY = 8;
+    private static final int SIZE = 16;
+    private static final int ENTRY_BYTES = 16;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int CHUNK_BYTES = 16 << 20;
+    private static final int NONE = -1;
+
+    private final Path path;
+    private MappedFile file;
+    private long capacity;
+    private long size;
+
+    private IdIndex(Path path) {
+        this.path = path;
+    }
+
+    static IdIndex open(Path path) throws IOException {
+        IdIndex index = new IdIndex(path);
+        index.file = MappedFile.open(path, CHUNK_BYTES);
+        index.capacity = MappedTaskRepository.header(index.file, INITIAL_CAPACITY);
+        index.size = index.file.getLong(SIZE);
+        return index;
+    }
+
+    /**
+     * @return the slot stored for the id, or -1
+     */
+    int get(long id) {
+        for (long bucket = bucket(id, capacity); ; bucket = (bucket + 1) & (capacity - 1)) {
+            long position = position(bucket);
+            int slot = file.getInt(position + Long.BYTES) - 1;
+            if (slot == NONE || file.getLong(position) == id) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Stores the slot for an id that is not in the index yet.
+     */
+    void put(long id, int slot) {
+        if ((size + 1) * 2 > capacity) {
+            grow();
+        }
+        insert(file, capacity, id, slot);
+        size++;
+        file.putLong(SIZE, size);
+    }
+
+    void force() {
+        file.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void grow() {
+        long newCapacity = capacity * 2;
+        Path next = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(next);
+            try (MappedFile grown = MappedFile.open(next, CHUNK_BYTES)) {
+                MappedTaskRepository.header(grown, newCapacity);
+                for (long bucket = 0; bucket < capacity; bucket++) {
+                    long position = position(bucket);
+                    int slot = file.getInt(position + Long.BYTES) - 1;
+                    if (slot != NONE) {
+                        insert(grown, newCapacity, file.getLong(position), slot);
+                    }
+                }
+                grown.putLong(SIZE, size);
+            }
+            file.close();
+            Files.move(next, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            file = MappedFile.open(path, CHUNK_BYTES);
+            capacity = newCapacity;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void insert(MappedFile file, long capacity, long id, int slot) {
+        long bucket = bucket(id, capacity);
+        while (file.getInt(position(bucket) + Long.BYTES) != 0) {
+            bucket = (bucket + 1) & (capacity - 1);
+        }
+        file.putLong(position(bucket), id);
+        file.putInt(position(bucket) + Long.BYTES, slot + 1);
+    }
+
+    // ids are mostly sequential; the multiply spreads them over the table
+    private static long bucket(long id, long capacity) {
+        return (id * 0x9E3779B97F4A7C15L >>> 32) & (capacity - 1);
+    }
+
+    private static long position(long bucket) {
+        return HEADER_BYTES + bucket * ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,100 @@
+package com.ortecfinance.tasklist.mapped;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file accessed through memory mappings of fixed-size chunks, so it can grow past the 2 GiB a single mapping
+ * allows. Chunks are mapped on first use and the file is extended as they are. A value never spans two chunks:
+ * callers lay out fixed-size records that divide the chunk size, or skip to the next chunk themselves.
+ */
+final class MappedFile implements Closeable {
+    private final FileChannel channel;
+    private final int chunkBytes;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    private MappedFile(FileChannel channel, int chunkBytes) {
+        this.channel = channel;
+        this.chunkBytes = chunkBytes;
+    }
+
+    static MappedFile open(Path path, int chunkBytes) throws IOException {
+        return new MappedFile(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE), chunkBytes);
+    }
+
+    int chunkBytes() {
+        return chunkBytes;
+    }
+
+    /**
+     * @return true if the file was empty when opened, i.e. it has no header yet
+     */
+    boolean isNew() throws IOException {
+        return channel.size() == 0;
+    }
+
+    long getLong(long position) {
+        return chunk(position).getLong(offset(position));
+    }
+
+    void putLong(long position, long value) {
+        chunk(position).putLong(offset(position), value);
+    }
+
+    int getInt(long position) {
+        return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+        chunk(position).putInt(offset(position), value);
+    }
+
+    void get(long position, byte[] bytes) {
+        chunk(position).get(offset(position), bytes);
+    }
+
+    void put(long position, byte[] bytes) {
+        chunk(position).put(offset(position), bytes);
+    }
+
+    /**
+     * Writes the dirty pages of every mapped chunk to the device.
+     */
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        chunks.clear();
+        channel.close();
+    }
+
+    private int offset(long position) {
+        return (int) (position % chunkBytes);
+    }
+
+    private MappedByteBuffer chunk(long position) {
+        int index = (int) (position / chunkBytes);
+        while (chunks.size() <= index) {
+            try {
+                // mapping past the end of the file extends it
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() * chunkBytes, chunkBytes));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chunks.get(index);
+    }
+}
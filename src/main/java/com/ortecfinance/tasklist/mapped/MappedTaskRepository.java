@@ -0,0 +1,443 @@
+package com.ortecfinance.tasklist.mapped;
+
+import com.ortecfinance.tasklist.core.RecurringTask;
+import com.ortecfinance.tasklist.core.TaskChangeListener;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.core.TaskRepository;
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Stores tasks in memory-mapped files, so the operating system's page cache rather than the Java heap holds the
+ * working set. Only the project names are kept on heap.
+ * <ul>
+ *     <li>{@code tasks.dat}: one 32 byte record per task in insertion order, chained per project. Done flags and
+ *     deadlines are updated in place; removed tasks are only flagged.</li>
+ *     <li>{@code descriptions.dat}: descriptions and project names, length-prefixed UTF-8.</li>
+ *     <li>{@code projects.dat}: one record per project with the first and last task of its chain.</li>
+ *     <li>{@code ids.dat}: an open-addressing hash table from task id to record.</li>
+ *     <li>{@code recurring.dat}: one 32 byte record per recurring task definition.</li>
+ *     <li>{@code occurrences.dat}: one 16 byte record per checked-off occurrence of a recurring task.</li>
+ * </ul>
+ * Counts live in the file headers and are written after the data they cover, so reopening the directory
+ * needs no replay. Tasks are read into new instances on every call, so changes must be written back with
+ * {@link #updateTask(Task)}.
+ */
+public final class MappedTaskRepository implements TaskRepository, Closeable {
+    private static final int MAGIC = 0x544c4d31;    // "TLM1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int COUNT = 8;              // header offset of the record count or used bytes
+
+    // task record layout
+    private static final int TASK_BYTES = 32;
+    private static final int TASK_ID = 0;
+    private static final int TASK_DESCRIPTION = 8;
+    private static final int TASK_PROJECT = 16;
+    private static final int TASK_DEADLINE = 20;
+    private static final int TASK_FLAGS = 24;
+    private static final int TASK_NEXT = 28;
+    private static final int DONE = 1;
+    private static final int REMOVED = 2;
+    private static final int NO_DEADLINE = Integer.MIN_VALUE;
+    private static final int NONE = -1;
+
+    // project record layout
+    private static final int PROJECT_BYTES = 32;
+    private static final int PROJECT_NAME = 0;
+    private static final int PROJECT_HEAD = 8;
+    private static final int PROJECT_TAIL = 12;
+
+    // recurring task record layout; the description and rule are in descriptions.dat
+    private static final int RECURRING_BYTES = 32;
+    private static final int RECURRING_ID = 0;
+    private static final int RECURRING_DESCRIPTION = 8;
+    private static final int RECURRING_RULE = 16;
+    private static final int RECURRING_PROJECT = 24;
+    private static final int RECURRING_START = 28;
+
+    // checked-off occurrence record layout
+    private static final int OCCURRENCE_BYTES = 16;
+    private static final int OCCURRENCE_RECURRING_ID = 0;
+    private static final int OCCURRENCE_DAY = 8;
+
+    private final MappedFile tasks;
+    private final MappedFile descriptions;
+    private final MappedFile projects;
+    private final IdIndex ids;
+    private final MappedFile recurring;
+    private final MappedFile occurrences;
+    private final Map<String, Integer> projectOrdinals = new HashMap<>();
+    private final List<String> projectNames = new ArrayList<>();
+    private int taskCount;
+    private long descriptionEnd;
+    private int recurringCount;
+    private int occurrenceCount;
+
+    private MappedTaskRepository(MappedFile tasks, MappedFile descriptions, MappedFile projects, IdIndex ids,
+                                 MappedFile recurring, MappedFile occurrences) {
+        this.tasks = tasks;
+        this.descriptions = descriptions;
+        this.projects = projects;
+        this.ids = ids;
+        this.recurring = recurring;
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Opens the store in the directory, creating it if it does not exist yet.
+     */
+    public static MappedTaskRepository open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MappedTaskRepository repository = new MappedTaskRepository(
+                MappedFile.open(directory.resolve("tasks.dat"), TASK_BYTES << 20),
+                MappedFile.open(directory.resolve("descriptions.dat"), 16 << 20),
+                MappedFile.open(directory.resolve("projects.dat"), PROJECT_BYTES << 12),
+                IdIndex.open(directory.resolve("ids.dat")),
+                MappedFile.open(directory.resolve("recurring.dat"), RECURRING_BYTES << 12),
+                MappedFile.open(directory.resolve("occurrences.dat"), OCCURRENCE_BYTES << 16));
+        repository.taskCount = (int) header(repository.tasks, 0);
+        repository.recurringCount = (int) header(repository.recurring, 0);
+        repository.occurrenceCount = (int) header(repository.occurrences, 0);
+        repository.descriptionEnd = header(repository.descriptions, HEADER_BYTES);
+        int projectCount = (int) header(repository.projects, 0);
+        for (int ordinal = 0; ordinal < projectCount; ordinal++) {
+            String name = repository.readString(repository.projects.getLong(projectPosition(ordinal) + PROJECT_NAME));
+            repository.projectOrdinals.put(name, ordinal);
+            repository.projectNames.add(name);
+        }
+        return repository;
+    }
+
+    @Override
+    public synchronized void addProject(String name) {
+        if (projectOrdinals.containsKey(name)) return;
+        int ordinal = projectNames.size();
+        long position = projectPosition(ordinal);
+        projects.putLong(position + PROJECT_NAME, appendString(name));
+        projects.putInt(position + PROJECT_HEAD, NONE);
+        projects.putInt(position + PROJECT_TAIL, NONE);
+        projects.putLong(COUNT, ordinal + 1);
+        projectOrdinals.put(name, ordinal);
+        projectNames.add(name);
+    }
+
+    @Override
+    public synchronized void addTask(String projectName, Task task) {
+        Integer ordinal = projectOrdinals.get(projectName);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("Project does not exist: " + projectName);
+        }
+        int slot = taskCount;
+        long position = taskPosition(slot);
+        tasks.putLong(position + TASK_ID, task.getId());
+        tasks.putLong(position + TASK_DESCRIPTION, appendString(task.getDescription()));
+        tasks.putInt(position + TASK_PROJECT, ordinal);
+        tasks.putInt(position + TASK_NEXT, NONE);
+        writeState(position, task);
+
+        long project = projectPosition(ordinal);
+        int tail = projects.getInt(project + PROJECT_TAIL);
+        if (tail == NONE) {
+            projects.putInt(project + PROJECT_HEAD, slot);
+        } else {
+            tasks.putInt(taskPosition(tail) + TASK_NEXT, slot);
+        }
+        projects.putInt(project + PROJECT_TAIL, slot);
+        ids.put(task.getId(), slot);
+
+        taskCount = slot + 1;
+        tasks.putLong(COUNT, taskCount);
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
+        int slot = ids.get(task.getId());
+        if (slot == NONE) return;
+        long position = taskPosition(slot);
+        if ((tasks.getInt(position + TASK_FLAGS) & REMOVED) == 0) {
+            writeState(position, task);
+        }
+    }
+
+    @Override
+    public synchronized Optional<List<Task>> findProjectTasks(String projectName) {
+        Integer ordinal = projectOrdinals.get(projectName);
+        return ordinal == null ? Optional.empty() : Optional.of(readProject(ordinal));
+    }
+
+    @Override
+    public synchronized Optional<Task> findTaskById(long id) {
+        int slot = ids.get(id);
+        if (slot == NONE || isRemoved(slot)) {
+            return Optional.empty();
+        }
+        return Optional.of(readTask(slot));
+    }
+
+    @Override
+    public synchronized Optional<TaskMatch> findTaskMatch(long id) {
+        int slot = ids.get(id);
+        if (slot == NONE || isRemoved(slot)) {
+            return Optional.empty();
+        }
+        return Optional.of(new TaskMatch(projectNames.get(tasks.getInt(taskPosition(slot) + TASK_PROJECT)), readTask(slot)));
+    }
+
+    @Override
+    public synchronized Map<String, List<Task>> allProjects() {
+        Map<String, List<Task>> result = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < projectNames.size(); ordinal++) {
+            result.put(projectNames.get(ordinal), readProject(ordinal));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void forEachTask(TaskChangeListener visitor) {
+        for (int ordinal = 0; ordinal < projectNames.size(); ordinal++) {
+            String name = projectNames.get(ordinal);
+            visitor.projectAdded(name);
+            for (int slot = projects.getInt(projectPosition(ordinal) + PROJECT_HEAD); slot != NONE;
+                 slot = tasks.getInt(taskPosition(slot) + TASK_NEXT)) {
+                if (!isRemoved(slot)) {
+                    visitor.taskAdded(name, readTask(slot));
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean keepsTasksOffHeap() {
+        return true;
+    }
+
+    // One sequential pass over the records; only the matches are decoded
+    @Override
+    public synchronized List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        List<int[]> matches = new ArrayList<>();
+        for (int slot = 0; slot < taskCount; slot++) {
+            long position = taskPosition(slot);
+            int deadline = tasks.getInt(position + TASK_DEADLINE);
+            if (deadline != NO_DEADLINE && deadline >= fromDay && deadline <= toDay
+                    && (tasks.getInt(position + TASK_FLAGS) & REMOVED) == 0) {
+                matches.add(new int[]{tasks.getInt(position + TASK_PROJECT), slot});
+            }
+        }
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[0])
+                .thenComparingLong(match -> tasks.getLong(taskPosition(match[1]) + TASK_ID)));
+        List<TaskMatch> result = new ArrayList<>(matches.size());
+        for (int[] match : matches) {
+            result.add(new TaskMatch(projectNames.get(match[0]), readTask(match[1])));
+        }
+        return result;
+    }
+
+    // The same pass as findTasksByDeadline without decoding anything
+    @Override
+    public synchronized int countTasksByDeadline(LocalDate from, LocalDate to, Boolean done) {
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        int count = 0;
+        for (int slot = 0; slot < taskCount; slot++) {
+            long position = taskPosition(slot);
+            int deadline = tasks.getInt(position + TASK_DEADLINE);
+            int flags = tasks.getInt(position + TASK_FLAGS);
+            if (deadline != NO_DEADLINE && deadline >= fromDay && deadline <= toDay && (flags & REMOVED) == 0
+                    && (done == null || ((flags & DONE) != 0) == done)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized int removeTasks(String projectName, Set<Long> taskIds) {
+        Integer ordinal = projectOrdinals.get(projectName);
+        if (ordinal == null) return 0;
+        int removed = 0;
+        for (long id : taskIds) {
+            int slot = ids.get(id);
+            if (slot == NONE) continue;
+            long position = taskPosition(slot);
+            int flags = tasks.getInt(position + TASK_FLAGS);
+            if (tasks.getInt(position + TASK_PROJECT) == ordinal && (flags & REMOVED) == 0) {
+                tasks.putInt(position + TASK_FLAGS, flags | REMOVED);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized void addRecurringTask(RecurringTask definition) {
+        Integer ordinal = projectOrdinals.get(definition.project());
+        if (ordinal == null) {
+            throw new IllegalArgumentException("Project does not exist: " + definition.project());
+        }
+        long position = recurringPosition(recurringCount);
+        recurring.putLong(position + RECURRING_ID, definition.id());
+        recurring.putLong(position + RECURRING_DESCRIPTION, appendString(definition.description()));
+        recurring.putLong(position + RECURRING_RULE, appendString(definition.recurrence().rule()));
+        recurring.putInt(position + RECURRING_PROJECT, ordinal);
+        recurring.putInt(position + RECURRING_START, Math.toIntExact(definition.recurrence().start().toEpochDay()));
+        recurringCount++;
+        recurring.putLong(COUNT, recurringCount);
+    }
+
+    @Override
+    public synchronized void addMaterializedOccurrence(long recurringId, LocalDate day) {
+        long position = occurrencePosition(occurrenceCount);
+        occurrences.putLong(position + OCCURRENCE_RECURRING_ID, recurringId);
+        occurrences.putInt(position + OCCURRENCE_DAY, Math.toIntExact(day.toEpochDay()));
+        occurrenceCount++;
+        occurrences.putLong(COUNT, occurrenceCount);
+    }
+
+    @Override
+    public synchronized List<RecurringTask> allRecurringTasks() {
+        List<RecurringTask> result = new ArrayList<>(recurringCount);
+        for (int i = 0; i < recurringCount; i++) {
+            long position = recurringPosition(i);
+            Recurrence recurrence = Recurrence.parse(readString(recurring.getLong(position + RECURRING_RULE)),
+                    LocalDate.ofEpochDay(recurring.getInt(position + RECURRING_START)));
+            result.add(new RecurringTask(recurring.getLong(position + RECURRING_ID),
+                    projectNames.get(recurring.getInt(position + RECURRING_PROJECT)),
+                    readString(recurring.getLong(position + RECURRING_DESCRIPTION)), recurrence));
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized Map<Long, Set<LocalDate>> materializedOccurrences() {
+        Map<Long, Set<LocalDate>> result = new HashMap<>();
+        for (int i = 0; i < occurrenceCount; i++) {
+            long position = occurrencePosition(i);
+            result.computeIfAbsent(occurrences.getLong(position + OCCURRENCE_RECURRING_ID), id -> new HashSet<>())
+                    .add(LocalDate.ofEpochDay(occurrences.getInt(position + OCCURRENCE_DAY)));
+        }
+        return result;
+    }
+
+    /**
+     * Writes every change through to the device.
+     */
+    public synchronized void force() {
+        tasks.force();
+        descriptions.force();
+        projects.force();
+        ids.force();
+        recurring.force();
+        occurrences.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        tasks.close();
+        descriptions.close();
+        projects.close();
+        ids.close();
+        recurring.close();
+        occurrences.close();
+    }
+
+    private List<Task> readProject(int ordinal) {
+        List<Task> result = new ArrayList<>();
+        for (int slot = projects.getInt(projectPosition(ordinal) + PROJECT_HEAD); slot != NONE;
+             slot = tasks.getInt(taskPosition(slot) + TASK_NEXT)) {
+            if (!isRemoved(slot)) {
+                result.add(readTask(slot));
+            }
+        }
+        return result;
+    }
+
+    private Task readTask(int slot) {
+        long position = taskPosition(slot);
+        int flags = tasks.getInt(position + TASK_FLAGS);
+        Task task = new Task(tasks.getLong(position + TASK_ID),
+                readString(tasks.getLong(position + TASK_DESCRIPTION)), (flags & DONE) != 0);
+        int deadline = tasks.getInt(position + TASK_DEADLINE);
+        if (deadline != NO_DEADLINE) {
+            task.setDeadline(LocalDate.ofEpochDay(deadline));
+        }
+        return task;
+    }
+
+    private void writeState(long position, Task task) {
+        tasks.putInt(position + TASK_DEADLINE, task.getDeadline().map(d -> Math.toIntExact(d.toEpochDay())).orElse(NO_DEADLINE));
+        tasks.putInt(position + TASK_FLAGS, task.isDone() ? DONE : 0);
+    }
+
+    private boolean isRemoved(int slot) {
+        return (tasks.getInt(taskPosition(slot) + TASK_FLAGS) & REMOVED) != 0;
+    }
+
+    // Strings never span two chunks: one that would is moved to the start of the next chunk
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int chunkBytes = descriptions.chunkBytes();
+        if (bytes.length + Integer.BYTES > chunkBytes) {
+            throw new IllegalArgumentException("Text too long to store: " + bytes.length + " bytes");
+        }
+        long position = descriptionEnd;
+        if (position % chunkBytes + Integer.BYTES + bytes.length > chunkBytes) {
+            position = (position / chunkBytes + 1) * chunkBytes;
+        }
+        descriptions.putInt(position, bytes.length);
+        descriptions.put(position + Integer.BYTES, bytes);
+        descriptionEnd = position + Integer.BYTES + bytes.length;
+        descriptions.putLong(COUNT, descriptionEnd);
+        return position;
+    }
+
+    private String readString(long position) {
+        byte[] bytes = new byte[descriptions.getInt(position)];
+        descriptions.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long taskPosition(int slot) {
+        return HEADER_BYTES + (long) slot * TASK_BYTES;
+    }
+
+    private static long projectPosition(int ordinal) {
+        return HEADER_BYTES + (long) ordinal * PROJECT_BYTES;
+    }
+
+    private static long recurringPosition(int index) {
+        return HEADER_BYTES + (long) index * RECURRING_BYTES;
+    }
+
+    private static long occurrencePosition(int index) {
+        return HEADER_BYTES + (long) index * OCCURRENCE_BYTES;
+    }
+
+    /**
+     * Checks the header of an existing file or writes one to a new file.
+     *
+     * @return the count stored in the header, or {@code initialCount} for a new file
+     */
+    static long header(MappedFile file, long initialCount) throws IOException {
+        if (file.isNew()) {
+            file.putInt(0, MAGIC);
+            file.putInt(Integer.BYTES, FORMAT_VERSION);
+            file.putLong(COUNT, initialCount);
+            return initialCount;
+        }
+        if (file.getInt(0) != MAGIC || file.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new IOException("Not a task store file or an unsupported format version");
+        }
+        return file.getLong(COUNT);
+    }
+}
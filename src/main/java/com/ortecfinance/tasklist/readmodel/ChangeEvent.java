@@ -0,0 +1,26 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+
+/**
+ * A mutation copied off the write side; tasks are mutable, so the values are captured when the change happens.
+ *
+ * @param project null for done and deadline changes, the projector knows the task's project
+ */
+record ChangeEvent(long version, long publishedNanos, Kind kind, String project, long taskId,
+                   String description, boolean done, LocalDate deadline) {
+    enum Kind { PROJECT_ADDED, TASK_ADDED, DONE_CHANGED, DEADLINE_CHANGED, TASK_REMOVED }
+
+    static ChangeEvent of(long version, Kind kind, String project, Task task) {
+        return new ChangeEvent(version, System.nanoTime(), kind, project, task.getId(), task.getDescription(),
+                task.isDone(), task.getDeadline().orElse(null));
+    }
+
+    Task toTask() {
+        Task task = new Task(taskId, description, done);
+        task.setDeadline(deadline);
+        return task;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Tasks grouped by deadline, then project, then id; the projected form of
+ * {@link com.ortecfinance.tasklist.core.TaskListService#viewByDeadlineGroups()}. The tasks are the projector's
+ * own copies and are replaced, never changed, so a snapshot handed to readers stays valid.
+ */
+final class DeadlineView {
+    private final NavigableMap<LocalDate, NavigableMap<String, NavigableMap<Long, Task>>> byDeadline = new TreeMap<>();
+    private final NavigableMap<String, NavigableMap<Long, Task>> noDeadline = new TreeMap<>();
+    // the order projects were added in, which tasksDueToday lists them in; adding one again keeps its place
+    private final Map<String, Integer> projectOrdinals = new HashMap<>();
+
+    void addProject(String project) {
+        projectOrdinals.putIfAbsent(project, projectOrdinals.size());
+    }
+
+    void put(String project, Task task) {
+        addProject(project);
+        groupOf(task.getDeadline().orElse(null), true)
+                .computeIfAbsent(project, p -> new TreeMap<>())
+                .put(task.getId(), task);
+    }
+
+    void remove(String project, Task task) {
+        LocalDate deadline = task.getDeadline().orElse(null);
+        NavigableMap<String, NavigableMap<Long, Task>> byProject = groupOf(deadline, false);
+        if (byProject == null) return;
+        NavigableMap<Long, Task> tasks = byProject.get(project);
+        if (tasks == null) return;
+        tasks.remove(task.getId());
+        if (tasks.isEmpty()) {
+            byProject.remove(project);
+            if (byProject.isEmpty() && deadline != null) {
+                byDeadline.remove(deadline);
+            }
+        }
+    }
+
+    DeadlineGroups snapshot() {
+        Map<LocalDate, Map<String, List<Task>>> groups = new TreeMap<>();
+        for (Map.Entry<LocalDate, NavigableMap<String, NavigableMap<Long, Task>>> entry : byDeadline.entrySet()) {
+            groups.put(entry.getKey(), copy(entry.getValue()));
+        }
+        return new DeadlineGroups(groups, copy(noDeadline));
+    }
+
+    /**
+     * @return the tasks with this deadline grouped by project, projects in the order they were added as in
+     * {@link com.ortecfinance.tasklist.core.TaskListService#tasksDueToday()}
+     */
+    Map<String, List<Task>> dueOn(LocalDate day) {
+        NavigableMap<String, NavigableMap<Long, Task>> byProject = byDeadline.get(day);
+        Map<String, List<Task>> due = new LinkedHashMap<>();
+        if (byProject == null) {
+            return due;
+        }
+        List<String> projects = new ArrayList<>(byProject.keySet());
+        projects.sort(Comparator.comparingInt(projectOrdinals::get));
+        for (String project : projects) {
+            due.put(project, List.copyOf(byProject.get(project).values()));
+        }
+        return due;
+    }
+
+    private NavigableMap<String, NavigableMap<Long, Task>> groupOf(LocalDate deadline, boolean create) {
+        if (deadline == null) {
+            return noDeadline;
+        }
+        return create ? byDeadline.computeIfAbsent(deadline, d -> new TreeMap<>()) : byDeadline.get(deadline);
+    }
+
+    private static Map<String, List<Task>> copy(NavigableMap<String, NavigableMap<Long, Task>> byProject) {
+        Map<String, List<Task>> copy = new TreeMap<>();
+        for (Map.Entry<String, NavigableMap<Long, Task>> project : byProject.entrySet()) {
+            copy.put(project.getKey(), List.copyOf(project.getValue().values()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Task counts per project and the deadlines of their open tasks. Overdue counts depend on the day they are
+ * asked for, so only the deadlines are kept and the counts are taken at read time.
+ */
+final class ProjectSummaries {
+    private final Map<String, Counts> projects = new LinkedHashMap<>();
+
+    void addProject(String name) {
+        projects.computeIfAbsent(name, n -> new Counts());
+    }
+
+    void add(String project, Task task) {
+        Counts counts = projects.computeIfAbsent(project, n -> new Counts());
+        counts.tasks++;
+        counts.track(task, 1);
+    }
+
+    void remove(String project, Task task) {
+        Counts counts = projects.get(project);
+        if (counts != null) {
+            counts.tasks--;
+            counts.track(task, -1);
+        }
+    }
+
+    List<ProjectSummary> snapshot(LocalDate today) {
+        List<ProjectSummary> summaries = new ArrayList<>(projects.size());
+        for (Map.Entry<String, Counts> entry : projects.entrySet()) {
+            Counts counts = entry.getValue();
+            int overdue = 0;
+            for (int count : counts.openDeadlines.headMap(today, false).values()) {
+                overdue += count;
+            }
+            summaries.add(new ProjectSummary(entry.getKey(), counts.tasks, counts.done, overdue,
+                    counts.openDeadlines.ceilingKey(today)));
+        }
+        return summaries;
+    }
+
+    private static final class Counts {
+        private int tasks;
+        private int done;
+        private final NavigableMap<LocalDate, Integer> openDeadlines = new TreeMap<>();
+
+        // adds (+1) or takes back (-1) the task's done flag and deadline
+        private void track(Task task, int sign) {
+            if (task.isDone()) {
+                done += sign;
+                return;
+            }
+            task.getDeadline().ifPresent(deadline ->
+                    openDeadlines.merge(deadline, sign, (a, b) -> a + b == 0 ? null : a + b));
+        }
+    }
+}
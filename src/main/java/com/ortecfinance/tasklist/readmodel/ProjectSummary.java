@@ -0,0 +1,9 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import java.time.LocalDate;
+
+/**
+ * @param overdue open tasks whose deadline has passed
+ * @param nextDeadline the nearest deadline of an open task that is not overdue, or null if there is none
+ */
+public record ProjectSummary(String name, int tasks, int done, int overdue, LocalDate nextDeadline) {}
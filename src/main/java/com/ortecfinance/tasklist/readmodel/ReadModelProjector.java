@@ -0,0 +1,277 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import com.ortecfinance.tasklist.core.TaskChangeListener;
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.readmodel.ChangeEvent.Kind;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Read side of the task list. Every mutation reported by the service is copied into an event and queued; a
+ * background thread applies the events in order to the read models: a deadline view, per-project summaries and
+ * the tasks due today. Reads never touch the write-side repository.
+ * <p>
+ * Each event gets the next version number. A read reflects every event up to {@link Status#appliedVersion()}
+ * and is never older than {@code maxStaleness}: if the oldest unapplied event has waited longer, the read waits
+ * for the projector to catch up first. A client that needs to see its own writes passes the version it got back
+ * from {@link #publishedVersion()} to {@link #awaitVersion}.
+ */
+public final class ReadModelProjector implements TaskChangeListener, AutoCloseable {
+    private static final System.Logger LOG = System.getLogger(ReadModelProjector.class.getName());
+    private static final long NONE = Long.MIN_VALUE;
+    // a stuck projector makes reads stale rather than blocking them
+    private static final Duration CATCH_UP_TIMEOUT = Duration.ofSeconds(1);
+
+    /**
+     * @param pending events published but not applied yet
+     * @param oldestPendingAge how long the oldest of them has been waiting
+     */
+    public record Status(long publishedVersion, long appliedVersion, long pending, Duration oldestPendingAge) {}
+
+    private final Clock clock;
+    private final long maxStalenessNanos;
+    private final BlockingQueue<ChangeEvent> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong published = new AtomicLong();
+    private final Object publishLock = new Object();
+    private final Object progress = new Object();
+    private volatile long applied;
+    private volatile long applyingSince = NONE;
+    private Thread thread;
+
+    // read models, guarded by this
+    private final Map<Long, String> projectOfTask = new HashMap<>();
+    private final Map<Long, Task> tasks = new HashMap<>();
+    private final DeadlineView deadlines = new DeadlineView();
+    private final ProjectSummaries summaries = new ProjectSummaries();
+    private long snapshotVersion = -1;
+    private DeadlineGroups deadlineSnapshot;
+
+    private ReadModelProjector(Clock clock, Duration maxStaleness) {
+        this.clock = clock;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+    }
+
+    /**
+     * Builds the read models from the tasks that already exist and starts the projector thread. Register the
+     * projector as a change listener of the service the tasks came from.
+     */
+    public static ReadModelProjector start(Map<String, List<Task>> existing, Clock clock, Duration maxStaleness) {
+        ReadModelProjector projector = new ReadModelProjector(clock, maxStaleness);
+        synchronized (projector) {
+            for (Map.Entry<String, List<Task>> project : existing.entrySet()) {
+                projector.summaries.addProject(project.getKey());
+                projector.deadlines.addProject(project.getKey());
+                for (Task task : project.getValue()) {
+                    projector.apply(ChangeEvent.of(0, Kind.TASK_ADDED, project.getKey(), task));
+                }
+            }
+        }
+        projector.thread = new Thread(projector::run, "tasklist-projector");
+        projector.thread.setDaemon(true);
+        projector.thread.start();
+        return projector;
+    }
+
+    /**
+     * @return the version of the latest change, the one to wait for to read your own writes
+     */
+    public long publishedVersion() {
+        return published.get();
+    }
+
+    /**
+     * Waits until the read models include the given version.
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean awaitVersion(long version, Duration timeout) {
+        if (applied >= version) {
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (progress) {
+            while (applied < version) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(progress, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public Status status() {
+        long appliedVersion = applied;
+        long publishedVersion = published.get();
+        long oldest = oldestPendingNanos();
+        Duration age = oldest == NONE || publishedVersion == appliedVersion
+                ? Duration.ZERO
+                : Duration.ofNanos(Math.max(0, System.nanoTime() - oldest));
+        return new Status(publishedVersion, appliedVersion, publishedVersion - appliedVersion, age);
+    }
+
+    public DeadlineGroups deadlineGroups() {
+        boundStaleness();
+        synchronized (this) {
+            if (snapshotVersion != applied) {
+                deadlineSnapshot = deadlines.snapshot();
+                snapshotVersion = applied;
+            }
+            return deadlineSnapshot;
+        }
+    }
+
+    public Map<String, List<Task>> tasksDueToday() {
+        boundStaleness();
+        synchronized (this) {
+            return deadlines.dueOn(LocalDate.now(clock));
+        }
+    }
+
+    public List<ProjectSummary> projectSummaries() {
+        boundStaleness();
+        synchronized (this) {
+            return summaries.snapshot(LocalDate.now(clock));
+        }
+    }
+
+    @Override
+    public void projectAdded(String projectName) {
+        publish(version -> new ChangeEvent(version, System.nanoTime(), Kind.PROJECT_ADDED, projectName, 0,
+                null, false, null));
+    }
+
+    @Override
+    public void taskAdded(String projectName, Task task) {
+        publish(version -> ChangeEvent.of(version, Kind.TASK_ADDED, projectName, task));
+    }
+
+    @Override
+    public void doneChanged(Task task) {
+        publish(version -> ChangeEvent.of(version, Kind.DONE_CHANGED, null, task));
+    }
+
+    @Override
+    public void deadlineChanged(Task task, LocalDate previous) {
+        publish(version -> ChangeEvent.of(version, Kind.DEADLINE_CHANGED, null, task));
+    }
+
+    @Override
+    public void taskRemoved(String projectName, Task task) {
+        publish(version -> ChangeEvent.of(version, Kind.TASK_REMOVED, projectName, task));
+    }
+
+    @Override
+    public void close() {
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // numbering and queueing in one step keeps the queue in version order; writers never wait for the projector
+    private void publish(LongFunction<ChangeEvent> event) {
+        synchronized (publishLock) {
+            queue.add(event.apply(published.incrementAndGet()));
+        }
+    }
+
+    private void run() {
+        List<ChangeEvent> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                ChangeEvent first = queue.take();
+                applyingSince = first.publishedNanos();
+                batch.add(first);
+                queue.drainTo(batch);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                for (ChangeEvent event : batch) {
+                    try {
+                        apply(event);
+                    } catch (RuntimeException e) {
+                        LOG.log(System.Logger.Level.WARNING, "Projecting change " + event.version() + " failed", e);
+                    }
+                }
+                applied = batch.get(batch.size() - 1).version();
+            }
+            applyingSince = NONE;
+            batch.clear();
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        switch (event.kind()) {
+            case PROJECT_ADDED -> {
+                summaries.addProject(event.project());
+                deadlines.addProject(event.project());
+            }
+            case TASK_ADDED -> {
+                Task task = event.toTask();
+                projectOfTask.put(task.getId(), event.project());
+                tasks.put(task.getId(), task);
+                deadlines.put(event.project(), task);
+                summaries.add(event.project(), task);
+            }
+            case DONE_CHANGED, DEADLINE_CHANGED -> {
+                String project = projectOfTask.get(event.taskId());
+                Task previous = tasks.get(event.taskId());
+                if (project == null || previous == null) return;
+                Task task = event.toTask();
+                tasks.put(task.getId(), task);
+                deadlines.remove(project, previous);
+                deadlines.put(project, task);
+                summaries.remove(project, previous);
+                summaries.add(project, task);
+            }
+            case TASK_REMOVED -> {
+                Task previous = tasks.remove(event.taskId());
+                projectOfTask.remove(event.taskId());
+                if (previous == null) return;
+                deadlines.remove(event.project(), previous);
+                summaries.remove(event.project(), previous);
+            }
+        }
+    }
+
+    // Waits for the changes published so far when the oldest of them is older than the staleness bound
+    private void boundStaleness() {
+        long target = published.get();
+        if (applied >= target) {
+            return;
+        }
+        // NONE with changes pending: the projector is just taking them off the queue, waiting is cheap
+        long oldest = oldestPendingNanos();
+        if (oldest == NONE || System.nanoTime() - oldest >= maxStalenessNanos) {
+            awaitVersion(target, CATCH_UP_TIMEOUT);
+        }
+    }
+
+    private long oldestPendingNanos() {
+        long since = applyingSince;
+        if (since != NONE) {
+            return since;
+        }
+        ChangeEvent head = queue.peek();
+        return head == null ? NONE : head.publishedNanos();
+    }
+}
@@ -0,0 +1,40 @@
+package com.ortecfinance.tasklist.rest;
+
+import com.ortecfinance.tasklist.core.Completions;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.rest.dto.CompletionResponse;
+import com.ortecfinance.tasklist.rest.timing.RequestTiming.Phase;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.ortecfinance.tasklist.rest.timing.RequestTiming.time;
+
+/**
+ * Completes project names and description words from a prefix, so clients need not download every project.
+ */
+@RestController
+@RequestMapping("/complete")
+public class CompletionController {
+    private static final int MAX_LIMIT = 16;
+
+    private final TaskListService service;
+
+    public CompletionController(TaskListService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public ResponseEntity<CompletionResponse> complete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        Completions completions = time(Phase.SERVICE, () -> service.complete(prefix, limit));
+        return ResponseEntity.ok(new CompletionResponse(completions.projects(), completions.words()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.ortecfinance.tasklist.rest;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.MemoryFootprint;
+import com.ortecfinance.tasklist.rest.dto.MemoryFootprintResponse;
+import com.ortecfinance.tasklist.rest.dto.ProjectMemoryResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Estimated heap retained by the in-memory repository, per project. Not available for the other repositories.
+ */
+@RestController
+@RequestMapping("/admin")
+public class MemoryController {
+
+    private final InMemoryTaskRepository repository;
+
+    public MemoryController(ObjectProvider<InMemoryTaskRepository> repository) {
+        this.repository = repository.getIfAvailable();
+    }
+
+    @GetMapping("/memory")
+    public ResponseEntity<MemoryFootprintResponse> memory() {
+        if (repository == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        MemoryFootprint footprint = repository.memoryFootprint();
+        return ResponseEntity.ok(new MemoryFootprintResponse(footprint.totalBytes(), footprint.tasks(),
+                footprint.mapBytes(), footprint.deadlineBytes(), footprint.projects().stream()
+                .map(project -> new ProjectMemoryResponse(project.name(), project.tasks(), project.totalBytes(),
+                        project.taskBytes(), project.descriptionBytes(), project.listBytes()))
+                .toList()));
+    }
+}
@@ -1,27 +1,63 @@
 package com.ortecfinance.tasklist.rest;
 
+import com.ortecfinance.tasklist.archive.TaskArchiver;
 import com.ortecfinance.tasklist.domain.DateFormats;
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Recurrence;
 import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.core.RecurringTask;
 import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.readmodel.ProjectSummary;
+import com.ortecfinance.tasklist.readmodel.ReadModelProjector;
 import com.ortecfinance.tasklist.rest.dto.*;
+import com.ortecfinance.tasklist.rest.timing.RequestTiming.Phase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.Optional;
+
+import static com.ortecfinance.tasklist.rest.timing.RequestTiming.time;
 
 @RestController
 @RequestMapping("/projects")
 public class ProjectController {
+    // Version of the read models after a write, and the version a read has to wait for
+    static final String VERSION_HEADER = "X-Tasklist-Version";
+    static final String MIN_VERSION_HEADER = "X-Tasklist-Min-Version";
+    private static final Duration READ_YOUR_WRITES_TIMEOUT = Duration.ofSeconds(1);
 
     private final TaskListService service;
+    private final TaskArchiver archiver;
+    private final ProjectJsonCache jsonCache;
+    private final ReadModelProjector readModels;
 
     public ProjectController (TaskListService service) {
+        this(service, null, null, (ReadModelProjector) null);
+    }
+
+    @Autowired
+    public ProjectController(TaskListService service, ObjectProvider<TaskArchiver> archiver,
+                             ObjectProvider<ProjectJsonCache> jsonCache, ObjectProvider<ReadModelProjector> readModels) {
+        this(service, archiver.getIfAvailable(), jsonCache.getIfAvailable(), readModels.getIfAvailable());
+    }
+
+    private ProjectController(TaskListService service, TaskArchiver archiver, ProjectJsonCache jsonCache,
+                              ReadModelProjector readModels) {
         this.service = service;
+        this.archiver = archiver;
+        this.jsonCache = jsonCache;
+        this.readModels = readModels;
     }
 
     @PostMapping
@@ -30,22 +66,28 @@ public class ProjectController {
             return ResponseEntity.badRequest().build();
         }
 
-        service.addProject(request.name().trim());
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+        time(Phase.SERVICE, () -> service.addProject(request.name().trim()));
+        return written(ResponseEntity.status(HttpStatus.CREATED)).build();
     }
 
-    @GetMapping
     public List<ProjectResponse> getProjects() {
-        Map<String, List<Task>> projects = service.allProjects();
+        return toProjectResponses(time(Phase.SERVICE, service::allProjects));
+    }
 
-        return projects.entrySet().stream()
-                .map(entry -> new ProjectResponse(
-                        entry.getKey(),
-                        entry.getValue().stream()
-                                .map(this::toTaskResponse)
-                                .toList()
-                ))
-                .toList();
+    @GetMapping
+    public ResponseEntity<?> getProjects(
+            @RequestParam(name = "includeArchived", defaultValue = "false") boolean includeArchived
+    ) {
+        if (includeArchived && archiver != null) {
+            return ResponseEntity.ok(toProjectResponses(time(Phase.SERVICE, archiver::allProjectsIncludingArchived)));
+        }
+        if (jsonCache == null) {
+            return ResponseEntity.ok(getProjects());
+        }
+        // the cache hands out finished JSON, so building it is the serialization phase
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(time(Phase.SERIALIZATION, jsonCache::projectsJson));
     }
 
     @PostMapping("/{project}/tasks")
@@ -57,10 +99,10 @@ public class ProjectController {
             return ResponseEntity.badRequest().build();
         }
 
-        return service.createTask(project, request.description().trim())
-                .map(task -> ResponseEntity
-                        .status(HttpStatus.CREATED)
-                        .body(toTaskResponse(task)))
+        Optional<Task> created = time(Phase.SERVICE, () -> service.createTask(project, request.description().trim()));
+        return created
+                .map(task -> written(ResponseEntity.status(HttpStatus.CREATED))
+                        .body(time(Phase.MAPPING, () -> toTaskResponse(task))))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
@@ -81,18 +123,123 @@ public class ProjectController {
             return ResponseEntity.badRequest().build();
         }
 
-        boolean updated = service.setDeadline(project, taskId, parsed);
+        boolean updated = time(Phase.SERVICE, () -> service.setDeadline(project, taskId, parsed));
         if (!updated) {
             // either project does not exist or task not in specified project
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.noContent().build();
+        return written(ResponseEntity.noContent()).build();
+    }
+
+    @PostMapping("/{project}/recurring")
+    public ResponseEntity<RecurringTaskResponse> createRecurringTask(
+            @PathVariable String project,
+            @RequestBody CreateRecurringTaskRequest request
+    ) {
+        if (request == null || request.description() == null || request.description().isBlank()
+                || request.recurrence() == null || request.start() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        final Recurrence recurrence;
+        try {
+            recurrence = Recurrence.parse(request.recurrence(), LocalDate.parse(request.start(), DateFormats.DEADLINE_FORMAT));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return time(Phase.SERVICE, () -> service.addRecurringTask(project, request.description().trim(), recurrence))
+                .map(definition -> written(ResponseEntity.status(HttpStatus.CREATED))
+                        .body(time(Phase.MAPPING, () -> toRecurringTaskResponse(definition))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    // Checking off an occurrence stores it as a done task
+    @PostMapping("/{project}/recurring/{recurringId}/occurrences")
+    public ResponseEntity<TaskResponse> checkOccurrence(
+            @PathVariable String project,
+            @PathVariable long recurringId,
+            @RequestParam("date") String date
+    ) {
+        final LocalDate day;
+        try {
+            day = LocalDate.parse(date, DateFormats.DEADLINE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean inProject = service.findRecurringTask(recurringId)
+                .filter(definition -> definition.project().equals(project))
+                .isPresent();
+        Optional<Task> checked = inProject
+                ? time(Phase.SERVICE, () -> service.checkOccurrence(recurringId, day))
+                : Optional.empty();
+        return checked
+                .map(task -> written(ResponseEntity.status(HttpStatus.CREATED))
+                        .body(time(Phase.MAPPING, () -> toTaskResponse(task))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
-    @GetMapping("/view_by_deadline")
     public List<DeadlineGroupResponse> viewByDeadline(){
-        TaskListService.DeadlineGroups groups = service.viewByDeadlineGroups();
+        TaskListService.DeadlineGroups groups = time(Phase.SERVICE, service::viewByDeadlineGroups);
+        return time(Phase.MAPPING, () -> toDeadlineGroupResponses(groups));
+    }
+
+    @GetMapping("/view_by_deadline")
+    public ResponseEntity<List<DeadlineGroupResponse>> viewByDeadline(
+            @RequestHeader(name = MIN_VERSION_HEADER, required = false) Long minVersion
+    ) {
+        if (readModels == null) {
+            return ResponseEntity.ok(viewByDeadline());
+        }
+        return fromReadModels(minVersion, () -> {
+            TaskListService.DeadlineGroups groups = time(Phase.SERVICE,
+                    () -> service.withNextOccurrences(readModels.deadlineGroups()));
+            return time(Phase.MAPPING, () -> toDeadlineGroupResponses(groups));
+        });
+    }
+
+    @GetMapping("/today")
+    public ResponseEntity<List<ProjectResponse>> today(
+            @RequestHeader(name = MIN_VERSION_HEADER, required = false) Long minVersion
+    ) {
+        if (readModels == null) {
+            return ResponseEntity.ok(toProjectResponses(time(Phase.SERVICE, service::tasksDueToday)));
+        }
+        return fromReadModels(minVersion, () -> toProjectResponses(time(Phase.SERVICE,
+                () -> service.withOccurrencesDueToday(readModels.tasksDueToday()))));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<ProjectSummaryResponse>> summary(
+            @RequestHeader(name = MIN_VERSION_HEADER, required = false) Long minVersion
+    ) {
+        if (readModels == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return fromReadModels(minVersion, () -> time(Phase.SERVICE, readModels::projectSummaries).stream()
+                .map(ProjectController::toSummaryResponse)
+                .toList());
+    }
+
+    // Waits for the client's own writes if it asked to see them, then tells it which version it got
+    private <T> ResponseEntity<T> fromReadModels(Long minVersion, Supplier<T> read) {
+        if (minVersion != null && !readModels.awaitVersion(minVersion, READ_YOUR_WRITES_TIMEOUT)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        long version = readModels.status().appliedVersion();
+        return ResponseEntity.ok()
+                .header(VERSION_HEADER, Long.toString(version))
+                .body(read.get());
+    }
+
+    private ResponseEntity.BodyBuilder written(ResponseEntity.BodyBuilder response) {
+        return readModels == null ? response : response.header(VERSION_HEADER, Long.toString(readModels.publishedVersion()));
+    }
 
+    private ResponseEntity.HeadersBuilder<?> written(ResponseEntity.HeadersBuilder<?> response) {
+        return readModels == null ? response : response.header(VERSION_HEADER, Long.toString(readModels.publishedVersion()));
+    }
+
+    private List<DeadlineGroupResponse> toDeadlineGroupResponses(TaskListService.DeadlineGroups groups) {
         List<DeadlineGroupResponse> result = new ArrayList<>();
 
         for (var dataEntry : groups.byDeadline().entrySet()) {
@@ -108,19 +255,34 @@ public class ProjectController {
     }
 
     private List<ProjectResponse> toProjectResponses(Map<String, List<Task>> byProject) {
-        return byProject.entrySet().stream()
+        return time(Phase.MAPPING, () -> byProject.entrySet().stream()
                 .map(entry -> new ProjectResponse(
                         entry.getKey(),
-                        entry.getValue().stream().map(this::toTaskResponse).toList()
+                        entry.getValue().stream().map(ProjectController::toTaskResponse).toList()
                 ))
-                .toList();
+                .toList());
+    }
+
+    private static ProjectSummaryResponse toSummaryResponse(ProjectSummary summary) {
+        String nextDeadline = summary.nextDeadline() == null
+                ? null
+                : summary.nextDeadline().format(DateFormats.DEADLINE_FORMAT);
+        return new ProjectSummaryResponse(summary.name(), summary.tasks(), summary.done(), summary.overdue(), nextDeadline);
     }
 
-    private TaskResponse toTaskResponse(Task task) {
+    private static RecurringTaskResponse toRecurringTaskResponse(RecurringTask definition) {
+        return new RecurringTaskResponse(definition.id(), definition.description(), definition.recurrence().rule(),
+                definition.recurrence().start().format(DateFormats.DEADLINE_FORMAT));
+    }
+
+    static TaskResponse toTaskResponse(Task task) {
         String deadline = task.getDeadline()
                 .map(d -> d.format(DateFormats.DEADLINE_FORMAT))
                 .orElse(null);
 
-        return new TaskResponse(task.getId(), task.getDescription(), task.isDone(), deadline);
+        if (task instanceof Occurrence occurrence) {
+            return new TaskResponse(null, task.getDescription(), task.isDone(), deadline, occurrence.getRecurringId());
+        }
+        return new TaskResponse(task.getId(), task.getDescription(), task.isDone(), deadline, null);
     }
 }
@@ -0,0 +1,143 @@
+package com.ortecfinance.tasklist.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ortecfinance.tasklist.core.TaskChangeListener;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.rest.dto.ProjectResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the JSON of every project as a pre-serialized byte fragment and builds the {@code GET /projects} body
+ * by concatenating them. A change to a task only marks its own project dirty, so serialization work follows
+ * the number of changed projects rather than the number of tasks. While nothing changes the previous body is
+ * returned as is.
+ */
+public final class ProjectJsonCache implements TaskChangeListener {
+    private record Fragment(long version, byte[] json) {}
+
+    private record Body(long changes, byte[] json) {}
+
+    private final TaskListService service;
+    private final ObjectMapper mapper;
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final Map<String, Fragment> fragments = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong serializations = new AtomicLong();
+    private volatile Body body;
+
+    private ProjectJsonCache(TaskListService service, ObjectMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates a cache of the service's projects that follows its changes from then on. It starts empty, without
+     * reading the existing tasks: the first body is built from the service like any other.
+     */
+    public static ProjectJsonCache register(TaskListService service, ObjectMapper mapper) {
+        ProjectJsonCache cache = new ProjectJsonCache(service, mapper);
+        service.addChangeListener(cache);
+        return cache;
+    }
+
+    /**
+     * @return the JSON array of all projects, the same as serializing {@link ProjectController#getProjects()}
+     */
+    public byte[] projectsJson() {
+        // read before the projects, so a change made while building leaves the new body already out of date
+        long seen = changes.get();
+        Body current = body;
+        if (current != null && current.changes() == seen) {
+            return current.json();
+        }
+
+        // likewise per project: a fragment is stored under the version seen before its tasks were read
+        Map<String, Long> seenVersions = Map.copyOf(versions);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(current == null ? 256 : current.json().length);
+        out.write('[');
+        boolean first = true;
+        for (Map.Entry<String, List<Task>> project : service.allProjects().entrySet()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(fragment(project.getKey(), project.getValue(),
+                    seenVersions.getOrDefault(project.getKey(), 0L)));
+            first = false;
+        }
+        out.write(']');
+
+        byte[] json = out.toByteArray();
+        body = new Body(seen, json);
+        return json;
+    }
+
+    long serializations() {
+        return serializations.get();
+    }
+
+    @Override
+    public void projectAdded(String projectName) {
+        markDirty(projectName);
+    }
+
+    @Override
+    public void taskAdded(String projectName, Task task) {
+        markDirty(projectName);
+    }
+
+    // update events only carry the task, the service knows its project
+    @Override
+    public void doneChanged(Task task) {
+        markDirty(projectOf(task));
+    }
+
+    @Override
+    public void deadlineChanged(Task task, LocalDate previous) {
+        markDirty(projectOf(task));
+    }
+
+    @Override
+    public void taskRemoved(String projectName, Task task) {
+        markDirty(projectName);
+    }
+
+    private String projectOf(Task task) {
+        return service.findTask(task.getId()).map(TaskMatch::project).orElse(null);
+    }
+
+    private byte[] fragment(String projectName, List<Task> tasks, long version) {
+        Fragment cached = fragments.get(projectName);
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+
+        ProjectResponse response = new ProjectResponse(projectName,
+                tasks.stream().map(ProjectController::toTaskResponse).toList());
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        serializations.incrementAndGet();
+        fragments.put(projectName, new Fragment(version, json));
+        return json;
+    }
+
+    private void markDirty(String projectName) {
+        if (projectName != null) {
+            versions.merge(projectName, 1L, Long::sum);
+        }
+        changes.incrementAndGet();
+    }
+}
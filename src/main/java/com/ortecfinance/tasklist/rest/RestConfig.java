@@ -1,20 +1,139 @@
 package com.ortecfinance.tasklist.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ortecfinance.tasklist.archive.SegmentArchive;
+import com.ortecfinance.tasklist.archive.TaskArchiver;
+import com.ortecfinance.tasklist.binary.BinaryTaskServer;
+import com.ortecfinance.tasklist.core.CachingTaskRepository;
+import com.ortecfinance.tasklist.core.DeadlineReminderLog;
+import com.ortecfinance.tasklist.core.DeadlineScheduler;
 import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.JfrTaskRepository;
 import com.ortecfinance.tasklist.core.TaskListService;
 import com.ortecfinance.tasklist.core.TaskRepository;
+import com.ortecfinance.tasklist.jdbc.JdbcTaskRepository;
+import com.ortecfinance.tasklist.mapped.MappedTaskRepository;
+import com.ortecfinance.tasklist.readmodel.ReadModelProjector;
+import com.ortecfinance.tasklist.rest.admission.AdaptiveLimit;
+import com.ortecfinance.tasklist.rest.admission.AdmissionControlFilter;
+import com.ortecfinance.tasklist.rest.admission.AdmissionLimiter;
+import com.ortecfinance.tasklist.rest.admission.PriorityClass;
+import com.ortecfinance.tasklist.rest.timing.ServerTimingFilter;
+import com.ortecfinance.tasklist.rest.timing.TimingTaskRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
 
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Clock;
+import java.time.Duration;
+import java.time.Period;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @Configuration
 public class RestConfig {
+    // the decorated repository; the store and cache beans below are only its building blocks
     @Bean
-    public TaskRepository taskRepository() {
+    @Primary
+    public TaskRepository taskRepository(
+            @Value("${tasklist.repository}") String type,
+            @Value("${tasklist.timing.enabled}") boolean timingEnabled,
+            ObjectProvider<CachingTaskRepository> cachingTaskRepository,
+            ObjectProvider<InMemoryTaskRepository> inMemoryTaskRepository,
+            ObjectProvider<DataSource> taskDataSource,
+            ObjectProvider<MappedTaskRepository> mappedTaskRepository
+    ) {
+        TaskRepository repository = cachingTaskRepository.getIfAvailable();
+        if (repository == null) {
+            repository = store(type, inMemoryTaskRepository, taskDataSource, mappedTaskRepository);
+        }
+        repository = new JfrTaskRepository(repository);
+        return timingEnabled ? new TimingTaskRepository(repository) : repository;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasklist.cache.enabled", havingValue = "true")
+    public CachingTaskRepository cachingTaskRepository(
+            @Value("${tasklist.repository}") String type,
+            @Value("${tasklist.cache.max-weight}") long maxWeight,
+            ObjectProvider<InMemoryTaskRepository> inMemoryTaskRepository,
+            ObjectProvider<DataSource> taskDataSource,
+            ObjectProvider<MappedTaskRepository> mappedTaskRepository
+    ) {
+        return new CachingTaskRepository(store(type, inMemoryTaskRepository, taskDataSource, mappedTaskRepository),
+                maxWeight);
+    }
+
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "tasklist.cache.enabled", havingValue = "true")
+    public AutoCloseable cacheStatsEvents(CachingTaskRepository cache) {
+        return cache.recordStats();
+    }
+
+    private static TaskRepository store(
+            String type,
+            ObjectProvider<InMemoryTaskRepository> inMemoryTaskRepository,
+            ObjectProvider<DataSource> taskDataSource,
+            ObjectProvider<MappedTaskRepository> mappedTaskRepository
+    ) {
+        return switch (type) {
+            case "memory" -> inMemoryTaskRepository.getObject();
+            case "jdbc" -> JdbcTaskRepository.open(taskDataSource.getObject());
+            case "mapped" -> mappedTaskRepository.getObject();
+            default -> throw new IllegalArgumentException("Unknown tasklist.repository: " + type);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasklist.repository", havingValue = "memory")
+    public InMemoryTaskRepository inMemoryTaskRepository() {
         return new InMemoryTaskRepository();
     }
 
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "tasklist.repository", havingValue = "memory")
+    public AutoCloseable memoryFootprintEvents(InMemoryTaskRepository repository) {
+        return repository.recordMemoryFootprint();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "tasklist.repository", havingValue = "jdbc")
+    public HikariDataSource taskDataSource(
+            @Value("${tasklist.jdbc.url}") String url,
+            @Value("${tasklist.jdbc.username}") String username,
+            @Value("${tasklist.jdbc.password}") String password,
+            @Value("${tasklist.jdbc.pool-size}") int poolSize
+    ) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tasklist");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "tasklist.repository", havingValue = "mapped")
+    public MappedTaskRepository mappedTaskRepository(@Value("${tasklist.mapped.directory}") Path directory)
+            throws IOException {
+        return MappedTaskRepository.open(directory);
+    }
+
     @Bean
     public Clock clock() {
         return Clock.systemDefaultZone();
@@ -24,4 +143,107 @@ public class RestConfig {
     public TaskListService taskListService(TaskRepository repo, Clock clock){
         return new TaskListService(repo, clock);
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasklist.json-cache.enabled", havingValue = "true")
+    public ProjectJsonCache projectJsonCache(TaskListService service, ObjectMapper mapper) {
+        return ProjectJsonCache.register(service, mapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "tasklist.read-model.enabled", havingValue = "true")
+    public ReadModelProjector readModelProjector(
+            TaskListService service,
+            Clock clock,
+            @Value("${tasklist.read-model.max-staleness}") Duration maxStaleness
+    ) {
+        return service.addChangeListener(existing -> ReadModelProjector.start(existing, clock, maxStaleness));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService taskListExecutor() {
+        return Executors.newSingleThreadScheduledExecutor();
+    }
+
+    // Background jobs must start with the context even when lazy initialization is on
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty(name = "tasklist.reminders.enabled", havingValue = "true")
+    public DeadlineScheduler deadlineScheduler(TaskListService service, Clock clock, ScheduledExecutorService executor) {
+        DeadlineScheduler scheduler = service.addChangeListener(existing -> DeadlineScheduler.of(existing, clock));
+        scheduler.addListener(new DeadlineReminderLog());
+        scheduler.start(executor);
+        return scheduler;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "tasklist.archive.enabled", havingValue = "true")
+    public SegmentArchive segmentArchive(@Value("${tasklist.archive.directory}") Path directory) throws IOException {
+        return SegmentArchive.open(directory);
+    }
+
+    @Bean
+    @Lazy(false)
+    @ConditionalOnProperty(name = "tasklist.archive.enabled", havingValue = "true")
+    public TaskArchiver taskArchiver(
+            TaskListService service,
+            SegmentArchive archive,
+            Clock clock,
+            ScheduledExecutorService executor,
+            @Value("${tasklist.archive.max-done-age}") Period maxDoneAge,
+            @Value("${tasklist.archive.interval}") Duration interval
+    ) {
+        TaskArchiver archiver = new TaskArchiver(service, archive, clock, maxDoneAge);
+        service.addChangeListener(archiver);
+        archiver.start(executor, interval);
+        return archiver;
+    }
+
+    @Bean(destroyMethod = "close")
+    @Lazy(false)
+    @ConditionalOnProperty(name = "tasklist.binary.enabled", havingValue = "true")
+    public BinaryTaskServer binaryTaskServer(TaskListService service, @Value("${tasklist.binary.port}") int port)
+            throws IOException {
+        BinaryTaskServer server = BinaryTaskServer.open(service, new InetSocketAddress(port));
+        server.start();
+        return server;
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${tasklist.admission.enabled}") boolean enabled,
+            @Value("${tasklist.admission.read.algorithm}") String readAlgorithm,
+            @Value("${tasklist.admission.read.target-latency}") Duration readTarget,
+            @Value("${tasklist.admission.read.initial-limit}") int readInitial,
+            @Value("${tasklist.admission.read.max-limit}") int readMax,
+            @Value("${tasklist.admission.write.algorithm}") String writeAlgorithm,
+            @Value("${tasklist.admission.write.target-latency}") Duration writeTarget,
+            @Value("${tasklist.admission.write.initial-limit}") int writeInitial,
+            @Value("${tasklist.admission.write.max-limit}") int writeMax,
+            @Value("${tasklist.admission.retry-after}") Duration retryAfter
+    ) {
+        AdmissionControlFilter filter = new AdmissionControlFilter(Map.of(
+                PriorityClass.READ, new AdmissionLimiter(AdaptiveLimit.of(readAlgorithm, readTarget, readInitial, readMax)),
+                PriorityClass.WRITE, new AdmissionLimiter(AdaptiveLimit.of(writeAlgorithm, writeTarget, writeInitial, writeMax))
+        ), retryAfter);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/projects/*", "/tasks/*");
+        registration.setOrder(1);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+
+    // Inside admission control, so shed requests are not timed
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${tasklist.timing.enabled}") boolean enabled,
+            @Value("${tasklist.timing.slow-request-threshold}") Duration slowRequestThreshold
+    ) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(slowRequestThreshold));
+        registration.addUrlPatterns("/projects/*", "/tasks/*");
+        registration.setOrder(2);
+        registration.setEnabled(enabled);
+        return registration;
+    }
 }
@@ -0,0 +1,171 @@
+package com.ortecfinance.tasklist.rest;
+
+import com.ortecfinance.tasklist.archive.TaskArchiver;
+import com.ortecfinance.tasklist.core.QueryPlan;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.core.TaskQuery;
+import com.ortecfinance.tasklist.domain.DateFormats;
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.rest.dto.QueryPlanResponse;
+import com.ortecfinance.tasklist.rest.dto.TaskMatchResponse;
+import com.ortecfinance.tasklist.rest.timing.RequestTiming.Phase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.ortecfinance.tasklist.rest.timing.RequestTiming.time;
+
+/**
+ * Filtered task search across all projects. Every filter is optional, dates use dd-MM-yyyy and
+ * {@code sort} is one of id, deadline or project.
+ */
+@RestController
+@RequestMapping("/tasks")
+public class TaskQueryController {
+
+    private final TaskListService service;
+    // null unless archiving is enabled
+    private final TaskArchiver archiver;
+
+    public TaskQueryController(TaskListService service, ObjectProvider<TaskArchiver> archiver) {
+        this.service = service;
+        this.archiver = archiver.getIfAvailable();
+    }
+
+    // Open tasks with the nearest deadlines first, across all projects unless one is given
+    @GetMapping("/next")
+    public ResponseEntity<List<TaskMatchResponse>> next(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String project
+    ) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        String projectName = blankToNull(project);
+        if (projectName != null && !service.hasProject(projectName)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        List<TaskMatch> matches = time(Phase.SERVICE, () -> service.nextTasks(limit, projectName));
+        return ResponseEntity.ok(time(Phase.MAPPING, () -> matches.stream().map(this::toResponse).toList()));
+    }
+
+    // Archived tasks stay reachable by id
+    @GetMapping("/{taskId}")
+    public ResponseEntity<TaskMatchResponse> findTask(@PathVariable long taskId) {
+        return time(Phase.SERVICE, () -> archiver == null ? service.findTask(taskId) : archiver.findTask(taskId))
+                .map(match -> ResponseEntity.ok(time(Phase.MAPPING, () -> toResponse(match))))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TaskMatchResponse>> query(
+            @RequestParam(required = false) Long id,
+            @RequestParam(required = false) String project,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Boolean overdue,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return toQuery(id, project, done, from, to, overdue, text, sort, limit)
+                .map(query -> {
+                    List<TaskMatch> matches = time(Phase.SERVICE, () -> service.query(query));
+                    return ResponseEntity.ok(time(Phase.MAPPING, () -> matches.stream().map(this::toResponse).toList()));
+                })
+                .orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+
+    @GetMapping("/explain")
+    public ResponseEntity<QueryPlanResponse> explain(
+            @RequestParam(required = false) Long id,
+            @RequestParam(required = false) String project,
+            @RequestParam(required = false) Boolean done,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Boolean overdue,
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return toQuery(id, project, done, from, to, overdue, text, sort, limit)
+                .map(query -> {
+                    QueryPlan plan = time(Phase.SERVICE, () -> service.explain(query));
+                    return ResponseEntity.ok(time(Phase.MAPPING, () -> toResponse(plan)));
+                })
+                .orElseGet(() -> ResponseEntity.badRequest().build());
+    }
+
+    // empty when a date or the sort order cannot be parsed
+    private Optional<TaskQuery> toQuery(Long id, String project, Boolean done, String from, String to,
+                                        Boolean overdue, String text, String sort, Integer limit) {
+        final LocalDate fromDate;
+        final LocalDate toDate;
+        final TaskQuery.Sort sortOrder;
+        try {
+            fromDate = parseDate(from);
+            toDate = parseDate(to);
+            sortOrder = sort == null || sort.isBlank() ? null : TaskQuery.Sort.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (limit != null && limit < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TaskQuery(id, blankToNull(project), done, fromDate, toDate, overdue,
+                blankToNull(text), sortOrder, limit));
+    }
+
+    private static LocalDate parseDate(String date) {
+        return date == null || date.isBlank() ? null : LocalDate.parse(date.trim(), DateFormats.DEADLINE_FORMAT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private TaskMatchResponse toResponse(TaskMatch match) {
+        Task task = match.task();
+        String deadline = task.getDeadline()
+                .map(d -> d.format(DateFormats.DEADLINE_FORMAT))
+                .orElse(null);
+
+        if (task instanceof Occurrence occurrence) {
+            return new TaskMatchResponse(match.project(), null, task.getDescription(), task.isDone(), deadline,
+                    occurrence.getRecurringId());
+        }
+        return new TaskMatchResponse(match.project(), task.getId(), task.getDescription(), task.isDone(), deadline,
+                null);
+    }
+
+    private QueryPlanResponse toResponse(QueryPlan plan) {
+        Map<String, Long> considered = new LinkedHashMap<>();
+        for (QueryPlan.Candidate candidate : plan.considered()) {
+            considered.put(candidate.accessPath().name(), candidate.estimatedRows());
+        }
+
+        return new QueryPlanResponse(
+                plan.describe(),
+                plan.accessPath().name(),
+                plan.indexCondition(),
+                plan.estimatedRows(),
+                considered,
+                plan.residualFilters(),
+                plan.sort().name(),
+                plan.limit()
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * A concurrency limit that adapts to the latency observed for admitted requests.
+ * Implementations must be safe to call from many request threads.
+ */
+public interface AdaptiveLimit {
+    int getLimit();
+
+    /**
+     * @param latencyNanos time the request spent in the application
+     * @param inflight requests in progress when this one completed, including itself
+     */
+    void onSample(long latencyNanos, int inflight);
+
+    /**
+     * @return true while recent latency is above the target, i.e. the limit is being pushed down
+     */
+    boolean isCongested();
+
+    /**
+     * @param algorithm {@code aimd} or {@code gradient}
+     */
+    static AdaptiveLimit of(String algorithm, Duration target, int initialLimit, int maxLimit) {
+        return switch (algorithm.trim().toLowerCase(Locale.ROOT)) {
+            case "aimd" -> new AimdLimit(target, initialLimit, 1, maxLimit, 0.9);
+            case "gradient" -> new GradientLimit(target, initialLimit, 1, maxLimit);
+            default -> throw new IllegalArgumentException("Unknown limit algorithm: " + algorithm);
+        };
+    }
+}
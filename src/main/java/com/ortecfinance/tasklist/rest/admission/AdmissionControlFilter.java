@@ -0,0 +1,78 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+/**
+ * Admits a request only while its {@link PriorityClass} is within its adaptive concurrency limit and no higher
+ * priority class is under pressure. Everything else is answered straight away with {@code 429 Too Many Requests}
+ * and a {@code Retry-After} header instead of queueing behind the requests already in progress.
+ */
+public final class AdmissionControlFilter extends OncePerRequestFilter {
+    private final Map<PriorityClass, AdmissionLimiter> limiters;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(Map<PriorityClass, AdmissionLimiter> limiters, Duration retryAfter) {
+        if (!limiters.keySet().containsAll(EnumSet.allOf(PriorityClass.class))) {
+            throw new IllegalArgumentException("A limiter is needed for every priority class");
+        }
+        this.limiters = new EnumMap<>(limiters);
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    public AdmissionLimiter limiter(PriorityClass priorityClass) {
+        return limiters.get(priorityClass);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PriorityClass priorityClass = PriorityClass.of(request.getMethod());
+        AdmissionLimiter limiter = limiters.get(priorityClass);
+
+        if (higherPriorityUnderPressure(priorityClass)) {
+            limiter.shed();
+            reject(response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private boolean higherPriorityUnderPressure(PriorityClass priorityClass) {
+        for (PriorityClass higher : PriorityClass.values()) {
+            if (higher == priorityClass) {
+                return false;
+            }
+            if (limiters.get(higher).isUnderPressure()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletResponse response) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+    }
+}
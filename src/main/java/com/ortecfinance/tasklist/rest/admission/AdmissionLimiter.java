@@ -0,0 +1,65 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the requests in progress for one {@link PriorityClass} and admits new ones only while that count is
+ * below the current adaptive limit.
+ */
+public final class AdmissionLimiter {
+    private final AdaptiveLimit limit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AdmissionLimiter(AdaptiveLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @return true if the request was admitted, in which case {@link #release(long)} must follow
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit.getLimit()) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int current = inflight.getAndDecrement();
+        limit.onSample(latencyNanos, current);
+    }
+
+    /**
+     * Called when a request is turned away for the sake of a higher priority class.
+     */
+    void shed() {
+        rejected.incrementAndGet();
+    }
+
+    /**
+     * @return true while latency is above target and at least half of the limit is in use
+     */
+    public boolean isUnderPressure() {
+        return limit.isCongested() && inflight.get() * 2 >= Math.max(1, limit.getLimit());
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import java.time.Duration;
+
+/**
+ * Additive increase, multiplicative decrease per window, a window being as many completed requests as the limit
+ * allows at once, so roughly one round trip: the limit grows by one after a window in which every request
+ * finished within the latency target while the limit was in use, and is cut by {@code backoff} at the first
+ * request that did not, which starts a new window. The slow requests that follow in that window were admitted
+ * under the old limit and do not cut it again.
+ */
+public final class AimdLimit implements AdaptiveLimit {
+    private final long targetNanos;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private double limit;
+    private boolean congested;
+    private int windowSamples;
+    private boolean windowUsed;
+    private boolean windowBackedOff;
+
+    public AimdLimit(Duration target, int initialLimit, int minLimit, int maxLimit, double backoff) {
+        this.targetNanos = target.toNanos();
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inflight) {
+        congested = latencyNanos > targetNanos;
+        if (congested && !windowBackedOff) {
+            // a new window under the new limit, which the rest of the burst falls into
+            limit = Math.max(minLimit, limit * backoff);
+            windowSamples = 0;
+            windowUsed = false;
+            windowBackedOff = true;
+        }
+        // only probe upwards when the current limit is actually being used
+        if (inflight * 2 >= limit) {
+            windowUsed = true;
+        }
+        if (++windowSamples >= limit) {
+            if (!windowBackedOff && windowUsed) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            windowSamples = 0;
+            windowUsed = false;
+            windowBackedOff = false;
+        }
+    }
+
+    @Override
+    public synchronized boolean isCongested() {
+        return congested;
+    }
+}
@@ -0,0 +1,56 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import java.time.Duration;
+
+/**
+ * Gradient limit: compares the latest latency with a slowly moving baseline and scales the limit by their
+ * ratio, leaving headroom of roughly the square root of the limit for queueing. When the baseline itself
+ * drifts above the target, the target is used as the baseline so the limit keeps latency near it.
+ */
+public final class GradientLimit implements AdaptiveLimit {
+    private static final double BASELINE_SMOOTHING = 0.05;
+    private static final double LIMIT_SMOOTHING = 0.2;
+
+    private final long targetNanos;
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double baselineNanos = -1;
+    private boolean congested;
+
+    public GradientLimit(Duration target, int initialLimit, int minLimit, int maxLimit) {
+        this.targetNanos = target.toNanos();
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public synchronized void onSample(long latencyNanos, int inflight) {
+        long latency = Math.max(1, latencyNanos);
+        baselineNanos = baselineNanos < 0
+                ? latency
+                : baselineNanos + BASELINE_SMOOTHING * (latency - baselineNanos);
+        congested = latency > targetNanos;
+
+        double baseline = Math.min(baselineNanos, targetNanos);
+        double gradient = Math.max(0.5, Math.min(1.0, baseline / latency));
+
+        // an idle limit says nothing about capacity, so do not let it grow without traffic
+        if (gradient == 1.0 && inflight * 2 < limit) {
+            return;
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit + LIMIT_SMOOTHING * (target - limit)));
+    }
+
+    @Override
+    public synchronized boolean isCongested() {
+        return congested;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+/**
+ * Request classes with their own concurrency budget, highest priority first. A class is shed while any class
+ * before it is under pressure, so reads keep flowing when writes start to slow the service down.
+ */
+public enum PriorityClass {
+    READ,
+    WRITE;
+
+    public static PriorityClass of(String httpMethod) {
+        return switch (httpMethod) {
+            case "GET", "HEAD", "OPTIONS" -> READ;
+            default -> WRITE;
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+import java.util.List;
+
+public record CompletionResponse(
+    List<String> projects,          // alphabetically
+    List<String> words              // description words, the most used first
+) {}
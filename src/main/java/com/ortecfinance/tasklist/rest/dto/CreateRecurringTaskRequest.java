@@ -0,0 +1,7 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+public record CreateRecurringTaskRequest(
+    String description,
+    String recurrence,              // "every day", "every <n> days" or "weekly mon,thu"
+    String start                    // dd-MM-yyyy, the first day it can fall due
+) {}
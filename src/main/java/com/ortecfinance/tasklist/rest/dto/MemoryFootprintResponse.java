@@ -0,0 +1,11 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+import java.util.List;
+
+public record MemoryFootprintResponse(
+    long totalBytes,
+    int tasks,
+    long mapBytes,                  // project map, entries and names
+    long deadlineBytes,             // shared deadline dates
+    List<ProjectMemoryResponse> projects
+) {}
@@ -0,0 +1,10 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+public record ProjectMemoryResponse(
+    String name,
+    int tasks,
+    long totalBytes,
+    long taskBytes,
+    long descriptionBytes,
+    long listBytes                  // task array including unused capacity
+) {}
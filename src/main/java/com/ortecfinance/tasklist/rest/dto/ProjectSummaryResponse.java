@@ -0,0 +1,9 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+public record ProjectSummaryResponse(
+    String name,
+    int tasks,
+    int done,
+    int overdue,
+    String nextDeadline             // nearest deadline of an open task that is not overdue, or null
+) {}
@@ -0,0 +1,15 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record QueryPlanResponse(
+    String plan,                    // human readable summary, e.g. "PROJECT_SCAN (project = 'Secrets'), ~3 rows, ..."
+    String accessPath,
+    String indexCondition,
+    long estimatedRows,
+    Map<String, Long> considered,   // access path -> estimated rows
+    List<String> residualFilters,
+    String sort,
+    Integer limit
+) {}
@@ -0,0 +1,3 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+public record RecurringTaskResponse(long id, String description, String recurrence, String start) {}
@@ -0,0 +1,13 @@
+package com.ortecfinance.tasklist.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public record TaskMatchResponse(
+    String project,
+    Long id,                        // null for an occurrence of a recurring task
+    String description,
+    boolean done,
+    String deadline,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long recurringId                // with the deadline identifies an occurrence, left out for stored tasks
+) {}
@@ -1,3 +1,12 @@
 package com.ortecfinance.tasklist.rest.dto;
 
-public record TaskResponse(long id, String description, boolean done, String deadline) {}
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public record TaskResponse(
+    Long id,                        // null for an occurrence of a recurring task
+    String description,
+    boolean done,
+    String deadline,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Long recurringId                // with the deadline identifies an occurrence, left out for stored tasks
+) {}
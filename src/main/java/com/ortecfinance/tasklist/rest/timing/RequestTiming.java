@@ -0,0 +1,145 @@
+package com.ortecfinance.tasklist.rest.timing;
+
+import java.util.function.Supplier;
+
+/**
+ * Time spent per phase of the current request, collected on the request thread. Phases may nest: the time of
+ * an inner phase (a repository call inside a service call) is only counted for the inner phase, so the phases
+ * add up to at most the request's total. Outside a timed request every method is a cheap no-op.
+ */
+public final class RequestTiming {
+    public enum Phase {
+        REPOSITORY("repo"),
+        SERVICE("service"),
+        MAPPING("mapping"),
+        SERIALIZATION("serialization");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long start;
+    private final long[] nanos = new long[PHASES.length];
+    private long recorded;
+    private long handlerEnd;
+    private long end;
+
+    private RequestTiming(long start) {
+        this.start = start;
+    }
+
+    /**
+     * Starts timing a request on this thread; must be paired with {@link #finish()}.
+     */
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming(System.nanoTime());
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stops timing; everything after the handler returned its body counts as serialization.
+     */
+    void finish() {
+        end = System.nanoTime();
+        CURRENT.remove();
+        if (handlerEnd != 0) {
+            add(Phase.SERIALIZATION, end - handlerEnd);
+        }
+    }
+
+    public static <T> T time(Phase phase, Supplier<T> work) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return work.get();
+        }
+        long started = System.nanoTime();
+        long recordedBefore = timing.recorded;
+        try {
+            return work.get();
+        } finally {
+            long nested = timing.recorded - recordedBefore;
+            timing.add(phase, System.nanoTime() - started - nested);
+        }
+    }
+
+    public static void time(Phase phase, Runnable work) {
+        time(phase, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Marks the moment the handler hands its body to the message converters.
+     */
+    static void handlerReturned() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.handlerEnd == 0) {
+            timing.handlerEnd = System.nanoTime();
+        }
+    }
+
+    long nanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    long totalNanos() {
+        return end - start;
+    }
+
+    /**
+     * @return every phase and the total of the finished request, durations in milliseconds
+     */
+    String toHeader() {
+        StringBuilder header = new StringBuilder(96);
+        for (Phase phase : PHASES) {
+            appendMetric(header, phase.metricName(), nanos[phase.ordinal()]);
+        }
+        appendMetric(header, "total", totalNanos());
+        return header.toString();
+    }
+
+    /**
+     * @return the value of a {@code Server-Timing} header sent before the body: the phases so far, without
+     *         serialization, and the time up to now as the total
+     */
+    String toResponseHeader() {
+        StringBuilder header = new StringBuilder(80);
+        for (Phase phase : PHASES) {
+            if (phase != Phase.SERIALIZATION) {
+                appendMetric(header, phase.metricName(), nanos[phase.ordinal()]);
+            }
+        }
+        appendMetric(header, "total", System.nanoTime() - start);
+        return header.toString();
+    }
+
+    private void add(Phase phase, long elapsed) {
+        nanos[phase.ordinal()] += elapsed;
+        recorded += elapsed;
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        // milliseconds with three decimals, without going through String.format
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+        header.append(name).append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) header.append('0');
+        if (fraction < 10) header.append('0');
+        header.append(fraction);
+    }
+}
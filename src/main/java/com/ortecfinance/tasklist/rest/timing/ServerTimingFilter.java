@@ -0,0 +1,106 @@
+package com.ortecfinance.tasklist.rest.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Adds a {@code Server-Timing} header with the time spent in the repository, the service and DTO mapping to every
+ * response. The header is set when the body starts, so the body streams to the client unbuffered and
+ * serialization is not part of the header. Requests slower than the threshold are logged with the full
+ * breakdown, serialization included.
+ */
+public final class ServerTimingFilter extends OncePerRequestFilter {
+    static final String HEADER = "Server-Timing";
+    private static final System.Logger SLOW_REQUESTS = System.getLogger("tasklist.slow-requests");
+
+    private final long slowRequestNanos;
+
+    /**
+     * @param slowRequestThreshold requests taking longer are logged, zero or negative to log none
+     */
+    public ServerTimingFilter(Duration slowRequestThreshold) {
+        this.slowRequestNanos = slowRequestThreshold.isNegative() || slowRequestThreshold.isZero()
+                ? Long.MAX_VALUE
+                : slowRequestThreshold.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        TimingResponse timed = new TimingResponse(response, timing);
+        try {
+            chain.doFilter(request, timed);
+        } finally {
+            timed.setTimingHeader();
+            timing.finish();
+            if (timing.totalNanos() > slowRequestNanos) {
+                SLOW_REQUESTS.log(System.Logger.Level.WARNING, "slow request method={0} path={1} status={2} {3}",
+                        request.getMethod(), request.getRequestURI(), response.getStatus(), timing.toHeader());
+            }
+        }
+    }
+
+    // sets the header just before anything can commit the response
+    private static final class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestTiming timing;
+        private boolean headerSet;
+
+        private TimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        private void setTimingHeader() {
+            if (!headerSet && !isCommitted()) {
+                setHeader(HEADER, timing.toResponseHeader());
+            }
+            headerSet = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            setTimingHeader();
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            setTimingHeader();
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ortecfinance.tasklist.rest.timing;
+
+import com.ortecfinance.tasklist.core.RecurringTask;
+import com.ortecfinance.tasklist.core.TaskChangeListener;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.core.TaskRepository;
+import com.ortecfinance.tasklist.domain.Task;
+import com.ortecfinance.tasklist.rest.timing.RequestTiming.Phase;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Adds the time of every repository call to the {@code repo} phase of the current request.
+ */
+public final class TimingTaskRepository implements TaskRepository {
+    private final TaskRepository delegate;
+
+    public TimingTaskRepository(TaskRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addProject(String name) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.addProject(name));
+    }
+
+    @Override
+    public void addTask(String projectName, Task task) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.addTask(projectName, task));
+    }
+
+    @Override
+    public void addTasks(String projectName, List<Task> tasks) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.addTasks(projectName, tasks));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.updateTask(task));
+    }
+
+    @Override
+    public Optional<List<Task>> findProjectTasks(String projectName) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.findProjectTasks(projectName));
+    }
+
+    @Override
+    public Optional<Task> findTaskById(long id) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.findTaskById(id));
+    }
+
+    @Override
+    public Optional<TaskMatch> findTaskMatch(long id) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.findTaskMatch(id));
+    }
+
+    @Override
+    public Map<String, List<Task>> allProjects() {
+        return RequestTiming.time(Phase.REPOSITORY, delegate::allProjects);
+    }
+
+    @Override
+    public List<TaskMatch> findTasksByDeadline(LocalDate from, LocalDate to) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.findTasksByDeadline(from, to));
+    }
+
+    @Override
+    public int countTasksByDeadline(LocalDate from, LocalDate to, Boolean done) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.countTasksByDeadline(from, to, done));
+    }
+
+    @Override
+    public int removeTasks(String projectName, Set<Long> taskIds) {
+        return RequestTiming.time(Phase.REPOSITORY, () -> delegate.removeTasks(projectName, taskIds));
+    }
+
+    @Override
+    public void addRecurringTask(RecurringTask definition) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.addRecurringTask(definition));
+    }
+
+    @Override
+    public void addMaterializedOccurrence(long recurringId, LocalDate day) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.addMaterializedOccurrence(recurringId, day));
+    }
+
+    @Override
+    public List<RecurringTask> allRecurringTasks() {
+        return RequestTiming.time(Phase.REPOSITORY, delegate::allRecurringTasks);
+    }
+
+    @Override
+    public Map<Long, Set<LocalDate>> materializedOccurrences() {
+        return RequestTiming.time(Phase.REPOSITORY, delegate::materializedOccurrences);
+    }
+
+    @Override
+    public void forEachTask(TaskChangeListener visitor) {
+        RequestTiming.time(Phase.REPOSITORY, () -> delegate.forEachTask(visitor));
+    }
+
+    @Override
+    public boolean keepsTasksOffHeap() {
+        return delegate.keepsTasksOffHeap();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ortecfinance.tasklist;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.rest.ProjectController;
+import com.ortecfinance.tasklist.rest.ProjectJsonCache;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures bytes allocated per call on the hot read paths and fails when a call exceeds the budget checked in
+ * at src/test/resources/allocation-budgets.properties. A budget is {@code base + perTask * tasks}, so the
+ * same entry holds for every dataset size.
+ */
+class AllocationBudgetTest {
+    private static final int[] DATASET_SIZES = {100, 1_000, 10_000};
+    private static final int PROJECTS = 10;
+    private static final int WARMUP_CALLS = 200;
+    private static final int MEASURED_CALLS = 50;
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+
+    private static final Map<String, Function<Fixture, Object>> OPERATIONS = Map.of(
+            "service.allProjects", f -> f.service.allProjects(),
+            "service.tasksDueToday", f -> f.service.tasksDueToday(),
+            "service.viewByDeadlineGroups", f -> f.service.viewByDeadlineGroups(),
+            "controller.getProjects", f -> f.controller.getProjects(),
+            "controller.getProjectsCached", f -> f.jsonCache.projectsJson(),
+            "controller.viewByDeadline", f -> f.controller.viewByDeadline()
+    );
+
+    private static final Properties BUDGETS = loadBudgets();
+
+    static Stream<Arguments> operations() {
+        return OPERATIONS.keySet().stream().sorted()
+                .flatMap(name -> Arrays.stream(DATASET_SIZES).mapToObj(size -> Arguments.of(name, size)));
+    }
+
+    @ParameterizedTest(name = "{0} with {1} tasks")
+    @MethodSource("operations")
+    void allocation_per_call_stays_within_budget(String operation, int tasks) {
+        com.sun.management.ThreadMXBean threads = allocationCounters();
+        Fixture fixture = new Fixture(tasks);
+        Function<Fixture, Object> call = OPERATIONS.get(operation);
+
+        Object sink = null;
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            sink = call.apply(fixture);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            sink = call.apply(fixture);
+        }
+        long perCall = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+
+        long budget = budget(operation, tasks);
+        assertTrue(sink != null && perCall <= budget,
+                () -> String.format("%s allocated %,d bytes per call for %,d tasks, budget is %,d",
+                        operation, perCall, tasks, budget));
+    }
+
+    private static long budget(String operation, int tasks) {
+        String base = BUDGETS.getProperty(operation + ".base");
+        String perTask = BUDGETS.getProperty(operation + ".perTask");
+        if (base == null || perTask == null) {
+            throw new IllegalStateException("No allocation budget for " + operation);
+        }
+        return Long.parseLong(base) + Long.parseLong(perTask) * tasks;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounters() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "JVM does not expose per-thread allocation counters");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported(), "Allocation counters not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("allocation-budgets.properties is missing");
+            }
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return budgets;
+    }
+
+    private static final class Fixture {
+        private final TaskListService service;
+        private final ProjectController controller;
+        private final ProjectJsonCache jsonCache;
+
+        private Fixture(int tasks) {
+            Clock clock = Clock.fixed(Instant.parse("2021-11-11T00:00:00Z"), ZoneId.of("UTC"));
+            service = new TaskListService(new InMemoryTaskRepository(), clock);
+            controller = new ProjectController(service);
+            jsonCache = ProjectJsonCache.register(service, new ObjectMapper());
+
+            for (int p = 0; p < PROJECTS; p++) {
+                service.addProject("project-" + p);
+            }
+            for (int i = 0; i < tasks; i++) {
+                long id = service.createTask("project-" + (i % PROJECTS), "Task number " + i).orElseThrow().getId();
+                // half the tasks get one of 30 deadlines, every tenth of those is due today
+                if (i % 2 == 0) {
+                    service.setDeadline(id, TODAY.plusDays(i % 20 == 0 ? 0 : i % 30));
+                }
+                if (i % 3 == 0) {
+                    service.setDone(id, true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.ortecfinance.tasklist.archive;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.MutableClock;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskArchiverTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void moves_tasks_done_longer_than_the_max_age_out_of_the_live_set() throws Exception {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(), clock);
+        TaskArchiver archiver = newArchiver(service);
+        service.addProject("secrets");
+        service.addTask("secrets", "Eat more donuts.");
+        service.addTask("secrets", "Destroy all humans.");
+        service.addTask("secrets", "Open task");
+        service.setDeadline(1, LocalDate.of(2021, 11, 20));
+        service.setDone(1, true);
+
+        clock.advance(Duration.ofDays(5));
+        service.setDone(2, true);
+        assertEquals(0, archiver.archiveCompleted());
+
+        clock.advance(Duration.ofDays(3));
+        assertEquals(1, archiver.archiveCompleted());
+
+        assertEquals(List.of(2L, 3L), ids(service.allProjects().get("secrets")));
+        assertTrue(service.findTask(1).isEmpty());
+
+        TaskMatch archived = archiver.findTask(1).orElseThrow();
+        assertEquals("secrets", archived.project());
+        assertEquals("Eat more donuts.", archived.task().getDescription());
+        assertTrue(archived.task().isDone());
+        assertEquals(LocalDate.of(2021, 11, 20), archived.task().getDeadline().orElseThrow());
+
+        Map<String, List<Task>> all = archiver.allProjectsIncludingArchived();
+        assertEquals(List.of(1L, 2L, 3L), ids(all.get("secrets")));
+    }
+
+    @Test
+    void archive_survives_a_restart_and_ids_are_not_reused() throws Exception {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(), clock);
+        TaskArchiver archiver = newArchiver(service);
+        service.addProject("secrets");
+        service.addTask("secrets", "Eat more donuts.");
+        service.setDone(1, true);
+        clock.advance(Duration.ofDays(10));
+        assertEquals(1, archiver.archiveCompleted());
+
+        TaskListService restarted = new TaskListService(new InMemoryTaskRepository(), clock);
+        TaskArchiver reopened = newArchiver(restarted);
+        restarted.addProject("secrets");
+        Task task = restarted.createTask("secrets", "Destroy all humans.").orElseThrow();
+
+        assertEquals(2, task.getId());
+        assertEquals("Eat more donuts.", reopened.findTask(1).orElseThrow().task().getDescription());
+    }
+
+    @Test
+    void archives_descriptions_longer_than_64_kilobytes() throws Exception {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(), clock);
+        TaskArchiver archiver = newArchiver(service);
+        String description = "donuts ☺ ".repeat(10_000);
+        service.addProject("secrets");
+        service.addTask("secrets", description);
+        service.setDone(1, true);
+        clock.advance(Duration.ofDays(10));
+
+        assertEquals(1, archiver.archiveCompleted());
+        assertEquals(description, newArchiver(new TaskListService(new InMemoryTaskRepository(), clock))
+                .findTask(1).orElseThrow().task().getDescription());
+    }
+
+    @Test
+    void keeps_tasks_live_when_the_archive_cannot_be_written() throws Exception {
+        Path blocked = directory.resolve("blocked");
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(), clock);
+        TaskArchiver archiver = new TaskArchiver(service, SegmentArchive.open(blocked), clock, Period.ofDays(7));
+        service.addChangeListener(archiver);
+        service.addProject("secrets");
+        service.addTask("secrets", "Eat more donuts.");
+        service.setDone(1, true);
+        clock.advance(Duration.ofDays(10));
+        Files.writeString(blocked, "not a directory");
+
+        assertThrows(IOException.class, archiver::archiveCompleted);
+        assertTrue(service.findTask(1).isPresent());
+    }
+
+    private TaskArchiver newArchiver(TaskListService service) throws Exception {
+        TaskArchiver archiver = new TaskArchiver(service, SegmentArchive.open(directory), clock, Period.ofDays(7));
+        service.addChangeListener(archiver);
+        return archiver;
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ortecfinance.tasklist.bench;
+
+import com.ortecfinance.tasklist.TaskListApplication;
+import com.ortecfinance.tasklist.binary.BinaryTaskClient;
+import com.ortecfinance.tasklist.binary.BinaryTaskServer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the REST path with the binary protocol on the same running application: creating tasks one
+ * request at a time over HTTP, one at a time over the binary protocol and pipelined over the binary protocol,
+ * then reading all projects back.
+ *
+ * <pre>java -cp target/test-classes:target/classes:&lt;dependencies&gt; com.ortecfinance.tasklist.bench.BinaryProtocolBenchmark [tasks]</pre>
+ */
+public final class BinaryProtocolBenchmark {
+    private static final int READS = 200;
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) SpringApplication.run(
+                TaskListApplication.class,
+                "--server.port=0", "--tasklist.binary.enabled=true", "--tasklist.binary.port=0",
+                "--logging.level.root=WARN")) {
+            URI base = URI.create("http://localhost:" + context.getWebServer().getPort());
+            InetSocketAddress binaryAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    context.getBean(BinaryTaskServer.class).getPort());
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            try (BinaryTaskClient client = BinaryTaskClient.connect(binaryAddress)) {
+                // warm up both paths before measuring
+                client.createProject("warmup");
+                client.createTasks("warmup", descriptions(tasks));
+                for (int i = 0; i < tasks / 10; i++) {
+                    post(http, base.resolve("/projects/warmup/tasks"), "{\"description\":\"Warm up " + i + "\"}");
+                }
+
+                client.createProject("rest");
+                client.createProject("binary");
+                client.createProject("pipelined");
+
+                System.out.printf("%-28s %12s%n", "", "ops/s");
+                report("create task, REST", tasks, () -> {
+                    for (int i = 0; i < tasks; i++) {
+                        post(http, base.resolve("/projects/rest/tasks"), "{\"description\":\"Task " + i + "\"}");
+                    }
+                });
+                report("create task, binary", tasks, () -> {
+                    for (int i = 0; i < tasks; i++) {
+                        client.createTask("binary", "Task " + i);
+                    }
+                });
+                report("create task, pipelined", tasks, () -> client.createTasks("pipelined", descriptions(tasks)));
+                report("get projects, REST", READS, () -> {
+                    for (int i = 0; i < READS; i++) {
+                        http.send(HttpRequest.newBuilder(base.resolve("/projects")).GET().build(),
+                                HttpResponse.BodyHandlers.ofByteArray());
+                    }
+                });
+                report("get projects, binary", READS, () -> {
+                    for (int i = 0; i < READS; i++) {
+                        client.getProjects();
+                    }
+                });
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        void run() throws Exception;
+    }
+
+    private static void report(String name, int operations, Run run) throws Exception {
+        long start = System.nanoTime();
+        run.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-28s %,12.0f%n", name, operations / seconds);
+    }
+
+    private static void post(HttpClient http, URI uri, String json) throws Exception {
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("POST " + uri + " returned " + response.statusCode());
+        }
+    }
+
+    private static List<String> descriptions(int tasks) {
+        return IntStream.range(0, tasks).mapToObj(i -> "Task " + i).toList();
+    }
+}
@@ -0,0 +1,116 @@
+package com.ortecfinance.tasklist.bench;
+
+import com.ortecfinance.tasklist.cli.TaskListCliServer;
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Opens thousands of console sessions against one CLI server at the same time. Every session connects, waits
+ * until all others are connected, then runs a script of adds, checks, deadlines and views one command at a
+ * time, waiting for the prompt in between like an operator would. Reports throughput and command latency
+ * percentiles and checks that no task id was handed out twice.
+ *
+ * <pre>java -cp target/test-classes:target/classes:&lt;dependencies&gt; com.ortecfinance.tasklist.bench.CliServerLoadBenchmark [sessions] [commands]</pre>
+ */
+public final class CliServerLoadBenchmark {
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        TaskListService service = new TaskListService(new InMemoryTaskRepository());
+        for (int p = 0; p < 10; p++) {
+            service.addProject("project-" + p);
+        }
+
+        try (TaskListCliServer server = TaskListCliServer.open(service,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.start();
+            CountDownLatch connected = new CountDownLatch(sessions);
+            List<Future<long[]>> latencies = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int s = 0; s < sessions; s++) {
+                int session = s;
+                latencies.add(clients.submit(() -> runSession(server.getPort(), session, commands, connected)));
+            }
+
+            long[] all = new long[sessions * commands];
+            int filled = 0;
+            for (Future<long[]> session : latencies) {
+                long[] times = session.get();
+                System.arraycopy(times, 0, all, filled, times.length);
+                filled += times.length;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Arrays.sort(all);
+
+            long tasks = service.allProjects().values().stream().mapToLong(List::size).sum();
+            long ids = service.allProjects().values().stream().flatMap(List::stream).mapToLong(t -> t.getId()).distinct().count();
+            System.out.printf("%,d sessions, %,d commands in %.1f s: %,.0f commands/s%n",
+                    sessions, all.length, seconds, all.length / seconds);
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+            System.out.printf("%,d tasks, %,d distinct ids%n", tasks, ids);
+            if (tasks != ids) {
+                throw new IllegalStateException("Task ids were handed out twice");
+            }
+        }
+    }
+
+    private static long[] runSession(int port, int session, int commands, CountDownLatch connected) throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            awaitPrompt(in);
+            connected.countDown();
+            connected.await();
+
+            long[] latencies = new long[commands];
+            for (int c = 0; c < commands; c++) {
+                long started = System.nanoTime();
+                out.write((command(session, c) + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                awaitPrompt(in);
+                latencies[c] = System.nanoTime() - started;
+            }
+            out.write("quit\n".getBytes(StandardCharsets.UTF_8));
+            return latencies;
+        }
+    }
+
+    private static String command(int session, int c) {
+        return switch (c % 5) {
+            case 0, 1 -> "add task project-" + (session % 10) + " Session " + session + " task " + c;
+            case 2 -> "deadline " + (1 + session) + " 11-11-2021";
+            case 3 -> "check " + (1 + session);
+            default -> c % 10 == 4 ? "today" : "top 5";
+        };
+    }
+
+    // the prompt has no line end, so read up to it character by character
+    private static void awaitPrompt(BufferedReader in) throws Exception {
+        int previous = -1;
+        for (int ch = in.read(); ch != -1; ch = in.read()) {
+            if (previous == '>' && ch == ' ') {
+                return;
+            }
+            previous = ch;
+        }
+        throw new IllegalStateException("Session closed before the prompt");
+    }
+}
@@ -0,0 +1,87 @@
+package com.ortecfinance.tasklist.bench;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.domain.Task;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Counts the tasks due today and the overdue open tasks among millions of tasks three ways: the former
+ * {@code Optional<LocalDate>} comparison per task, the packed column scan in scalar code and the same scan
+ * with the Vector API.
+ *
+ * <pre>java --add-modules jdk.incubator.vector -cp target/test-classes:target/classes:&lt;dependencies&gt; com.ortecfinance.tasklist.bench.DeadlineScanBenchmark [tasks]</pre>
+ */
+public final class DeadlineScanBenchmark {
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Clock clock = Clock.fixed(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+
+        System.setProperty("tasklist.scan.scalar", "true");
+        TaskListService scalar = new TaskListService(repository, clock);
+        for (int p = 0; p < 100; p++) {
+            scalar.addProject("project-" + p);
+        }
+        for (int i = 0; i < taskCount; i++) {
+            Task task = scalar.createTask("project-" + (i % 100), "Task " + i).orElseThrow();
+            if (i % 3 != 0) {
+                scalar.setDeadline(task.getId(), TODAY.plusDays(i % 365 - 180));
+            }
+            if (i % 4 == 0) {
+                scalar.setDone(task.getId(), true);
+            }
+        }
+        System.setProperty("tasklist.scan.scalar", "false");
+        TaskListService vector = new TaskListService(repository, clock);
+
+        System.out.printf("%,d tasks%n%-34s %10s %10s%n", taskCount, "", "ms/scan", "matches");
+        run("due today, Optional per task", () -> countWithOptional(scalar.allProjects(), TODAY, TODAY, false));
+        run("due today, scalar columns", () -> scalar.countDeadlines(TODAY, TODAY, null));
+        run("due today, vector columns", () -> vector.countDeadlines(TODAY, TODAY, null));
+        run("overdue, Optional per task", () -> countWithOptional(scalar.allProjects(), null, TODAY.minusDays(1), true));
+        run("overdue, scalar columns", () -> scalar.countDeadlines(null, TODAY.minusDays(1), false));
+        run("overdue, vector columns", () -> vector.countDeadlines(null, TODAY.minusDays(1), false));
+        run("tasksDueToday, scalar columns", () -> scalar.tasksDueToday().size());
+        run("tasksDueToday, vector columns", () -> vector.tasksDueToday().size());
+    }
+
+    private static void run(String name, IntSupplier scan) {
+        int matches = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            matches = scan.getAsInt();    // warm up
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            matches = scan.getAsInt();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / ROUNDS;
+        System.out.printf("%-34s %10.2f %,10d%n", name, millis, matches);
+    }
+
+    // the per-task filter tasksDueToday used before the column scan
+    private static int countWithOptional(Map<String, List<Task>> projects, LocalDate from, LocalDate to, boolean openOnly) {
+        int count = 0;
+        for (List<Task> tasks : projects.values()) {
+            for (Task task : tasks) {
+                if (task.getDeadline().isPresent()
+                        && (from == null || !task.getDeadline().get().isBefore(from))
+                        && !task.getDeadline().get().isAfter(to)
+                        && (!openOnly || !task.isDone())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
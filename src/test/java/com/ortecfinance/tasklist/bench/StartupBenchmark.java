@@ -0,0 +1,100 @@
+package com.ortecfinance.tasklist.bench;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time from launching the REST application to its first successful {@code GET /projects},
+ * once as a plain start and once with the fast-startup options (AOT, AppCDS archive, lazy initialization).
+ * Run through scripts/fast-startup.sh, which builds the jar and the CDS archive first.
+ *
+ * <pre>java -cp target/test-classes com.ortecfinance.tasklist.bench.StartupBenchmark &lt;jar&gt; &lt;cds archive&gt; [runs]</pre>
+ */
+public final class StartupBenchmark {
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: StartupBenchmark <jar> <cds archive> [runs]");
+            System.exit(2);
+        }
+        Path jar = Path.of(args[0]);
+        Path cdsArchive = Path.of(args[1]);
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        List<String> fastOptions = List.of(
+                "-XX:SharedArchiveFile=" + cdsArchive,
+                "-Dspring.aot.enabled=true",
+                "-Dspring.profiles.active=fast");
+
+        long[] plain = measure(jar, List.of(), runs);
+        long[] fast = measure(jar, fastOptions, runs);
+
+        System.out.printf("%-14s %10s %10s%n", "", "median ms", "best ms");
+        System.out.printf("%-14s %10d %10d%n", "plain", median(plain), plain[0]);
+        System.out.printf("%-14s %10d %10d%n", "fast-startup", median(fast), fast[0]);
+    }
+
+    private static long[] measure(Path jar, List<String> jvmOptions, int runs) throws Exception {
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstResponse(jar, jvmOptions);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static long timeToFirstResponse(Path jar, List<String> jvmOptions) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-jar", jar.toString(), "web", "--server.port=" + port));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/projects")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException notListeningYet) {
+                    // keep polling
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("No successful GET /projects within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+}
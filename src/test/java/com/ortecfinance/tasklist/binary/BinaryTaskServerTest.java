@@ -0,0 +1,155 @@
+package com.ortecfinance.tasklist.binary;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTaskServerTest {
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository(), Clock.systemDefaultZone());
+    private BinaryTaskServer server;
+    private BinaryTaskClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = BinaryTaskServer.open(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = BinaryTaskClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void supports_the_project_operations() throws IOException {
+        client.createProject("secrets");
+        Task task = client.createTask("secrets", "Eat more donuts.").orElseThrow();
+        assertTrue(client.setDeadline("secrets", task.getId(), LocalDate.of(2021, 11, 12)));
+
+        Map<String, List<Task>> projects = client.getProjects();
+
+        assertEquals(List.of("secrets"), List.copyOf(projects.keySet()));
+        Task read = projects.get("secrets").get(0);
+        assertEquals(task.getId(), read.getId());
+        assertEquals("Eat more donuts.", read.getDescription());
+        assertFalse(read.isDone());
+        assertEquals(Optional.of(LocalDate.of(2021, 11, 12)), read.getDeadline());
+    }
+
+    @Test
+    void reports_missing_projects_and_tasks_and_bad_input() throws IOException {
+        client.createProject("secrets");
+
+        assertEquals(Optional.empty(), client.createTask("nope", "X"));
+        assertFalse(client.setDeadline("secrets", 999, LocalDate.of(2021, 11, 12)));
+        assertThrows(IllegalArgumentException.class, () -> client.createProject("  "));
+        // the connection is still usable after an error response
+        assertTrue(client.createTask("secrets", "X").isPresent());
+    }
+
+    @Test
+    void groups_tasks_by_deadline() throws IOException {
+        client.createProject("secrets");
+        Task first = client.createTask("secrets", "Eat more donuts.").orElseThrow();
+        client.createTask("secrets", "Destroy all humans.").orElseThrow();
+        client.setDeadline("secrets", first.getId(), LocalDate.of(2021, 11, 12));
+
+        DeadlineGroups groups = client.viewByDeadline();
+
+        assertEquals(List.of(LocalDate.of(2021, 11, 12)), List.copyOf(groups.byDeadline().keySet()));
+        assertEquals("Destroy all humans.", groups.noDeadline().get("secrets").get(0).getDescription());
+    }
+
+    @Test
+    void answers_pipelined_requests_in_order() throws IOException {
+        client.createProject("batch");
+        List<String> descriptions = IntStream.range(0, 1000).mapToObj(i -> "Task " + i).toList();
+
+        List<Optional<Task>> created = client.createTasks("batch", descriptions);
+
+        assertEquals(1000, created.size());
+        for (int i = 0; i < created.size(); i++) {
+            assertEquals("Task " + i, created.get(i).orElseThrow().getDescription());
+        }
+        assertEquals(1000, service.allProjects().get("batch").size());
+    }
+
+    @Test
+    void refuses_responses_over_the_frame_limit_and_keeps_the_connection() throws IOException {
+        service.addProject("big");
+        String description = "x".repeat(1024 * 1024);
+        for (int i = 0; i <= BinaryProtocol.MAX_FRAME_BYTES / description.length(); i++) {
+            service.createTask("big", description);
+        }
+
+        assertThrows(IllegalStateException.class, client::getProjects);
+        assertThrows(IllegalStateException.class, client::viewByDeadline);
+        client.createProject("small");
+        assertTrue(client.createTask("small", "X").isPresent());
+    }
+
+    @Test
+    void a_slow_request_does_not_hold_up_other_connections() throws Exception {
+        AtomicBoolean blocking = new AtomicBoolean();
+        CountDownLatch release = new CountDownLatch(1);
+        TaskListService slow = new TaskListService(new InMemoryTaskRepository() {
+            @Override
+            public Map<String, List<Task>> allProjects() {
+                if (blocking.get()) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.allProjects();
+            }
+        }, Clock.systemDefaultZone());
+        blocking.set(true);
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        try (BinaryTaskServer slowServer = BinaryTaskServer.open(slow, loopback)) {
+            slowServer.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), slowServer.getPort());
+            try (BinaryTaskClient blocked = BinaryTaskClient.connect(address);
+                 BinaryTaskClient other = BinaryTaskClient.connect(address)) {
+                CompletableFuture<Map<String, List<Task>>> projects = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return blocked.getProjects();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                other.createProject("secrets");
+                assertTrue(other.createTask("secrets", "Eat more donuts.").isPresent());
+                assertFalse(projects.isDone());
+
+                release.countDown();
+                assertEquals(1, projects.get(5, TimeUnit.SECONDS).get("secrets").size());
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ortecfinance.tasklist.cli;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static java.lang.System.lineSeparator;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PagedShowTest {
+
+    @Test
+    void show_renders_one_page_at_a_time() {
+        String output = run(2,
+                "show",
+                "next",
+                "next",
+                "next");
+
+        assertEquals(lines(
+                "secrets",
+                "    [ ] 1: Eat more donuts.",
+                "    [ ] 2: Destroy all humans.",
+                "",
+                "-- more, type 'next' to continue --",
+                "training",
+                "    [ ] 3: SOLID",
+                "    [x] 4: Outside-In TDD",
+                "-- more, type 'next' to continue --",
+                "    [ ] 5: Primitive Obsession",
+                "",
+                "Nothing more to show."
+        ), output);
+    }
+
+    @Test
+    void show_supports_project_limit_and_offset() {
+        assertEquals(lines(
+                "training",
+                "    [x] 4: Outside-In TDD",
+                ""
+        ), run(10, "show training --offset 1 --limit 1"));
+
+        assertEquals(lines(
+                "training",
+                "    [ ] 3: SOLID",
+                "    [x] 4: Outside-In TDD",
+                ""
+        ), run(10, "show --offset 2 --limit 2"));
+
+        assertEquals(lines("Could not find a project with the name \"nope\"."), run(10, "show nope"));
+    }
+
+    @Test
+    void view_by_deadline_keeps_the_date_header_across_pages() {
+        String output = run(1,
+                "deadline 4 11-11-2021",
+                "deadline 3 11-11-2021",
+                "view-by-deadline",
+                "next",
+                "show --limit 0");
+
+        assertEquals(lines(
+                "11-11-2021:",
+                "     training:",
+                "          3: SOLID",
+                "-- more, type 'next' to continue --",
+                "          4: Outside-In TDD",
+                "",
+                "-- more, type 'next' to continue --"
+        ), output);
+    }
+
+    private static String run(int pageSize, String... commands) {
+        StringBuilder script = new StringBuilder();
+        for (String setup : new String[]{
+                "add project secrets", "add task secrets Eat more donuts.", "add task secrets Destroy all humans.",
+                "add project training", "add task training SOLID", "add task training Outside-In TDD",
+                "add task training Primitive Obsession", "check 4"}) {
+            script.append(setup).append('\n');
+        }
+        for (String command : commands) {
+            script.append(command).append('\n');
+        }
+        script.append("quit\n");
+
+        StringWriter output = new StringWriter();
+        TaskListService service = new TaskListService(new InMemoryTaskRepository());
+        new TaskListCli(new BufferedReader(new StringReader(script.toString())), new PrintWriter(output), service, pageSize).run();
+
+        // drop the welcome banner and prompts
+        return output.toString()
+                .replace("Welcome to TaskList! Type 'help' for available commands." + lineSeparator(), "")
+                .replace("> ", "");
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(lineSeparator());
+        }
+        return text.toString();
+    }
+}
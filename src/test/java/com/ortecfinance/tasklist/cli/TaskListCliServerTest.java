@@ -0,0 +1,114 @@
+package com.ortecfinance.tasklist.cli;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskListCliServerTest {
+    private static final int SESSIONS = 200;
+    private static final int TASKS_PER_SESSION = 10;
+
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository());
+    private final TaskListCliServer server;
+
+    TaskListCliServerTest() throws IOException {
+        server = TaskListCliServer.open(service, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void sessions_share_one_task_list() throws IOException {
+        runSession("add project secrets", "add task secrets Eat more donuts.");
+
+        String output = runSession("show");
+
+        assertTrue(output.contains("    [ ] 1: Eat more donuts."), output);
+    }
+
+    @Test
+    void a_client_hanging_up_ends_its_session() throws IOException {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write("add project secrets\n".getBytes(StandardCharsets.UTF_8));
+            socket.shutdownOutput();
+            assertTrue(readAll(socket).startsWith("Welcome to TaskList!"));
+        }
+        assertTrue(service.hasProject("secrets"));
+    }
+
+    @Test
+    void concurrent_sessions_get_unique_task_ids() throws Exception {
+        service.addProject("shared");
+        ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<String>> outputs = new ArrayList<>();
+            for (int s = 0; s < SESSIONS; s++) {
+                String[] script = new String[TASKS_PER_SESSION + 1];
+                for (int t = 0; t < TASKS_PER_SESSION; t++) {
+                    script[t] = "add task shared Session " + s + " task " + t;
+                }
+                script[TASKS_PER_SESSION] = "today";
+                outputs.add(clients.submit(() -> runSession(script)));
+            }
+            for (Future<String> output : outputs) {
+                assertFalse(output.get(60, TimeUnit.SECONDS).contains("Could not"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        List<Task> tasks = service.allProjects().get("shared");
+        Set<Long> ids = tasks.stream().map(Task::getId).collect(Collectors.toCollection(HashSet::new));
+        assertEquals(SESSIONS * TASKS_PER_SESSION, tasks.size());
+        assertEquals(SESSIONS * TASKS_PER_SESSION, ids.size());
+    }
+
+    // sends the whole script followed by quit and returns everything the session printed
+    private String runSession(String... commands) throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write((String.join("\n", commands) + "\nquit\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return readAll(socket);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        StringBuilder output = new StringBuilder();
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            output.append(line).append('\n');
+        }
+        return output.toString();
+    }
+}
@@ -82,6 +82,80 @@ public final class TodayViewTest {
         execute("quit");
     }
 
+    @Test
+    void it_shows_the_next_open_tasks() throws IOException {
+        execute("add project secrets");
+        execute("add project training");
+
+        execute("add task secrets Eat more donuts.");
+        execute("add task training Refactor the codebase");
+        execute("add task training Interaction-Driven Design");
+
+        execute("deadline 1 12-11-2021");
+        execute("deadline 3 11-11-2021");
+        execute("check 2");
+        execute("top 5");
+
+        readLines(
+                "    11-11-2021  3: Interaction-Driven Design (training)",
+                "    12-11-2021  1: Eat more donuts. (secrets)"
+        );
+
+        execute("top training");
+        readLines("    11-11-2021  3: Interaction-Driven Design (training)");
+        execute("quit");
+    }
+
+    @Test
+    void it_shows_and_checks_off_occurrences_of_recurring_tasks() throws IOException {
+        execute("add project chores");
+        execute("add recurring chores 01-11-2021 weekly mon,thu Take out the bins");
+        execute("add task chores Water the plants");
+        execute("deadline 2 11-11-2021");
+        execute("today");
+
+        readLines(
+                "chores",
+                "    [ ] 1 11-11-2021: Take out the bins",
+                "    [ ] 2: Water the plants",
+                ""
+        );
+
+        execute("check 1 11-11-2021");
+        execute("today");
+        readLines(
+                "chores",
+                "    [ ] 2: Water the plants",
+                "    [x] 3: Take out the bins",
+                ""
+        );
+
+        execute("check 1 12-11-2021");
+        readLines("Recurring task 1 has no open occurrence on 12-11-2021.");
+
+        execute("check abc 11-11-2021");
+        readLines("Task ID must be a number.");
+        execute("quit");
+    }
+
+    @Test
+    void it_completes_project_names_and_description_words() throws IOException {
+        execute("add project secrets");
+        execute("add project training");
+        execute("add task secrets Keep it secret");
+        execute("add task training Secret handshake");
+        execute("add task training Security audit");
+
+        execute("complete SEC");
+
+        readLines(
+                "    project  secrets",
+                "    word     secret",
+                "    word     security"
+        );
+        execute("quit");
+    }
+
     private void execute(String command) throws IOException {
         read(PROMPT);
         write(command);
@@ -0,0 +1,86 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTaskRepositoryTest {
+    private final InMemoryTaskRepository store = new InMemoryTaskRepository();
+    private final CachingTaskRepository cache = new CachingTaskRepository(store, 5);
+
+    @BeforeEach
+    void setUp() {
+        store.addProject("secrets");
+        store.addTask("secrets", new Task(1, "Eat more donuts.", false));
+        store.addTask("secrets", new Task(2, "Destroy all humans.", false));
+        store.addProject("training");
+        for (long id = 3; id <= 6; id++) {
+            store.addTask("training", new Task(id, "Training " + id, false));
+        }
+    }
+
+    @Test
+    void serves_repeated_reads_from_memory() {
+        cache.findTaskById(1);
+        cache.findTaskById(1);
+        cache.findProjectTasks("secrets");
+        cache.findProjectTasks("secrets");
+
+        assertEquals(new CachingTaskRepository.Stats(2, 2, 0, 4), cache.stats());
+    }
+
+    @Test
+    void evicts_the_least_recently_used_entries_beyond_its_weight() {
+        for (long id = 1; id <= 5; id++) {
+            cache.findTaskById(id);
+        }
+        cache.findTaskById(1);
+        cache.findTaskById(6);
+
+        assertEquals(1, cache.stats().evictions());
+        long misses = cache.stats().misses();
+        cache.findTaskById(1);
+        assertEquals(misses, cache.stats().misses(), "recently used task 1 should still be cached");
+        cache.findTaskById(2);
+        assertEquals(misses + 1, cache.stats().misses(), "task 2 was the least recently used");
+
+        cache.findProjectTasks("training");   // weighs 5, so every task has to go
+        assertEquals(5, cache.stats().weight());
+    }
+
+    @Test
+    void writes_go_through_and_invalidate() {
+        cache.findProjectTasks("secrets");
+        cache.addTask("secrets", new Task(7, "New", false));
+        assertEquals(3, cache.findProjectTasks("secrets").orElseThrow().size());
+
+        cache.removeTasks("secrets", Set.of(1L));
+        assertEquals(Optional.empty(), cache.findTaskById(1));
+        assertEquals(2, cache.findProjectTasks("secrets").orElseThrow().size());
+
+        Task changed = new Task(2, "Destroy all humans.", true);
+        cache.updateTask(changed);
+        assertSame(changed, cache.findTaskById(2).orElseThrow());
+    }
+
+    @Test
+    void service_mutations_reach_the_cache() {
+        TaskListService service = new TaskListService(new CachingTaskRepository(store, 100), Clock.systemDefaultZone());
+
+        service.setDeadline("secrets", 1, LocalDate.of(2021, 11, 12));
+        service.setDone(1, true);
+
+        Task task = service.findTaskInProject("secrets", 1).orElseThrow();
+        assertTrue(task.isDone());
+        assertEquals(Optional.of(LocalDate.of(2021, 11, 12)), task.getDeadline());
+        assertEquals(List.of(1L, 2L), service.allProjects().get("secrets").stream().map(Task::getId).toList());
+    }
+}
@@ -0,0 +1,79 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionTrieTest {
+
+    @Test
+    void completes_case_insensitively_with_the_most_used_terms_first() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.add("Secrets");
+        trie.add("secretary");
+        trie.add("secretary");
+        trie.add("seconds");
+        trie.add("training");
+
+        assertEquals(List.of("secretary", "Secrets"), trie.complete("SECR", 10));
+        assertEquals(List.of("secretary"), trie.complete("sec", 1));
+        assertEquals(List.of(), trie.complete("x", 10));
+
+        trie.remove("secretary");
+        trie.remove("secretary");
+        assertEquals(List.of("seconds", "Secrets"), trie.complete("sec", 10));
+        assertFalse(trie.contains("secretary"));
+    }
+
+    @Test
+    void keeps_the_best_terms_per_prefix_under_random_changes() {
+        CompletionTrie trie = new CompletionTrie();
+        Map<String, Integer> counts = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String term = "t" + Integer.toString(random.nextInt(300), 4);
+            if (random.nextInt(3) == 0 && counts.containsKey(term)) {
+                trie.remove(term);
+                counts.merge(term, -1, Integer::sum);
+                counts.remove(term, 0);
+            } else {
+                trie.add(term);
+                counts.merge(term, 1, Integer::sum);
+            }
+        }
+
+        for (String prefix : List.of("", "t", "t1", "t23", "t301", "t3333")) {
+            List<String> expected = new ArrayList<>(counts.keySet().stream().filter(t -> t.startsWith(prefix)).toList());
+            expected.sort(Comparator.comparing((String t) -> -counts.get(t)).thenComparing(t -> t));
+            assertEquals(expected.subList(0, Math.min(CompletionTrie.TOP, expected.size())),
+                    trie.complete(prefix, CompletionTrie.TOP), "prefix " + prefix);
+        }
+    }
+
+    @Test
+    void service_completes_project_names_and_description_words() {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository());
+        service.addProject("secrets");
+        service.addProject("security");
+        service.addProject("training");
+        service.createTask("secrets", "Eat more donuts, secretly.");
+        Task task = service.createTask("training", "Secret training").orElseThrow();
+        service.createTask("training", "Eat less donuts");
+
+        assertEquals(new Completions(List.of("secrets", "security"), List.of("secret", "secretly")),
+                service.complete("sec", 10));
+        assertEquals(List.of("donuts", "eat"), List.of(
+                service.complete("d", 10).words().get(0), service.complete("e", 10).words().get(0)));
+
+        service.removeTasks("training", List.of(task));
+        assertEquals(List.of("secretly"), service.complete("secr", 10).words());
+    }
+}
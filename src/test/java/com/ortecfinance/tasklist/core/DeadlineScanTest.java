@@ -0,0 +1,101 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.DeadlineScan.DoneFilter;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineScanTest {
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+
+    @Test
+    void uses_the_vector_scan_when_the_module_is_present() {
+        boolean vectorModule = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(vectorModule ? "VectorDeadlineScan" : "ScalarDeadlineScan",
+                DeadlineScan.best().getClass().getSimpleName());
+    }
+
+    @Test
+    void vector_and_scalar_scans_agree() {
+        DeadlineScan scalar = new ScalarDeadlineScan();
+        DeadlineScan best = DeadlineScan.best();
+        Random random = new Random(42);
+
+        for (int size : new int[]{0, 1, 7, 64, 65, 1000, 4099}) {
+            int[] days = new int[size];
+            long[] done = new long[(size + 63) / 64];
+            for (int i = 0; i < size; i++) {
+                days[i] = random.nextInt(10) == 0 ? DeadlineScan.NO_DEADLINE : 18_900 + random.nextInt(60);
+                if (random.nextBoolean()) {
+                    done[i >>> 6] |= 1L << i;
+                }
+            }
+            for (DoneFilter filter : DoneFilter.values()) {
+                int[][] ranges = {{18_910, 18_910}, {18_920, 18_940}, {DeadlineScan.NO_DEADLINE, 18_930}, {18_950, 18_940}};
+                for (int[] range : ranges) {
+                    int[] expected = new int[size];
+                    int[] actual = new int[size];
+                    int expectedCount = scalar.select(days, done, size, range[0], range[1], filter, expected);
+                    int actualCount = best.select(days, done, size, range[0], range[1], filter, actual);
+
+                    String where = size + " slots, " + filter + ", " + Arrays.toString(range);
+                    assertEquals(expectedCount, actualCount, where);
+                    assertArrayEquals(Arrays.copyOf(expected, expectedCount), Arrays.copyOf(actual, actualCount), where);
+                    assertEquals(expectedCount, best.count(days, done, size, range[0], range[1], filter), where);
+                }
+            }
+        }
+    }
+
+    @Test
+    void service_filters_by_deadline_and_done_state() {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(),
+                new MutableClock(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC")));
+        service.addProject("secrets");
+        service.addProject("training");
+        Task late = service.createTask("training", "Refactor the codebase").orElseThrow();
+        Task lateButDone = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task today = service.createTask("secrets", "Destroy all humans.").orElseThrow();
+        service.createTask("secrets", "No deadline").orElseThrow();
+        service.setDeadline(late.getId(), TODAY.minusDays(3));
+        service.setDeadline(lateButDone.getId(), TODAY.minusDays(1));
+        service.setDone(lateButDone.getId(), true);
+        service.setDeadline(today.getId(), TODAY);
+
+        assertEquals(Map.of("training", List.of(late)), service.overdueTasks());
+        assertEquals(Map.of("secrets", List.of(today)), service.tasksDueToday());
+        assertEquals(1, service.countDeadlines(null, TODAY, true));
+        assertEquals(3, service.countDeadlines(TODAY.minusDays(3), TODAY, null));
+
+        service.removeTasks("training", List.of(late));
+        assertEquals(Map.of(), service.overdueTasks());
+        assertEquals(2, service.countDeadlines(null, null, null));
+    }
+
+    @Test
+    void adding_an_existing_project_again_drops_its_tasks_from_every_index() {
+        TaskListService service = new TaskListService(new InMemoryTaskRepository(),
+                new MutableClock(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC")));
+        service.addProject("p");
+        Task task = service.createTask("p", "Due today").orElseThrow();
+        service.setDeadline(task.getId(), TODAY);
+
+        // the in-memory repository starts the project over
+        service.addProject("p");
+
+        assertEquals(Map.of("p", List.of()), service.allProjects());
+        assertEquals(Map.of(), service.tasksDueToday());
+        assertEquals(0, service.countDeadlines(null, null, null));
+        assertTrue(service.findTask(task.getId()).isEmpty());
+        assertEquals(List.of(), service.nextTasks(5, null));
+    }
+}
@@ -0,0 +1,113 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.DeadlineScheduler.DeadlineEvent;
+import com.ortecfinance.tasklist.core.DeadlineScheduler.EventType;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineSchedulerTest {
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+    private final DeadlineScheduler scheduler = new DeadlineScheduler(clock);
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository(), clock);
+    private final List<DeadlineEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service.addChangeListener(scheduler);
+        scheduler.addListener(events::add);
+        service.addProject("secrets");
+    }
+
+    @Test
+    void fires_due_today_then_overdue_at_day_boundaries() {
+        Task task = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(task.getId(), LocalDate.of(2021, 11, 12));
+
+        scheduler.advance();
+        assertTrue(events.isEmpty());
+
+        advanceDays(1);
+        assertEquals(List.of(new DeadlineEvent(EventType.DUE_TODAY, LocalDate.of(2021, 11, 12), List.of(task))), events);
+
+        events.clear();
+        advanceDays(1);
+        assertEquals(List.of(new DeadlineEvent(EventType.OVERDUE, LocalDate.of(2021, 11, 12), List.of(task))), events);
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void rescheduling_replaces_the_earlier_deadline() {
+        Task task = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(task.getId(), LocalDate.of(2021, 11, 12));
+        service.setDeadline(task.getId(), LocalDate.of(2021, 11, 14));
+
+        advanceDays(1);
+        assertTrue(events.isEmpty());
+
+        advanceDays(2);
+        assertEquals(EventType.DUE_TODAY, events.get(0).type());
+        assertEquals(LocalDate.of(2021, 11, 14), events.get(0).deadline());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    void done_tasks_are_not_reported_overdue() {
+        Task task = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(task.getId(), LocalDate.of(2021, 11, 11));
+        service.setDone(task.getId(), true);
+
+        advanceDays(1);
+        assertTrue(events.isEmpty());
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    void deadlines_beyond_the_first_wheel_cascade_down() {
+        Task nearYear = service.createTask("secrets", "Near").orElseThrow();
+        Task farFuture = service.createTask("secrets", "Far").orElseThrow();
+        service.setDeadline(nearYear.getId(), LocalDate.of(2022, 3, 1));
+        service.setDeadline(farFuture.getId(), LocalDate.of(2040, 6, 15));
+
+        clock.advance(Duration.between(clock.instant(), Instant.parse("2022-03-01T00:00:00Z")));
+        scheduler.advance();
+        assertEquals(List.of(nearYear), events.get(events.size() - 1).tasks());
+
+        events.clear();
+        clock.advance(Duration.between(clock.instant(), Instant.parse("2040-06-15T00:00:00Z")));
+        scheduler.advance();
+        assertEquals(new DeadlineEvent(EventType.DUE_TODAY, LocalDate.of(2040, 6, 15), List.of(farFuture)),
+                events.get(events.size() - 1));
+    }
+
+    @Test
+    void a_scheduler_created_from_existing_projects_schedules_their_deadlines() {
+        Task task = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(task.getId(), LocalDate.of(2021, 11, 12));
+        service.createTask("secrets", "No deadline").orElseThrow();
+
+        DeadlineScheduler seeded = service.addChangeListener(existing -> DeadlineScheduler.of(existing, clock));
+        List<DeadlineEvent> seededEvents = new ArrayList<>();
+        seeded.addListener(seededEvents::add);
+        assertEquals(1, seeded.size());
+
+        advanceDays(1);
+        seeded.advance();
+        assertEquals(List.of(new DeadlineEvent(EventType.DUE_TODAY, LocalDate.of(2021, 11, 12), List.of(task))),
+                seededEvents);
+    }
+
+    private void advanceDays(int days) {
+        clock.advance(Duration.ofDays(days));
+        scheduler.advance();
+    }
+}
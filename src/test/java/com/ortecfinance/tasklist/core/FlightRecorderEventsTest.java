@@ -0,0 +1,74 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderEventsTest {
+
+    @Test
+    void service_and_repository_calls_are_recorded(@TempDir Path dir) throws Exception {
+        TaskListService service = new TaskListService(new JfrTaskRepository(new InMemoryTaskRepository()));
+        Path file = dir.resolve("tasklist.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("tasklist.ServiceCall").withThreshold(Duration.ZERO);
+            recording.enable("tasklist.RepositoryOperation").withThreshold(Duration.ZERO);
+            recording.start();
+
+            service.addProject("secrets");
+            service.createTask("secrets", "Eat more donuts.");
+            service.viewByDeadlineGroups();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent view = events.stream()
+                .filter(e -> "viewByDeadlineGroups".equals(e.getString("operation")))
+                .findFirst().orElseThrow();
+        assertEquals("tasklist.ServiceCall", view.getEventType().getName());
+        assertEquals(1, view.getInt("resultCount"));
+
+        RecordedEvent addTask = events.stream()
+                .filter(e -> "addTask".equals(e.getString("operation")))
+                .findFirst().orElseThrow();
+        assertEquals("secrets", addTask.getString("project"));
+        assertEquals(1, addTask.getLong("taskId"));
+    }
+
+    @Test
+    void cache_stats_are_recorded_periodically(@TempDir Path dir) throws Exception {
+        InMemoryTaskRepository store = new InMemoryTaskRepository();
+        store.addProject("secrets");
+        store.addTask("secrets", new Task(1, "Eat more donuts.", false));
+        CachingTaskRepository cache = new CachingTaskRepository(store, 10);
+        cache.findTaskById(1);
+        cache.findTaskById(1);
+        Path file = dir.resolve("tasklist.jfr");
+
+        try (AutoCloseable stats = cache.recordStats(); Recording recording = new Recording()) {
+            recording.enable("tasklist.RepositoryCache").with("period", "beginChunk");
+            recording.start();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("tasklist.RepositoryCache"))
+                .findFirst().orElseThrow();
+        assertEquals(1, event.getLong("hits"));
+        assertEquals(1, event.getLong("misses"));
+        assertEquals(1, event.getLong("weight"));
+    }
+}
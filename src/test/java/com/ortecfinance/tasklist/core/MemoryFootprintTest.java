@@ -0,0 +1,81 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryFootprintTest {
+    private static final LocalDate DAY = LocalDate.of(2021, 11, 11);
+
+    @Test
+    void estimate_is_within_five_percent_of_the_measured_heap() {
+        int tasks = 300_000;
+        long before = usedHeap();
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        for (int project = 0; project < 100; project++) {
+            repository.addProject("project " + project);
+        }
+        for (int id = 0; id < tasks; id++) {
+            Task task = new Task(id, "Task number " + id + (id % 7 == 0 ? " ☕" : ""), false);
+            if (id % 3 == 0) {
+                // a new instance per task, shared by the repository
+                task.setDeadline(LocalDate.of(2021, 11, 1 + id % 30));
+            }
+            repository.addTask("project " + id % 100, task);
+        }
+        long measured = usedHeap() - before;
+
+        long estimated = repository.memoryFootprint().totalBytes();
+
+        assertEquals(tasks, repository.memoryFootprint().tasks());
+        assertEquals(measured, estimated, measured * 0.05,
+                "estimated " + estimated + " bytes, measured " + measured);
+    }
+
+    @Test
+    void estimate_follows_changes() {
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        repository.addProject("secrets");
+        MemoryFootprint empty = repository.memoryFootprint();
+        repository.addTask("secrets", new Task(1, "Eat more donuts.", false));
+        repository.addTask("secrets", new Task(2, "Destroy all humans.", false));
+
+        MemoryFootprint.Project secrets = repository.memoryFootprint().projects().get(0);
+        assertEquals(2, secrets.tasks());
+        assertEquals(2 * ObjectSizes.TASK, secrets.taskBytes());
+        assertEquals(ObjectSizes.string("Eat more donuts.") + ObjectSizes.string("Destroy all humans."),
+                secrets.descriptionBytes());
+
+        Task task = new Task(3, "Third", false);
+        repository.addTask("secrets", task);
+        task.setDeadline(DAY);
+        repository.updateTask(task);
+        Task sameDay = new Task(4, "Fourth", false);
+        sameDay.setDeadline(LocalDate.of(2021, 11, 11));
+        repository.addTask("secrets", sameDay);
+        assertSame(task.getDeadline().orElseThrow(), sameDay.getDeadline().orElseThrow());
+
+        repository.removeTasks("secrets", Set.of(1L, 2L, 3L, 4L));
+        MemoryFootprint removed = repository.memoryFootprint();
+        assertEquals(0, removed.projects().get(0).descriptionBytes());
+        assertEquals(empty.mapBytes(), removed.mapBytes());
+        assertTrue(removed.deadlineBytes() > empty.deadlineBytes(), "dates stay in the shared pool");
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // settle on the lowest reading, a single gc may leave floating garbage behind
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
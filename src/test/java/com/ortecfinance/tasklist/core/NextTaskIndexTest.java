@@ -0,0 +1,70 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NextTaskIndexTest {
+    private static final LocalDate DAY = LocalDate.of(2021, 11, 11);
+
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository());
+
+    @Test
+    void orders_open_tasks_by_deadline_then_id() {
+        service.addProject("secrets");
+        service.addProject("training");
+        Task undated = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task later = service.createTask("training", "SOLID").orElseThrow();
+        Task sooner = service.createTask("secrets", "Destroy all humans.").orElseThrow();
+        Task sameDay = service.createTask("training", "Coupling and Cohesion").orElseThrow();
+        service.setDeadline(later.getId(), DAY.plusDays(2));
+        service.setDeadline(sooner.getId(), DAY);
+        service.setDeadline(sameDay.getId(), DAY.plusDays(2));
+
+        assertEquals(List.of(sooner.getId(), later.getId(), sameDay.getId(), undated.getId()), ids(service.nextTasks(10, null)));
+        assertEquals(List.of(sooner.getId(), later.getId()), ids(service.nextTasks(2, null)));
+        assertEquals(List.of(later.getId(), sameDay.getId()), ids(service.nextTasks(10, "training")));
+        assertEquals(List.of(), service.nextTasks(10, "unknown"));
+    }
+
+    @Test
+    void follows_checks_and_new_deadlines() {
+        service.addProject("secrets");
+        Task first = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task second = service.createTask("secrets", "Destroy all humans.").orElseThrow();
+        service.setDeadline(first.getId(), DAY);
+        service.setDeadline(second.getId(), DAY.plusDays(1));
+
+        service.setDone(first.getId(), true);
+        assertEquals(List.of(second.getId()), ids(service.nextTasks(10, null)));
+
+        service.setDeadline(first.getId(), DAY.plusDays(5));
+        service.setDone(first.getId(), false);
+        assertEquals(List.of(second.getId(), first.getId()), ids(service.nextTasks(10, null)));
+
+        service.removeTasks("secrets", List.of(second));
+        assertEquals(List.of(first.getId()), ids(service.nextTasks(10, "secrets")));
+    }
+
+    @Test
+    void loads_the_tasks_already_in_the_repository() {
+        InMemoryTaskRepository repository = new InMemoryTaskRepository();
+        repository.addProject("secrets");
+        Task open = new Task(1, "Eat more donuts.", false);
+        open.setDeadline(DAY);
+        repository.addTask("secrets", open);
+        repository.addTask("secrets", new Task(2, "Destroy all humans.", true));
+
+        List<TaskMatch> next = new TaskListService(repository).nextTasks(10, null);
+
+        assertEquals(List.of(new TaskMatch("secrets", open)), next);
+    }
+
+    private static List<Long> ids(List<TaskMatch> matches) {
+        return matches.stream().map(match -> match.task().getId()).toList();
+    }
+}
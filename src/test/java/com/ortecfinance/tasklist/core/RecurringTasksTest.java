@@ -0,0 +1,142 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.domain.Occurrence;
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurringTasksTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);    // a Thursday
+
+    private final InMemoryTaskRepository repository = new InMemoryTaskRepository();
+    private final TaskListService service = new TaskListService(repository, CLOCK);
+
+    @Test
+    void rules_find_the_next_occurrence_without_enumerating() {
+        Recurrence everyThird = Recurrence.parse("every 3 days", LocalDate.of(1900, 1, 1));
+        Recurrence weekly = Recurrence.parse("weekly thu,mon", TODAY);
+
+        assertEquals(LocalDate.of(2021, 11, 13), everyThird.firstOnOrAfter(TODAY));
+        assertTrue(everyThird.occursOn(LocalDate.of(2021, 11, 10)));
+        assertEquals(TODAY, weekly.firstOnOrAfter(TODAY.minusYears(5)));
+        assertEquals(LocalDate.of(2021, 11, 15), weekly.firstOnOrAfter(TODAY.plusDays(1)));
+        assertEquals("weekly mon,thu", weekly.rule());
+        assertEquals(Recurrence.weekly(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), TODAY), weekly);
+        assertEquals(Optional.of(LocalDate.of(2021, 11, 10)), everyThird.lastOnOrBefore(LocalDate.of(2021, 11, 12)));
+        assertEquals(Optional.of(LocalDate.of(2021, 11, 15)), weekly.lastOnOrBefore(LocalDate.of(2021, 11, 17)));
+        assertEquals(Optional.empty(), weekly.lastOnOrBefore(TODAY.minusDays(1)));
+        // 4 Thursdays and 4 Mondays from 11-11-2021 to 06-12-2021, the rule starts after the window opens
+        assertEquals(8, weekly.count(TODAY.minusYears(1), LocalDate.of(2021, 12, 6)));
+        assertEquals(2, everyThird.count(LocalDate.of(2021, 11, 10), LocalDate.of(2021, 11, 15)));
+        assertEquals(0, everyThird.count(LocalDate.of(2021, 11, 11), LocalDate.of(2021, 11, 12)));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("every 0 days", TODAY));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("monthly", TODAY));
+    }
+
+    @Test
+    void occurrences_are_generated_by_the_views_and_stored_only_when_checked_off() {
+        service.addProject("chores");
+        RecurringTask bins = service.addRecurringTask("chores", "Take out the bins",
+                Recurrence.weekly(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), LocalDate.of(2000, 1, 1))).orElseThrow();
+        RecurringTask plants = service.addRecurringTask("chores", "Water the plants",
+                Recurrence.everyDays(2, TODAY.plusDays(1))).orElseThrow();
+
+        assertEquals(List.of(bins.id()), ids(service.tasksDueToday().get("chores")));
+        // a generated occurrence has no id of its own, so it cannot be taken for a stored task
+        Occurrence today = (Occurrence) service.tasksDueToday().get("chores").get(0);
+        assertEquals(Occurrence.NO_ID, today.getId());
+        assertEquals(TODAY, today.getDay());
+        Map<LocalDate, Map<String, List<Task>>> byDeadline = service.viewByDeadlineGroups().byDeadline();
+        assertEquals(List.of(TODAY, TODAY.plusDays(1)), List.copyOf(byDeadline.keySet()));
+        assertEquals(List.of(plants.id()), ids(byDeadline.get(TODAY.plusDays(1)).get("chores")));
+
+        Task checked = service.checkOccurrence(bins.id(), TODAY).orElseThrow();
+
+        assertTrue(checked.isDone());
+        assertEquals(Optional.of(TODAY), checked.getDeadline());
+        assertEquals(List.of(checked.getId()), ids(repository.findProjectTasks("chores").orElseThrow()));
+        assertEquals(List.of(checked.getId()), ids(service.tasksDueToday().get("chores")));
+        // the next Monday is what the deadline view shows for the bins now
+        assertEquals(List.of(bins.id()),
+                ids(service.viewByDeadlineGroups().byDeadline().get(LocalDate.of(2021, 11, 15)).get("chores")));
+        assertEquals(Optional.empty(), service.checkOccurrence(bins.id(), TODAY));
+        assertEquals(Optional.empty(), service.checkOccurrence(bins.id(), TODAY.plusDays(1)));
+        assertEquals(Optional.empty(), service.addRecurringTask("nope", "X", plants.recurrence()));
+    }
+
+    @Test
+    void deadline_windows_include_occurrences_in_the_window_only() {
+        service.addProject("chores");
+        RecurringTask daily = service.addRecurringTask("chores", "Stand-up",
+                Recurrence.everyDays(1, LocalDate.of(1970, 1, 1))).orElseThrow();
+        Task review = service.createTask("chores", "Review").orElseThrow();
+        service.setDeadline(review.getId(), TODAY.plusDays(1));
+        service.checkOccurrence(daily.id(), TODAY.plusDays(2));
+
+        List<TaskMatch> window = service.query(new TaskQuery(null, "chores", false, TODAY, TODAY.plusDays(3),
+                null, null, TaskQuery.Sort.DEADLINE, null));
+
+        assertEquals(List.of(daily.id(), daily.id(), review.getId(), daily.id()),
+                window.stream().map(match -> id(match.task())).toList());
+        assertEquals(List.of(TODAY, TODAY.plusDays(1), TODAY.plusDays(1), TODAY.plusDays(3)),
+                window.stream().map(match -> match.task().getDeadline().orElseThrow()).toList());
+        assertEquals(4, service.occurrences(TODAY.minusDays(1), TODAY.plusDays(3)).size());
+        assertEquals(2, repository.memoryFootprint().tasks());
+    }
+
+    @Test
+    void overdue_counts_and_next_tasks_take_occurrences_into_account() {
+        service.addProject("chores");
+        RecurringTask bins = service.addRecurringTask("chores", "Take out the bins",
+                Recurrence.weekly(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), LocalDate.of(2021, 11, 1))).orElseThrow();
+        Task review = service.createTask("chores", "Review").orElseThrow();
+        service.setDeadline(review.getId(), TODAY);
+
+        // only the missed Monday is overdue, not the occurrences before it
+        List<Task> overdue = service.overdueTasks().get("chores");
+        assertEquals(List.of(bins.id()), ids(overdue));
+        assertEquals(LocalDate.of(2021, 11, 8), ((Occurrence) overdue.get(0)).getDay());
+
+        // the Mondays and Thursdays from 01-11 to 15-11 and the review
+        assertEquals(6, service.countDeadlines(null, TODAY.plusDays(4), null));
+        assertEquals(6, service.countDeadlines(null, TODAY.plusDays(4), false));
+        assertEquals(0, service.countDeadlines(null, TODAY.plusDays(4), true));
+        assertEquals(1, service.countDeadlines(TODAY, null, null));
+
+        List<TaskMatch> next = service.nextTasks(3, "chores");
+        assertEquals(List.of(bins.id(), review.getId(), bins.id()), next.stream().map(match -> id(match.task())).toList());
+        assertEquals(List.of(LocalDate.of(2021, 11, 8), TODAY, TODAY),
+                next.stream().map(match -> match.task().getDeadline().orElseThrow()).toList());
+        assertEquals(List.of(), service.nextTasks(3, "elsewhere"));
+
+        service.checkOccurrence(bins.id(), LocalDate.of(2021, 11, 8));
+
+        assertNull(service.overdueTasks().get("chores"));
+        assertEquals(6, service.countDeadlines(null, TODAY.plusDays(4), null));
+        assertEquals(5, service.countDeadlines(null, TODAY.plusDays(4), false));
+        assertEquals(1, service.countDeadlines(null, TODAY.plusDays(4), true));
+        assertEquals(2, service.nextTasks(3, "chores").size());
+    }
+
+    private static List<Long> ids(List<Task> tasks) {
+        return tasks.stream().map(RecurringTasksTest::id).toList();
+    }
+
+    // the recurring task's id for its occurrences, the task's own otherwise
+    private static long id(Task task) {
+        return task instanceof Occurrence occurrence ? occurrence.getRecurringId() : task.getId();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.QueryPlan.AccessPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskQueryPlannerTest {
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository(),
+            Clock.fixed(Instant.parse("2021-11-11T00:00:00Z"), ZoneId.of("UTC")));
+
+    @BeforeEach
+    void setUp() {
+        service.addProject("big");
+        service.addProject("small");
+        for (int i = 0; i < 20; i++) {
+            service.addTask("big", "Big task " + i);
+        }
+        service.addTask("small", "Eat more donuts.");
+        service.addTask("small", "Destroy all humans.");
+        service.setDeadline(1, TODAY.minusDays(2));
+        service.setDeadline(2, TODAY.minusDays(1));
+        service.setDeadline(3, TODAY.plusDays(5));
+        service.setDeadline(21, TODAY.minusDays(1));
+        service.setDone(2, true);
+    }
+
+    @Test
+    void picks_the_most_selective_index() {
+        assertEquals(AccessPath.ID_LOOKUP, service.explain(query(3L, "big", null, null)).accessPath());
+        assertEquals(AccessPath.PROJECT_SCAN, service.explain(query(null, "small", null, null)).accessPath());
+        assertEquals(AccessPath.DEADLINE_RANGE, service.explain(query(null, "big", TODAY, null)).accessPath());
+        assertEquals(AccessPath.FULL_SCAN, service.explain(TaskQuery.all()).accessPath());
+    }
+
+    @Test
+    void overdue_uses_the_deadline_index_and_skips_done_tasks() {
+        TaskQuery overdue = new TaskQuery(null, null, null, null, null, true, null, TaskQuery.Sort.DEADLINE, null);
+
+        QueryPlan plan = service.explain(overdue);
+        assertEquals(AccessPath.DEADLINE_RANGE, plan.accessPath());
+        assertEquals(3, plan.estimatedRows());
+        assertEquals(List.of("overdue"), plan.residualFilters());
+
+        assertEquals(List.of(1L, 21L), ids(service.query(overdue)));
+    }
+
+    @Test
+    void combines_filters_sorts_and_limits() {
+        TaskQuery query = new TaskQuery(null, "big", false, null, null, null, "task 1", TaskQuery.Sort.ID, 3);
+        // task 2 ("Big task 1") is done
+        assertEquals(List.of(11L, 12L, 13L), ids(service.query(query)));
+    }
+
+    @Test
+    void follows_deadline_changes() {
+        service.setDeadline(3, TODAY.minusDays(10));
+        TaskQuery overdue = new TaskQuery(null, null, null, null, null, true, null, TaskQuery.Sort.DEADLINE, 1);
+        assertEquals(List.of(3L), ids(service.query(overdue)));
+    }
+
+    private static TaskQuery query(Long id, String project, LocalDate from, LocalDate to) {
+        return new TaskQuery(id, project, null, from, to, null, null, null, null);
+    }
+
+    private static List<Long> ids(List<TaskMatch> matches) {
+        return matches.stream().map(m -> m.task().getId()).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ortecfinance.tasklist.core;
+
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewCoalescingTest {
+    private static final int CALLERS = 50;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger scans = new AtomicInteger();
+    private volatile boolean blocking;
+
+    // counts full scans and holds them until the test has lined up its callers
+    private final InMemoryTaskRepository repository = new InMemoryTaskRepository() {
+        @Override
+        public Map<String, List<Task>> allProjects() {
+            if (blocking) {
+                scans.incrementAndGet();
+                try {
+                    assertTrue(release.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return super.allProjects();
+        }
+    };
+    private final TaskListService service = new TaskListService(repository);
+
+    @Test
+    void simultaneous_callers_share_one_scan() throws Exception {
+        service.addProject("secrets");
+        service.createTask("secrets", "Eat more donuts.");
+        blocking = true;
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Thread> callers = new ArrayList<>();
+            List<Future<DeadlineGroups>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    synchronized (callers) {
+                        callers.add(Thread.currentThread());
+                    }
+                    return service.viewByDeadlineGroups();
+                }));
+            }
+            awaitAllWaiting(callers);
+            release.countDown();
+
+            DeadlineGroups first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<DeadlineGroups> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, scans.get());
+            assertEquals(1, first.noDeadline().get("secrets").size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void a_change_starts_a_new_computation() {
+        service.addProject("secrets");
+        release.countDown();
+        blocking = true;
+
+        DeadlineGroups before = service.viewByDeadlineGroups();
+        service.createTask("secrets", "Eat more donuts.");
+        DeadlineGroups after = service.viewByDeadlineGroups();
+
+        assertEquals(2, scans.get());
+        assertTrue(before.noDeadline().isEmpty());
+        assertEquals(1, after.noDeadline().get("secrets").size());
+    }
+
+    // the one computing waits on the latch, every other caller on its result
+    private static void awaitAllWaiting(List<Thread> callers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            synchronized (callers) {
+                if (callers.size() == CALLERS && callers.stream().allMatch(t -> t.getState() == Thread.State.WAITING
+                        || t.getState() == Thread.State.TIMED_WAITING)) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        fail("callers did not line up");
+    }
+}
@@ -0,0 +1,126 @@
+package com.ortecfinance.tasklist.jdbc;
+
+import com.ortecfinance.tasklist.core.RecurringTask;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTaskRepositoryTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+
+    private final HikariDataSource dataSource = dataSource();
+    private final JdbcTaskRepository repository = JdbcTaskRepository.open(dataSource);
+    private final TaskListService service = new TaskListService(repository, CLOCK);
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void keeps_changes_made_through_the_service() {
+        service.addProject("secrets");
+        service.addProject("empty");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task humans = service.createTask("secrets", "Destroy all humans.").orElseThrow();
+        service.setDone(donuts.getId(), true);
+        service.setDeadline("secrets", humans.getId(), TODAY);
+
+        // a new service starts from what is stored
+        TaskListService restarted = new TaskListService(JdbcTaskRepository.open(dataSource), CLOCK);
+        Map<String, List<Task>> projects = restarted.allProjects();
+
+        assertEquals(List.of("secrets", "empty"), List.copyOf(projects.keySet()));
+        assertEquals(List.of(), projects.get("empty"));
+        List<Task> tasks = projects.get("secrets");
+        assertEquals(List.of(donuts.getId(), humans.getId()), tasks.stream().map(Task::getId).toList());
+        assertTrue(tasks.get(0).isDone());
+        assertEquals(Optional.of(TODAY), tasks.get(1).getDeadline());
+        assertEquals(humans.getId() + 1, restarted.createTask("secrets", "Next").orElseThrow().getId());
+    }
+
+    @Test
+    void looks_up_tasks_by_project_id_and_deadline() {
+        service.addProject("secrets");
+        service.addProject("training");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task refactor = service.createTask("training", "Refactor the codebase").orElseThrow();
+        service.createTask("training", "Interaction-Driven Design").orElseThrow();
+        service.setDeadline(refactor.getId(), TODAY);
+        service.setDeadline(donuts.getId(), TODAY.plusDays(1));
+
+        assertEquals(2, repository.findProjectTasks("training").orElseThrow().size());
+        assertEquals(Optional.empty(), repository.findProjectTasks("nope"));
+        assertEquals("Eat more donuts.", repository.findTaskById(donuts.getId()).orElseThrow().getDescription());
+        assertEquals(Optional.empty(), repository.findTaskById(999));
+
+        List<TaskMatch> dueSoon = repository.findTasksByDeadline(TODAY, null);
+        assertEquals(List.of("secrets", "training"), dueSoon.stream().map(TaskMatch::project).toList());
+        assertEquals(List.of(refactor.getId()),
+                service.tasksDueToday().get("training").stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void inserts_and_removes_tasks_in_batches() {
+        service.addProject("batch");
+        List<String> descriptions = List.of("one", "two", "three", "four");
+
+        List<Task> created = service.createTasks("batch", descriptions).orElseThrow();
+
+        assertEquals(descriptions, repository.findProjectTasks("batch").orElseThrow().stream()
+                .map(Task::getDescription).toList());
+        assertEquals(2, repository.removeTasks("batch", Set.of(created.get(0).getId(), created.get(2).getId(), 999L)));
+        assertEquals(List.of("two", "four"), repository.findProjectTasks("batch").orElseThrow().stream()
+                .map(Task::getDescription).toList());
+        assertEquals(Optional.empty(), service.createTasks("nope", descriptions));
+    }
+
+    @Test
+    void keeps_recurring_tasks_and_checked_off_occurrences() {
+        service.addProject("chores");
+        RecurringTask bins = service.addRecurringTask("chores", "Take out the bins",
+                Recurrence.weekly(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), LocalDate.of(2021, 11, 1))).orElseThrow();
+        Task checked = service.checkOccurrence(bins.id(), TODAY).orElseThrow();
+
+        TaskListService restarted = new TaskListService(JdbcTaskRepository.open(dataSource), CLOCK);
+
+        assertEquals(List.of(bins), restarted.recurringTasks());
+        // today's occurrence was checked off, so only the stored task is due
+        assertEquals(List.of(checked.getId()),
+                restarted.tasksDueToday().get("chores").stream().map(Task::getId).toList());
+        assertEquals(checked.getId() + 1, restarted.createTask("chores", "Next").orElseThrow().getId());
+    }
+
+    @Test
+    void rejects_tasks_for_unknown_projects() {
+        assertThrows(IllegalArgumentException.class, () -> repository.addTask("nope", new Task(1, "X", false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.addTasks("nope", List.of(new Task(1, "X", false))));
+    }
+
+    private static HikariDataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ortecfinance.tasklist.mapped;
+
+import com.ortecfinance.tasklist.core.RecurringTask;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskMatch;
+import com.ortecfinance.tasklist.core.TaskQuery;
+import com.ortecfinance.tasklist.domain.Recurrence;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskRepositoryTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2021-11-11T09:00:00Z"), ZoneId.of("UTC"));
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 11);
+
+    @TempDir
+    Path directory;
+
+    private final List<MappedTaskRepository> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (MappedTaskRepository repository : opened) {
+            repository.close();
+        }
+    }
+
+    @Test
+    void keeps_changes_across_a_restart() throws IOException {
+        TaskListService service = new TaskListService(open(), CLOCK);
+        service.addProject("secrets");
+        service.addProject("empty");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task humans = service.createTask("secrets", "Destroy all humans ☠").orElseThrow();
+        service.setDone(donuts.getId(), true);
+        service.setDeadline("secrets", humans.getId(), TODAY);
+        opened.remove(0).close();
+
+        // a new service starts from what is stored
+        TaskListService restarted = new TaskListService(open(), CLOCK);
+        Map<String, List<Task>> projects = restarted.allProjects();
+
+        assertEquals(List.of("secrets", "empty"), List.copyOf(projects.keySet()));
+        assertEquals(List.of(), projects.get("empty"));
+        List<Task> tasks = projects.get("secrets");
+        assertEquals(List.of("Eat more donuts.", "Destroy all humans ☠"),
+                tasks.stream().map(Task::getDescription).toList());
+        assertTrue(tasks.get(0).isDone());
+        assertEquals(Optional.of(TODAY), tasks.get(1).getDeadline());
+        assertEquals(humans.getId() + 1, restarted.createTask("secrets", "Next").orElseThrow().getId());
+    }
+
+    @Test
+    void keeps_recurring_tasks_and_checked_off_occurrences_across_a_restart() throws IOException {
+        TaskListService service = new TaskListService(open(), CLOCK);
+        service.addProject("chores");
+        RecurringTask bins = service.addRecurringTask("chores", "Take out the bins",
+                Recurrence.weekly(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY), LocalDate.of(2021, 11, 1))).orElseThrow();
+        Task checked = service.checkOccurrence(bins.id(), TODAY).orElseThrow();
+        opened.remove(0).close();
+
+        TaskListService restarted = new TaskListService(open(), CLOCK);
+
+        assertEquals(List.of(bins), restarted.recurringTasks());
+        // today's occurrence was checked off, so only the stored task is due
+        assertEquals(List.of(checked.getId()),
+                restarted.tasksDueToday().get("chores").stream().map(Task::getId).toList());
+        assertEquals(checked.getId() + 1, restarted.createTask("chores", "Next").orElseThrow().getId());
+    }
+
+    @Test
+    void the_service_reads_tasks_from_the_files_instead_of_keeping_them() throws IOException {
+        MappedTaskRepository repository = open();
+        repository.addProject("secrets");
+        repository.addTasks("secrets", List.of(new Task(1, "Eat more donuts.", false), new Task(2, "Plan", false)));
+        TaskListService service = new TaskListService(repository, CLOCK);
+
+        // every lookup decodes the record again, the service keeps no index of the tasks
+        assertNotSame(service.findTask(1).orElseThrow().task(), service.findTask(1).orElseThrow().task());
+
+        service.setDeadline(1, TODAY);
+        service.setDone(2, true);
+
+        assertEquals(List.of("Eat more donuts."),
+                service.tasksDueToday().get("secrets").stream().map(Task::getDescription).toList());
+        assertEquals(List.of(1L), service.nextTasks(5, null).stream().map(match -> match.task().getId()).toList());
+        assertTrue(repository.findTaskById(2).orElseThrow().isDone());
+        assertEquals(3, service.createTask("secrets", "Next").orElseThrow().getId());
+    }
+
+    @Test
+    void looks_up_tasks_by_project_id_and_deadline() throws IOException {
+        MappedTaskRepository repository = open();
+        TaskListService service = new TaskListService(repository, CLOCK);
+        service.addProject("secrets");
+        service.addProject("training");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task refactor = service.createTask("training", "Refactor the codebase").orElseThrow();
+        service.createTask("training", "Interaction-Driven Design").orElseThrow();
+        service.setDeadline(refactor.getId(), TODAY);
+        service.setDeadline(donuts.getId(), TODAY.plusDays(1));
+
+        assertEquals(2, repository.findProjectTasks("training").orElseThrow().size());
+        assertEquals(Optional.empty(), repository.findProjectTasks("nope"));
+        assertEquals("Eat more donuts.", repository.findTaskById(donuts.getId()).orElseThrow().getDescription());
+        assertEquals(Optional.empty(), repository.findTaskById(999));
+
+        List<TaskMatch> dueSoon = repository.findTasksByDeadline(TODAY, null);
+        assertEquals(List.of("secrets", "training"), dueSoon.stream().map(TaskMatch::project).toList());
+        assertEquals(List.of(refactor.getId()), repository.findTasksByDeadline(null, TODAY).stream()
+                .map(match -> match.task().getId()).toList());
+    }
+
+    @Test
+    void the_service_answers_deadline_next_task_and_id_queries_from_the_files() throws IOException {
+        MappedTaskRepository repository = open();
+        TaskListService service = new TaskListService(repository, CLOCK);
+        service.addProject("secrets");
+        service.addProject("training");
+        Task late = service.createTask("training", "Late").orElseThrow();
+        Task due = service.createTask("secrets", "Due").orElseThrow();
+        Task later = service.createTask("secrets", "Later").orElseThrow();
+        Task undated = service.createTask("secrets", "Undated").orElseThrow();
+        Task done = service.createTask("training", "Done").orElseThrow();
+        service.setDeadline(late.getId(), TODAY.minusDays(2));
+        service.setDeadline(due.getId(), TODAY);
+        service.setDeadline(later.getId(), TODAY.plusDays(3));
+        service.setDeadline(done.getId(), TODAY.minusDays(1));
+        service.setDone(done.getId(), true);
+
+        assertEquals("training", service.findTask(late.getId()).orElseThrow().project());
+        assertEquals(Optional.empty(), service.findTask(999));
+        assertEquals(List.of("Late"), service.overdueTasks().get("training").stream().map(Task::getDescription).toList());
+        assertEquals(4, service.countDeadlines(null, null, null));
+        assertEquals(1, service.countDeadlines(null, TODAY, true));
+        assertEquals(List.of(late.getId(), due.getId(), later.getId()),
+                service.nextTasks(3, null).stream().map(match -> match.task().getId()).toList());
+        assertEquals(List.of(due.getId(), later.getId(), undated.getId()),
+                service.nextTasks(5, "secrets").stream().map(match -> match.task().getId()).toList());
+        assertEquals(List.of(late.getId(), done.getId(), due.getId()), service.query(new TaskQuery(
+                        null, null, null, null, TODAY, null, null, TaskQuery.Sort.DEADLINE, null))
+                .stream().map(match -> match.task().getId()).toList());
+
+        service.removeTasks("training", List.of(late));
+        assertEquals(Optional.empty(), service.findTask(late.getId()));
+        assertEquals(3, service.countDeadlines(null, null, null));
+    }
+
+    @Test
+    void removes_tasks_and_keeps_them_removed() throws IOException {
+        MappedTaskRepository repository = open();
+        repository.addProject("batch");
+        repository.addProject("other");
+        repository.addTasks("batch", List.of(new Task(1, "one", false), new Task(2, "two", false),
+                new Task(3, "three", false), new Task(4, "four", false)));
+
+        assertEquals(0, repository.removeTasks("other", Set.of(1L)));
+        assertEquals(2, repository.removeTasks("batch", Set.of(1L, 3L, 999L)));
+        repository.updateTask(new Task(1, "one", true));
+        opened.remove(0).close();
+
+        MappedTaskRepository reopened = open();
+        assertEquals(List.of("two", "four"), reopened.findProjectTasks("batch").orElseThrow().stream()
+                .map(Task::getDescription).toList());
+        assertEquals(Optional.empty(), reopened.findTaskById(1));
+        assertThrows(IllegalArgumentException.class, () -> reopened.addTask("nope", new Task(5, "X", false)));
+    }
+
+    @Test
+    void grows_its_files_and_id_index_past_their_first_chunk() throws IOException {
+        MappedTaskRepository repository = open();
+        repository.addProject("big");
+        String description = "x".repeat(200);
+        int count = 100_000;    // beyond the initial index capacity and one description chunk
+        for (int id = 0; id < count; id++) {
+            repository.addTask("big", new Task(id, description + id, false));
+        }
+        opened.remove(0).close();
+
+        MappedTaskRepository reopened = open();
+        for (int id = 0; id < count; id += 997) {
+            assertEquals(description + id, reopened.findTaskById(id).orElseThrow().getDescription());
+        }
+        assertEquals(count, reopened.findProjectTasks("big").orElseThrow().size());
+    }
+
+    private MappedTaskRepository open() throws IOException {
+        MappedTaskRepository repository = MappedTaskRepository.open(directory);
+        opened.add(repository);
+        return repository;
+    }
+}
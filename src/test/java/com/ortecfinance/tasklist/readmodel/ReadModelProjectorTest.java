@@ -0,0 +1,129 @@
+package com.ortecfinance.tasklist.readmodel;
+
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.core.TaskListService.DeadlineGroups;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadModelProjectorTest {
+    private static final LocalDate TODAY = LocalDate.of(2021, 11, 12);
+    private static final Clock CLOCK = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository(), CLOCK);
+    private ReadModelProjector projector;
+
+    @AfterEach
+    void tearDown() {
+        projector.close();
+    }
+
+    @Test
+    void projects_the_same_deadline_view_as_the_service() {
+        service.addProject("secrets");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(donuts.getId(), TODAY);
+        projector = start(Duration.ofSeconds(1));
+
+        service.addProject("training");
+        Task design = service.createTask("training", "Four Elements of Simple Design").orElseThrow();
+        Task smells = service.createTask("training", "Code Smells").orElseThrow();
+        service.setDeadline(design.getId(), TODAY.plusDays(1));
+        service.setDeadline(smells.getId(), TODAY);
+        service.setDeadline(donuts.getId(), TODAY.plusDays(1));
+        service.removeTasks("training", List.of(smells));
+
+        assertTrue(projector.awaitVersion(projector.publishedVersion(), WAIT));
+        assertEquals(ids(service.viewByDeadlineGroups()), ids(projector.deadlineGroups()));
+    }
+
+    @Test
+    void lists_projects_due_today_in_the_order_they_were_added_like_the_service() {
+        service.addProject("training");
+        projector = start(Duration.ZERO);
+        service.addProject("secrets");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task design = service.createTask("training", "Four Elements of Simple Design").orElseThrow();
+        service.setDeadline(donuts.getId(), TODAY);
+        service.setDeadline(design.getId(), TODAY);
+
+        assertEquals(List.of("training", "secrets"), List.copyOf(service.tasksDueToday().keySet()));
+        assertEquals(List.copyOf(service.tasksDueToday().keySet()), List.copyOf(projector.tasksDueToday().keySet()));
+    }
+
+    @Test
+    void read_your_writes_waits_for_the_projector() {
+        projector = start(Duration.ofHours(1));
+        service.addProject("secrets");
+        Task donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.setDeadline(donuts.getId(), TODAY);
+
+        assertTrue(projector.awaitVersion(projector.publishedVersion(), WAIT));
+
+        assertEquals(List.of(donuts.getId()),
+                projector.tasksDueToday().get("secrets").stream().map(Task::getId).toList());
+        assertEquals(0, projector.status().pending());
+    }
+
+    @Test
+    void reads_without_staleness_see_every_write() {
+        projector = start(Duration.ZERO);
+        service.addProject("secrets");
+
+        for (int i = 0; i < 100; i++) {
+            service.createTask("secrets", "Task " + i);
+            assertEquals(i + 1, projector.projectSummaries().get(0).tasks());
+        }
+    }
+
+    @Test
+    void summarizes_each_project() {
+        projector = start(Duration.ZERO);
+        service.addProject("secrets");
+        service.addProject("training");
+        Task done = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        Task overdue = service.createTask("secrets", "Destroy all humans.").orElseThrow();
+        Task next = service.createTask("secrets", "Eat a little less.").orElseThrow();
+        service.setDone(done.getId(), true);
+        service.setDeadline(done.getId(), TODAY.minusDays(3));
+        service.setDeadline(overdue.getId(), TODAY.minusDays(1));
+        service.setDeadline(next.getId(), TODAY.plusDays(2));
+
+        assertEquals(List.of(
+                new ProjectSummary("secrets", 3, 1, 1, TODAY.plusDays(2)),
+                new ProjectSummary("training", 0, 0, 0, null)
+        ), projector.projectSummaries());
+    }
+
+    private ReadModelProjector start(Duration maxStaleness) {
+        ReadModelProjector started = ReadModelProjector.start(service.allProjects(), CLOCK, maxStaleness);
+        service.addChangeListener(started);
+        return started;
+    }
+
+    private static Map<String, Map<String, List<Long>>> ids(DeadlineGroups groups) {
+        Map<String, Map<String, List<Long>>> ids = new LinkedHashMap<>();
+        groups.byDeadline().forEach((deadline, projects) -> ids.put(deadline.toString(), ids(projects)));
+        ids.put("none", ids(groups.noDeadline()));
+        return ids;
+    }
+
+    private static Map<String, List<Long>> ids(Map<String, List<Task>> projects) {
+        Map<String, List<Long>> ids = new TreeMap<>();
+        projects.forEach((project, tasks) -> ids.put(project, tasks.stream().map(Task::getId).toList()));
+        return ids;
+    }
+}
@@ -8,6 +8,9 @@ import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -35,6 +38,52 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$[0].tasks").isArray());
     }
 
+    @Test
+    void responses_carry_a_server_timing_header() throws Exception {
+        createProject("Secrets").andExpect(header().string("Server-Timing", containsString("service;dur=")));
+        getProjects()
+                .andExpect(header().string("Server-Timing", containsString("mapping;dur=")))
+                .andExpect(header().string("Server-Timing", containsString("total;dur=")));
+    }
+
+    @Test
+    void get_admin_memory_reports_the_footprint_per_project() throws Exception {
+        createProject("Secrets").andExpect(status().isCreated());
+        createTask("Secrets", "Eat more donuts.").andExpect(status().isCreated());
+
+        mvc.perform(get("/admin/memory"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks").value(1))
+                .andExpect(jsonPath("$.projects[0].name").value("Secrets"))
+                .andExpect(jsonPath("$.projects[0].descriptionBytes").value(greaterThan(16)));
+    }
+
+    @Test
+    void post_recurring_task_and_check_off_one_occurrence() throws Exception {
+        createProject("Chores").andExpect(status().isCreated());
+
+        postJson("/projects/Chores/recurring",
+                "{\"description\":\"Stand-up\",\"recurrence\":\"every day\",\"start\":\"01-01-2020\"}")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.recurrence").value("every day"));
+        mvc.perform(post("/projects/Chores/recurring/1/occurrences").param("date", "02-01-2020"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(2))
+                .andExpect(jsonPath("$.done").value(true))
+                .andExpect(jsonPath("$.deadline").value("02-01-2020"));
+        mvc.perform(post("/projects/Chores/recurring/1/occurrences").param("date", "02-01-2020"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/projects/today"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].tasks[0].id").isEmpty())
+                .andExpect(jsonPath("$[0].tasks[0].recurringId").value(1))
+                .andExpect(jsonPath("$[0].tasks[0].description").value("Stand-up"));
+        postJson("/projects/Chores/recurring",
+                "{\"description\":\"X\",\"recurrence\":\"monthly\",\"start\":\"01-01-2020\"}")
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void post_projects_rejects_blank_name() throws Exception {
         postJson("/projects", "{\"name\":\"   \"}")
@@ -50,7 +99,8 @@ class ProjectControllerTest {
                 .andExpect(jsonPath("$.id").isNumber())
                 .andExpect(jsonPath("$.description").value("Eat more donuts."))
                 .andExpect(jsonPath("$.done").value(false))
-                .andExpect(jsonPath("$.deadline").isEmpty());
+                .andExpect(jsonPath("$.deadline").isEmpty())
+                .andExpect(content().string(not(containsString("recurringId"))));
     }
 
     @Test
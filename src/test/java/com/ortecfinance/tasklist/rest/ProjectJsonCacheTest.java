@@ -0,0 +1,89 @@
+package com.ortecfinance.tasklist.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ortecfinance.tasklist.core.InMemoryTaskRepository;
+import com.ortecfinance.tasklist.core.TaskListService;
+import com.ortecfinance.tasklist.domain.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectJsonCacheTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final TaskListService service = new TaskListService(new InMemoryTaskRepository(), Clock.systemDefaultZone());
+    private final ProjectController controller = new ProjectController(service);
+    private ProjectJsonCache cache;
+    private Task donuts;
+
+    @BeforeEach
+    void setUp() {
+        service.addProject("secrets");
+        service.addProject("training");
+        donuts = service.createTask("secrets", "Eat more donuts.").orElseThrow();
+        service.createTask("training", "Four Elements of Simple Design").orElseThrow();
+
+        cache = ProjectJsonCache.register(service, mapper);
+    }
+
+    @Test
+    void matches_the_uncached_response() throws Exception {
+        assertEquals(mapper.writeValueAsString(controller.getProjects()), new String(cache.projectsJson(), UTF_8));
+
+        service.setDeadline(donuts.getId(), LocalDate.of(2021, 11, 12));
+        service.setDone(donuts.getId(), true);
+        service.addProject("empty");
+
+        assertEquals(mapper.writeValueAsString(controller.getProjects()), new String(cache.projectsJson(), UTF_8));
+    }
+
+    @Test
+    void reuses_the_body_while_nothing_changes() {
+        byte[] first = cache.projectsJson();
+
+        assertSame(first, cache.projectsJson());
+        assertEquals(2, cache.serializations());
+    }
+
+    @Test
+    void only_reserializes_the_changed_project() {
+        cache.projectsJson();
+
+        service.setDone(donuts.getId(), true);
+        cache.projectsJson();
+        assertEquals(3, cache.serializations());
+
+        service.createTask("training", "Refactor").orElseThrow();
+        service.createTask("training", "Write tests").orElseThrow();
+        cache.projectsJson();
+        assertEquals(4, cache.serializations());
+    }
+
+    @Test
+    void a_change_made_while_building_is_picked_up_by_the_next_body() throws Exception {
+        AtomicReference<Runnable> afterSnapshot = new AtomicReference<>(() -> {});
+        TaskListService racing = new TaskListService(new InMemoryTaskRepository() {
+            @Override
+            public synchronized Map<String, List<Task>> allProjects() {
+                Map<String, List<Task>> projects = super.allProjects();
+                afterSnapshot.getAndSet(() -> {}).run();
+                return projects;
+            }
+        }, Clock.systemDefaultZone());
+        racing.addProject("secrets");
+        ProjectJsonCache racingCache = ProjectJsonCache.register(racing, mapper);
+
+        afterSnapshot.set(() -> racing.createTask("secrets", "Eat more donuts.").orElseThrow());
+        racingCache.projectsJson();
+
+        assertEquals(mapper.writeValueAsString(new ProjectController(racing).getProjects()),
+                new String(racingCache.projectsJson(), UTF_8));
+    }
+}
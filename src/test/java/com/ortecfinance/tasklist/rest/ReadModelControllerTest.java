@@ -0,0 +1,58 @@
+package com.ortecfinance.tasklist.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {"tasklist.read-model.enabled=true", "tasklist.read-model.max-staleness=1h"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ReadModelControllerTest {
+    @Autowired MockMvc mvc;
+
+    @Test
+    void reads_include_the_writes_whose_version_they_ask_for() throws Exception {
+        mvc.perform(post("/projects").contentType(APPLICATION_JSON).content("{\"name\":\"Secrets\"}"));
+        mvc.perform(post("/projects/Secrets/tasks").contentType(APPLICATION_JSON)
+                .content("{\"description\":\"Eat more donuts.\"}"));
+        String version = mvc.perform(put("/projects/Secrets/tasks/1").param("deadline", "11-11-2021"))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(ProjectController.VERSION_HEADER);
+
+        mvc.perform(get("/projects/view_by_deadline").header(ProjectController.MIN_VERSION_HEADER, version))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProjectController.VERSION_HEADER, version))
+                .andExpect(jsonPath("$[0].deadline").value("11-11-2021"))
+                .andExpect(jsonPath("$[0].projects[0].tasks[0].description").value("Eat more donuts."));
+        mvc.perform(get("/projects/summary").header(ProjectController.MIN_VERSION_HEADER, version))
+                .andExpect(jsonPath("$[0].name").value("Secrets"))
+                .andExpect(jsonPath("$[0].tasks").value(1))
+                .andExpect(jsonPath("$[0].overdue").value(1));
+    }
+
+    @Test
+    void read_model_views_include_occurrences_of_recurring_tasks() throws Exception {
+        mvc.perform(post("/projects").contentType(APPLICATION_JSON).content("{\"name\":\"Chores\"}"));
+        mvc.perform(post("/projects/Chores/recurring").contentType(APPLICATION_JSON)
+                .content("{\"description\":\"Stand-up\",\"recurrence\":\"every day\",\"start\":\"01-01-2020\"}"))
+                .andExpect(status().isCreated());
+
+        mvc.perform(get("/projects/today"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Chores"))
+                .andExpect(jsonPath("$[0].tasks[0].recurringId").value(1));
+        mvc.perform(get("/projects/view_by_deadline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].projects[0].tasks[0].description").value("Stand-up"))
+                .andExpect(jsonPath("$[0].projects[0].tasks[0].recurringId").value(1));
+    }
+}
@@ -0,0 +1,100 @@
+package com.ortecfinance.tasklist.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TaskQueryControllerTest {
+    @Autowired MockMvc mvc;
+
+    @Test
+    void get_tasks_filters_across_projects() throws Exception {
+        seed();
+
+        mvc.perform(get("/tasks").param("from", "01-11-2021").param("to", "30-11-2021").param("sort", "deadline"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].project").value("Training"))
+                .andExpect(jsonPath("$[0].deadline").value("10-11-2021"))
+                .andExpect(jsonPath("$[1].project").value("Secrets"));
+
+        mvc.perform(get("/tasks").param("text", "DONUTS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void get_task_by_id_works_with_archiving_off() throws Exception {
+        seed();
+
+        mvc.perform(get("/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.project").value("Secrets"));
+        mvc.perform(get("/tasks/999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void get_tasks_explain_shows_the_chosen_plan() throws Exception {
+        seed();
+
+        mvc.perform(get("/tasks/explain").param("project", "Secrets").param("done", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessPath").value("PROJECT_SCAN"))
+                .andExpect(jsonPath("$.estimatedRows").value(1))
+                .andExpect(jsonPath("$.residualFilters[0]").value("done = false"));
+    }
+
+    @Test
+    void get_tasks_rejects_bad_dates_and_sort() throws Exception {
+        mvc.perform(get("/tasks").param("from", "1-11-2021")).andExpect(status().isBadRequest());
+        mvc.perform(get("/tasks").param("sort", "colour")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void get_tasks_next_returns_the_nearest_deadlines_first() throws Exception {
+        seed();
+
+        mvc.perform(get("/tasks/next").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].project").value("Training"))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mvc.perform(get("/tasks/next").param("project", "Secrets"))
+                .andExpect(jsonPath("$[0].id").value(1));
+        mvc.perform(get("/tasks/next").param("project", "Unknown")).andExpect(status().isNotFound());
+        mvc.perform(get("/tasks/next").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void complete_returns_project_names_and_words_for_a_prefix() throws Exception {
+        seed();
+        mvc.perform(get("/complete").param("prefix", "s"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projects[0]").value("Secrets"))
+                .andExpect(jsonPath("$.words[0]").value("solid"));
+        mvc.perform(get("/complete").param("prefix", "do").param("limit", "1"))
+                .andExpect(jsonPath("$.projects").isEmpty())
+                .andExpect(jsonPath("$.words[0]").value("donuts"));
+        mvc.perform(get("/complete").param("prefix", "s").param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    private void seed() throws Exception {
+        mvc.perform(post("/projects").contentType(APPLICATION_JSON).content("{\"name\":\"Secrets\"}"));
+        mvc.perform(post("/projects").contentType(APPLICATION_JSON).content("{\"name\":\"Training\"}"));
+        mvc.perform(post("/projects/Secrets/tasks").contentType(APPLICATION_JSON).content("{\"description\":\"Eat more donuts.\"}"));
+        mvc.perform(post("/projects/Training/tasks").contentType(APPLICATION_JSON).content("{\"description\":\"SOLID\"}"));
+        mvc.perform(put("/projects/Secrets/tasks/1").param("deadline", "11-11-2021"));
+        mvc.perform(put("/projects/Training/tasks/2").param("deadline", "10-11-2021"));
+    }
+}
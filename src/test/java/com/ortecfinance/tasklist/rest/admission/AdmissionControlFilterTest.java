@@ -0,0 +1,114 @@
+package com.ortecfinance.tasklist.rest.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+    private static final Duration TARGET = Duration.ofMillis(50);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final AdmissionLimiter reads = new AdmissionLimiter(new AimdLimit(TARGET, 1, 1, 10, 0.5));
+    private final AdmissionLimiter writes = new AdmissionLimiter(new AimdLimit(TARGET, 1, 1, 10, 0.5));
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(
+            Map.of(PriorityClass.READ, reads, PriorityClass.WRITE, writes), Duration.ofSeconds(2));
+
+    @Test
+    void rejects_requests_over_the_limit_with_retry_after() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain chain = (request, response) -> nested[0] = send("GET", (req, res) -> {});
+
+        MockHttpServletResponse outer = send("GET", chain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(429, nested[0].getStatus());
+        assertEquals("2", nested[0].getHeader("Retry-After"));
+        assertEquals(0, reads.getInflight());
+        assertEquals(1, reads.getRejected());
+    }
+
+    @Test
+    void reads_and_writes_have_separate_budgets() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain chain = (request, response) -> nested[0] = send("POST", (req, res) -> {});
+
+        send("GET", chain);
+
+        assertEquals(200, nested[0].getStatus());
+    }
+
+    @Test
+    void writes_are_shed_while_reads_are_under_pressure() throws Exception {
+        reads.tryAcquire();
+        reads.release(SLOW);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        FilterChain chain = (request, response) -> nested[0] = send("POST", (req, res) -> {});
+
+        send("GET", chain);
+
+        assertEquals(429, nested[0].getStatus());
+        assertEquals(1, writes.getRejected());
+    }
+
+    @Test
+    void aimd_limit_grows_by_one_per_window_and_backs_off_once_per_window() {
+        AimdLimit limit = new AimdLimit(TARGET, 4, 1, 8, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+        assertEquals(5, limit.getLimit(), "one step per window of 4 requests, not one per request");
+        for (int i = 0; i < 30; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+        assertEquals(8, limit.getLimit());
+
+        // a burst of slow requests admitted under the old limit cuts it once
+        for (int i = 0; i < 3; i++) {
+            limit.onSample(SLOW, 8);
+        }
+        assertEquals(4, limit.getLimit());
+        assertTrue(limit.isCongested());
+
+        limit.onSample(FAST, 1);
+        assertEquals(4, limit.getLimit(), "an idle limit should not grow");
+        assertFalse(limit.isCongested());
+
+        // the next window backs off again
+        limit.onSample(SLOW, 4);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void gradient_limit_shrinks_when_latency_rises_above_the_baseline() {
+        GradientLimit limit = new GradientLimit(TARGET, 20, 1, 100);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST, limit.getLimit());
+        }
+        int settled = limit.getLimit();
+        assertTrue(settled > 20);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(SLOW, limit.getLimit());
+        }
+        assertTrue(limit.getLimit() < settled / 2, "limit " + limit.getLimit() + " from " + settled);
+        assertTrue(limit.isCongested());
+    }
+
+    private MockHttpServletResponse send(String method, FilterChain chain) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/projects");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
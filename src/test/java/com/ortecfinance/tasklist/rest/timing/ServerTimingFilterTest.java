@@ -0,0 +1,103 @@
+package com.ortecfinance.tasklist.rest.timing;
+
+import com.ortecfinance.tasklist.rest.timing.RequestTiming.Phase;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingFilterTest {
+    private final ServerTimingFilter filter = new ServerTimingFilter(Duration.ZERO);
+
+    @Test
+    void reports_the_phases_before_the_body_and_keeps_the_body() throws Exception {
+        FilterChain chain = (request, response) -> {
+            RequestTiming.time(Phase.SERVICE, () -> sleepMillis(2));
+            RequestTiming.handlerReturned();
+            response.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+        };
+
+        MockHttpServletResponse response = send(chain);
+
+        Map<String, Double> metrics = parse(response.getHeader(ServerTimingFilter.HEADER));
+        assertEquals(Map.of("repo", 0.0, "service", metrics.get("service"), "mapping", 0.0,
+                "total", metrics.get("total")), metrics);
+        assertTrue(metrics.get("service") >= 2.0);
+        assertTrue(metrics.get("total") >= metrics.get("service"));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void the_body_is_not_held_back_until_the_request_ends() throws Exception {
+        FilterChain chain = (request, response) -> {
+            response.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            response.flushBuffer();
+            assertTrue(response.isCommitted());
+        };
+
+        MockHttpServletResponse response = send(chain);
+
+        assertNotNull(response.getHeader(ServerTimingFilter.HEADER));
+        assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test
+    void responses_without_a_body_get_the_header_too() throws Exception {
+        MockHttpServletResponse response = send((request, servletResponse) ->
+                ((HttpServletResponse) servletResponse).setStatus(201));
+
+        assertEquals(201, response.getStatus());
+        assertTrue(response.getHeader(ServerTimingFilter.HEADER).contains("total;dur="));
+    }
+
+    @Test
+    void nested_phases_are_only_counted_once() throws Exception {
+        FilterChain chain = (request, response) -> RequestTiming.time(Phase.SERVICE, () -> {
+            sleepMillis(1);
+            RequestTiming.time(Phase.REPOSITORY, () -> sleepMillis(20));
+        });
+
+        Map<String, Double> metrics = parse(send(chain).getHeader(ServerTimingFilter.HEADER));
+
+        assertTrue(metrics.get("repo") >= 20.0);
+        assertTrue(metrics.get("service") < metrics.get("repo"), metrics.toString());
+        assertTrue(metrics.get("total") >= metrics.get("repo") + metrics.get("service"));
+    }
+
+    @Test
+    void timing_outside_a_request_just_runs_the_work() {
+        assertEquals("done", RequestTiming.time(Phase.SERVICE, () -> "done"));
+    }
+
+    private MockHttpServletResponse send(FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/projects");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static Map<String, Double> parse(String header) {
+        Map<String, Double> metrics = new HashMap<>();
+        for (String metric : header.split(", ")) {
+            String[] parts = metric.split(";dur=");
+            metrics.put(parts[0], Double.parseDouble(parts[1]));
+        }
+        return metrics;
+    }
+
+    private static void sleepMillis(long millis) {
+        long until = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < until) {
+            LockSupport.parkNanos(until - System.nanoTime());
+        }
+    }
+}